@@ -0,0 +1,74 @@
+package cart.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 100개 아이템 장바구니에 컴파일된 할인 규칙을 적용하는 데 드는 시간을 잰다.
+ * ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromotionRulesBenchmark {
+    private static final int PRODUCT_COUNT = 20_000;
+
+    @Param({"100"})
+    private int cartSize;
+
+    @Param({"10", "1000"})
+    private int promotionCount;
+
+    private PromotionRules rules;
+    private List<CartItem> cartItems;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Promotion> promotions = new ArrayList<>();
+        for (int i = 0; i < promotionCount; i++) {
+            long productId = 1 + random.nextInt(PRODUCT_COUNT);
+            switch (i % 3) {
+                case 0:
+                    promotions.add(Promotion.percentOff(productId, 1 + random.nextInt(50)));
+                    break;
+                case 1:
+                    promotions.add(Promotion.buyXGetY(productId, 1 + random.nextInt(3), 1));
+                    break;
+                default:
+                    promotions.add(Promotion.minSpend(10_000 * (1 + random.nextInt(20)), 1_000 * (1 + random.nextInt(5))));
+            }
+        }
+        rules = PromotionRules.compile(promotions, Instant.now());
+
+        cartItems = new ArrayList<>();
+        for (int i = 0; i < cartSize; i++) {
+            long productId = 1 + random.nextInt(PRODUCT_COUNT);
+            Product product = new Product(productId, "product-" + productId, 100 * (1 + random.nextInt(1_000)), "http://example.com/" + productId + ".jpg");
+            cartItems.add(new CartItem((long) i, 1 + random.nextInt(5), product, null));
+        }
+    }
+
+    @Benchmark
+    public CartDiscount apply() {
+        return rules.apply(cartItems);
+    }
+}
@@ -0,0 +1,94 @@
+package cart.dto.json;
+
+import cart.domain.CartItem;
+import cart.domain.Product;
+import cart.dto.CartItemResponse;
+import cart.dto.ProductRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 장바구니 목록 응답 쓰기와 상품 요청 읽기를 기본 데이터 바인딩과 직접 작성한 직렬화기로 비교한다.
+ * ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoJsonBenchmark {
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private ObjectWriter reflectionWriter;
+    private ObjectWriter streamingWriter;
+    private ObjectMapper reflectionMapper;
+    private ObjectMapper streamingMapper;
+    private List<CartItemResponse> cartItems;
+    private byte[] productRequest;
+
+    @Setup
+    public void setUp() {
+        reflectionMapper = new ObjectMapper();
+        streamingMapper = new ObjectMapper().registerModule(new SimpleModule()
+                .addSerializer(new ProductJson.Serializer())
+                .addSerializer(new CartItemJson.Serializer())
+                .addDeserializer(ProductRequest.class, new ProductJson.Deserializer()));
+        reflectionWriter = reflectionMapper.writerFor(reflectionMapper.getTypeFactory().constructCollectionType(List.class, CartItemResponse.class));
+        streamingWriter = streamingMapper.writerFor(streamingMapper.getTypeFactory().constructCollectionType(List.class, CartItemResponse.class));
+
+        cartItems = new ArrayList<>();
+        for (long i = 1; i <= 20; i++) {
+            Product product = new Product(i, "상품-" + i, 1_000 * (int) i, "https://example.com/images/" + i + ".jpg");
+            cartItems.add(CartItemResponse.of(new CartItem(i, 1 + (int) (i % 3), product, null), 100));
+        }
+        productRequest = "{\"name\":\"치킨\",\"price\":10000,\"imageUrl\":\"https://example.com/chicken.jpg\"}"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void writeCartItemsWithReflection() throws IOException {
+        reflectionWriter.writeValue(DISCARD, cartItems);
+    }
+
+    @Benchmark
+    public void writeCartItemsStreaming() throws IOException {
+        streamingWriter.writeValue(DISCARD, cartItems);
+    }
+
+    @Benchmark
+    public ProductRequest readProductRequestWithReflection() throws IOException {
+        return reflectionMapper.readValue(productRequest, ProductRequest.class);
+    }
+
+    @Benchmark
+    public ProductRequest readProductRequestStreaming() throws IOException {
+        return streamingMapper.readValue(productRequest, ProductRequest.class);
+    }
+}
@@ -2,12 +2,18 @@ package cart;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class JwpCartApplication {
+    private static final int STARTUP_STEP_CAPACITY = 4096;
 
     public static void main(String[] args) {
-        SpringApplication.run(JwpCartApplication.class, args);
+        SpringApplication application = new SpringApplication(JwpCartApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+        application.run(args);
     }
 
 }
@@ -0,0 +1,55 @@
+package cart;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+
+/**
+ * 애플리케이션이 준비 상태가 되면 JVM 시작부터의 소요 시간과 가장 오래 걸린 시작 단계를 기록한다.
+ * 단계별 기록은 {@link JwpCartApplication}이 {@link BufferingApplicationStartup}으로 실행했을 때만 남는다.
+ */
+@Component
+public class StartupTimingLogger implements ApplicationListener<ApplicationReadyEvent> {
+    private static final Logger log = LoggerFactory.getLogger(StartupTimingLogger.class);
+
+    private final int slowestStepCount;
+
+    public StartupTimingLogger(@Value("${cart.startup.logged-step-count:15}") int slowestStepCount) {
+        this.slowestStepCount = slowestStepCount;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        long sinceJvmStart = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("Application ready; {} ms since JVM start", sinceJvmStart);
+
+        ApplicationStartup applicationStartup = event.getApplicationContext().getApplicationStartup();
+        if (!(applicationStartup instanceof BufferingApplicationStartup)) {
+            return;
+        }
+
+        StartupTimeline timeline = ((BufferingApplicationStartup) applicationStartup).drainBufferedTimeline();
+        timeline.getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(slowestStepCount)
+                .forEach(step -> log.info("Startup step {} took {} ms {}",
+                        step.getStartupStep().getName(),
+                        step.getDuration().toMillis(),
+                        describeTags(step)));
+    }
+
+    private String describeTags(StartupTimeline.TimelineEvent step) {
+        StringBuilder tags = new StringBuilder();
+        step.getStartupStep().getTags().forEach(tag -> tags.append(tag.getKey()).append('=').append(tag.getValue()).append(' '));
+        return tags.toString().trim();
+    }
+}
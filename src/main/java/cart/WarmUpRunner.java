@@ -0,0 +1,106 @@
+package cart;
+
+import cart.dao.MemberDao;
+import cart.dao.ProductDao;
+import cart.domain.Member;
+import cart.domain.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 준비 상태를 알리기 전에 상품/장바구니 조회 경로에 실제 HTTP 요청을 보내
+ * 지연 초기화된 빈, 커넥션 풀, Jackson, JIT 를 미리 데운다.
+ * Spring Boot 는 모든 ApplicationRunner 가 끝난 뒤에 ReadinessState.ACCEPTING_TRAFFIC 을 발행한다.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.warm-up.enabled", havingValue = "true")
+public class WarmUpRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(WarmUpRunner.class);
+    private static final int WARM_UP_PRODUCT_COUNT = 10;
+
+    private final ConfigurableApplicationContext applicationContext;
+    private final MemberDao memberDao;
+    private final ProductDao productDao;
+    private final int iterations;
+    private final boolean exitAfterWarmUp;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    public WarmUpRunner(ConfigurableApplicationContext applicationContext,
+                        MemberDao memberDao,
+                        ProductDao productDao,
+                        @Value("${cart.warm-up.iterations:100}") int iterations,
+                        @Value("${cart.startup.exit-after-warm-up:false}") boolean exitAfterWarmUp) {
+        this.applicationContext = applicationContext;
+        this.memberDao = memberDao;
+        this.productDao = productDao;
+        this.iterations = iterations;
+        this.exitAfterWarmUp = exitAfterWarmUp;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long startedAt = System.nanoTime();
+        List<HttpRequest> requests = warmUpRequests();
+        for (int i = 0; i < iterations; i++) {
+            for (HttpRequest request : requests) {
+                send(request);
+            }
+        }
+        log.info("Warm-up finished; {} requests in {} ms",
+                (long) iterations * requests.size(), (System.nanoTime() - startedAt) / 1_000_000);
+
+        if (exitAfterWarmUp) {
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    private List<HttpRequest> warmUpRequests() {
+        String baseUrl = "http://localhost:" + ((WebServerApplicationContext) applicationContext).getWebServer().getPort();
+        List<HttpRequest> requests = new ArrayList<>();
+        requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/products")).GET().build());
+        // 없는 id 로는 예외 경로만 데워지므로 실제로 있는 상품을 앞에서부터 고른다.
+        for (Product product : productDao.getProductsAfter(0L, WARM_UP_PRODUCT_COUNT)) {
+            requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + product.getId())).GET().build());
+        }
+        for (Member member : memberDao.getAllMembers()) {
+            requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/cart-items"))
+                    .header(HttpHeaders.AUTHORIZATION, basicAuthorization(member))
+                    .GET()
+                    .build());
+        }
+        requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/admin")).GET().build());
+        return requests;
+    }
+
+    private String basicAuthorization(Member member) {
+        String credentials = member.getEmail() + ":" + member.getPassword();
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void send(HttpRequest request) throws InterruptedException {
+        try {
+            httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            log.warn("Warm-up request failed; uri={}", request.uri(), e);
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package cart;
 
+import cart.application.CartItemService;
+import cart.application.ConcurrencyLimiter;
 import cart.dao.MemberDao;
+import cart.metrics.RouteLatencyMetrics;
+import cart.ui.ConcurrencyLimitInterceptor;
+import cart.ui.GuestCartCookie;
+import cart.ui.LatencyInterceptor;
 import cart.ui.MemberArgumentResolver;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.List;
@@ -11,13 +18,33 @@ import java.util.List;
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
     private final MemberDao memberDao;
+    private final GuestCartCookie guestCartCookie;
+    private final CartItemService cartItemService;
+    private final RouteLatencyMetrics routeLatencyMetrics;
+    private final ConcurrencyLimiter concurrencyLimiter;
 
-    public WebMvcConfig(MemberDao memberDao) {
+    public WebMvcConfig(MemberDao memberDao, GuestCartCookie guestCartCookie, CartItemService cartItemService,
+                        RouteLatencyMetrics routeLatencyMetrics, ConcurrencyLimiter concurrencyLimiter) {
         this.memberDao = memberDao;
+        this.guestCartCookie = guestCartCookie;
+        this.cartItemService = cartItemService;
+        this.routeLatencyMetrics = routeLatencyMetrics;
+        this.concurrencyLimiter = concurrencyLimiter;
     }
 
     @Override
     public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
-        resolvers.add(new MemberArgumentResolver(memberDao));
+        resolvers.add(new MemberArgumentResolver(memberDao, guestCartCookie, cartItemService));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new LatencyInterceptor(routeLatencyMetrics))
+                .addPathPatterns("/products", "/products/**", "/cart-items", "/cart-items/**", "/guest-cart-items", "/guest-cart-items/**", "/composite", "/admin", "/settings")
+                .excludePathPatterns("/products/changes");
+        // 지연 시간 기록 뒤에 두어 거절된 요청도 503 으로 기록되게 한다. 변경 구독은 연결을 오래 잡으므로 세지 않는다.
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(concurrencyLimiter))
+                .addPathPatterns("/products", "/products/**", "/cart-items", "/cart-items/**", "/composite", "/admin", "/settings")
+                .excludePathPatterns("/products/changes");
     }
 }
@@ -0,0 +1,104 @@
+package cart.application;
+
+import cart.dao.CartItemDao;
+import cart.dao.GuestCartMergeDao;
+import cart.domain.GuestCart;
+import cart.metrics.LatencyHistogram;
+import cart.metrics.MetricsSource;
+import cart.metrics.PrometheusFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 오랫동안 변경되지 않은 장바구니 아이템을 오래된 순서로 조금씩 지운다.
+ * 한 번에 chunk-size 개만 지우고 다음 묶음 전에 pause 만큼 쉬어서 긴 잠금이나 요청 처리와의 경쟁을 피한다.
+ * 지운 아이템이 잡고 있던 재고는 샤드에서 지운 것이 커밋된 뒤에 돌려놓는다. 재고는 공용 DB 에 있어 샤드 트랜잭션과 함께
+ * 되돌려지지 않기 때문이다. 샤드마다 따로 지우고, 샤드를 조정하는 동안에는 쉬어 간다.
+ * 비회원 장바구니 쿠키가 만료된 뒤에는 합친 기록도 필요 없으므로 함께 지운다.
+ */
+@Component
+@Lazy(false)
+public class AbandonedCartPurgeJob implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(AbandonedCartPurgeJob.class);
+
+    private final CartItemDao cartItemDao;
+    private final GuestCartMergeDao guestCartMergeDao;
+    private final InventoryService inventoryService;
+    private final Duration retention;
+    private final int chunkSize;
+    private final Duration pause;
+    private final LongAdder purgedRows = new LongAdder();
+    private final LongAdder chunkLatencySumMicros = new LongAdder();
+    private final LatencyHistogram chunkLatency = new LatencyHistogram();
+
+    public AbandonedCartPurgeJob(CartItemDao cartItemDao, GuestCartMergeDao guestCartMergeDao, InventoryService inventoryService,
+                                 @Value("${cart.purge.retention:90d}") Duration retention,
+                                 @Value("${cart.purge.chunk-size:500}") int chunkSize,
+                                 @Value("${cart.purge.pause:200ms}") Duration pause) {
+        this.cartItemDao = cartItemDao;
+        this.guestCartMergeDao = guestCartMergeDao;
+        this.inventoryService = inventoryService;
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+    }
+
+    @Scheduled(initialDelayString = "${cart.purge.initial-delay:PT5M}", fixedDelayString = "${cart.purge.interval:PT1H}")
+    public void purge() {
+        guestCartMergeDao.deleteMergedBefore(Instant.now().minus(GuestCart.MAX_AGE));
+        if (cartItemDao.isRebalancing()) {
+            log.info("Skipping cart purge while cart shards are being rebalanced");
+            return;
+        }
+        Instant cutoff = Instant.now().minus(retention);
+        long purgedBefore = purgedRows.sum();
+        try {
+            for (int shard : cartItemDao.shardIndexes()) {
+                while (purgeChunk(shard, cutoff) == chunkSize) {
+                    Thread.sleep(pause.toMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long purgedInRun = purgedRows.sum() - purgedBefore;
+        if (purgedInRun > 0) {
+            log.info("Purged {} cart items last modified before {}", purgedInRun, cutoff);
+        }
+    }
+
+    int purgeChunk(int shard, Instant cutoff) {
+        long startedAt = System.nanoTime();
+        List<Long> ids = cartItemDao.findOldestIdsModifiedBefore(shard, cutoff, chunkSize);
+        Map<Long, Integer> quantities = cartItemDao.transactionTemplate(shard).execute(status -> {
+            Map<Long, Integer> locked = cartItemDao.lockQuantitiesByIdsModifiedBefore(shard, ids, cutoff);
+            purgedRows.add(cartItemDao.deleteByIdsModifiedBefore(shard, ids, cutoff));
+            return locked;
+        });
+        quantities.forEach(inventoryService::release);
+
+        long elapsedMicros = (System.nanoTime() - startedAt) / 1_000;
+        chunkLatency.recordMicros(elapsedMicros);
+        chunkLatencySumMicros.add(elapsedMicros);
+        return ids.size();
+    }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        PrometheusFormat.header(out, "cart_purge_rows_total", "counter", "Abandoned cart items deleted by the purge job.");
+        PrometheusFormat.sample(out, "cart_purge_rows_total", "", purgedRows.sum());
+        PrometheusFormat.header(out, "cart_purge_chunk_seconds", "summary", "Latency of one purge chunk (select and delete).");
+        PrometheusFormat.summaryInSeconds(out, "cart_purge_chunk_seconds", "", chunkLatency.cumulativeSnapshot(), chunkLatencySumMicros.sum());
+    }
+}
@@ -0,0 +1,180 @@
+package cart.application;
+
+import cart.dao.CartEventDao;
+import cart.domain.CartEvent;
+import cart.metrics.MetricsSource;
+import cart.metrics.PrometheusFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 장바구니 담기, 수량 변경, 삭제 기록을 요청 스레드에서 DB 에 쓰지 않고 링 버퍼에 넣어 둔다.
+ * 백그라운드 스레드가 batch-size 개가 모이거나 flush-interval 이 지나면 한 번의 배치 INSERT 로 cart_event 에 쓴다.
+ * 버퍼가 가득 차면 overflow-policy 에 따라 버리고 개수를 세거나(DROP) 자리가 날 때까지 기다린다(BLOCK).
+ * 종료할 때는 버퍼에 남은 기록을 모두 쓴 뒤 멈춘다.
+ */
+@Component
+@Lazy(false)
+public class CartEventLog implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(CartEventLog.class);
+    private static final long BLOCK_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final CartEventDao cartEventDao;
+    private final BoundedRingBuffer<CartEvent> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration shutdownTimeout;
+    private final Thread writer;
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile boolean running = true;
+
+    public CartEventLog(CartEventDao cartEventDao,
+                        @Value("${cart.event-log.capacity:8192}") int capacity,
+                        @Value("${cart.event-log.batch-size:500}") int batchSize,
+                        @Value("${cart.event-log.flush-interval:100ms}") Duration flushInterval,
+                        @Value("${cart.event-log.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+                        @Value("${cart.event-log.shutdown-timeout:5s}") Duration shutdownTimeout) {
+        this.cartEventDao = cartEventDao;
+        this.buffer = new BoundedRingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.overflowPolicy = overflowPolicy;
+        this.shutdownTimeout = shutdownTimeout;
+        this.writer = new Thread(this::writeLoop, "cart-event-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void record(CartEvent.Type type, Long memberId, Long productId, int quantity) {
+        CartEvent event = new CartEvent(memberId, productId, type, quantity, Instant.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+            return;
+        }
+        enqueue(event);
+    }
+
+    private void enqueue(CartEvent event) {
+        while (running && !buffer.offer(event)) {
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                dropped.increment();
+                return;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, BLOCK_BACKOFF_NANOS);
+        }
+        if (!running) {
+            dropped.increment();
+            return;
+        }
+        recorded.increment();
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void writeLoop() {
+        List<CartEvent> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+        while (true) {
+            boolean stopping = !running;
+            int drained = buffer.drainTo(batch, batchSize - batch.size());
+            if (batch.isEmpty()) {
+                if (stopping) {
+                    return;
+                }
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            if (drained == batch.size()) {
+                deadline = System.nanoTime() + flushIntervalNanos;
+            }
+
+            long remainingNanos = deadline - System.nanoTime();
+            if (!stopping && batch.size() < batchSize && remainingNanos > 0) {
+                LockSupport.parkNanos(this, remainingNanos);
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<CartEvent> batch) {
+        try {
+            cartEventDao.insertAll(batch);
+            written.add(batch.size());
+            batches.increment();
+        } catch (RuntimeException e) {
+            // 어떤 예외든 쓰기 스레드가 죽으면 BLOCK 정책의 요청 스레드가 영영 기다리므로 세고 넘어간다.
+            failed.add(batch.size());
+            log.warn("Cannot write {} cart events", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(shutdownTimeout.toMillis());
+        if (writer.isAlive()) {
+            log.warn("Cart event writer did not finish within {}; {} events may be lost", shutdownTimeout, buffer.size());
+        }
+    }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        PrometheusFormat.header(out, "cart_event_log_recorded_total", "counter", "Cart events accepted into the write buffer.");
+        PrometheusFormat.sample(out, "cart_event_log_recorded_total", "", recorded.sum());
+        PrometheusFormat.header(out, "cart_event_log_dropped_total", "counter", "Cart events dropped because the write buffer was full or closed.");
+        PrometheusFormat.sample(out, "cart_event_log_dropped_total", "", dropped.sum());
+        PrometheusFormat.header(out, "cart_event_log_written_total", "counter", "Cart events inserted into cart_event.");
+        PrometheusFormat.sample(out, "cart_event_log_written_total", "", written.sum());
+        PrometheusFormat.header(out, "cart_event_log_failed_total", "counter", "Cart events lost because their batch insert failed.");
+        PrometheusFormat.sample(out, "cart_event_log_failed_total", "", failed.sum());
+        PrometheusFormat.header(out, "cart_event_log_batches_total", "counter", "Batch inserts into cart_event.");
+        PrometheusFormat.sample(out, "cart_event_log_batches_total", "", batches.sum());
+        PrometheusFormat.header(out, "cart_event_log_buffered", "gauge", "Cart events waiting in the write buffer.");
+        PrometheusFormat.sample(out, "cart_event_log_buffered", "", buffer.size());
+    }
+
+    long writtenCount() {
+        return written.sum();
+    }
+
+    long droppedCount() {
+        return dropped.sum();
+    }
+
+    long failedCount() {
+        return failed.sum();
+    }
+
+    public enum OverflowPolicy {
+        DROP, BLOCK
+    }
+}
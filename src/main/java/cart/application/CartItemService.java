@@ -1,53 +1,193 @@
 package cart.application;
 
 import cart.dao.CartItemDao;
+import cart.dao.GuestCartMergeDao;
+import cart.dao.MemberDao;
 import cart.dao.ProductDao;
+import cart.domain.CartDiscount;
+import cart.domain.CartEvent;
 import cart.domain.CartItem;
+import cart.domain.GuestCart;
 import cart.domain.Member;
+import cart.domain.Product;
 import cart.dto.CartItemQuantityUpdateRequest;
 import cart.dto.CartItemRequest;
 import cart.dto.CartItemResponse;
+import cart.dto.CartTotalResponse;
+import cart.exception.InventoryException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class CartItemService {
     private final ProductDao productDao;
+    private final ProductLoader productLoader;
     private final CartItemDao cartItemDao;
+    private final CartEventLog cartEventLog;
+    private final TrendingProducts trendingProducts;
+    private final InventoryService inventoryService;
+    private final PromotionRuleStore promotionRuleStore;
+    private final RelatedProducts relatedProducts;
+    private final GuestCartMergeDao guestCartMergeDao;
+    private final MemberDao memberDao;
 
-    public CartItemService(ProductDao productDao, CartItemDao cartItemDao) {
+    public CartItemService(ProductDao productDao, ProductLoader productLoader, CartItemDao cartItemDao,
+                           CartEventLog cartEventLog, TrendingProducts trendingProducts, InventoryService inventoryService,
+                           PromotionRuleStore promotionRuleStore, RelatedProducts relatedProducts,
+                           GuestCartMergeDao guestCartMergeDao, MemberDao memberDao) {
         this.productDao = productDao;
+        this.productLoader = productLoader;
         this.cartItemDao = cartItemDao;
+        this.cartEventLog = cartEventLog;
+        this.trendingProducts = trendingProducts;
+        this.inventoryService = inventoryService;
+        this.promotionRuleStore = promotionRuleStore;
+        this.relatedProducts = relatedProducts;
+        this.guestCartMergeDao = guestCartMergeDao;
+        this.memberDao = memberDao;
     }
 
     public List<CartItemResponse> findByMember(Member member) {
+        return toResponses(cartItemDao.findByMemberId(member.getId()));
+    }
+
+    public CartTotalResponse getTotal(Member member) {
         List<CartItem> cartItems = cartItemDao.findByMemberId(member.getId());
-        return cartItems.stream().map(CartItemResponse::of).collect(Collectors.toList());
+        return CartTotalResponse.of(promotionRuleStore.current().apply(cartItems));
     }
 
+    /**
+     * 담기 전 장바구니를 읽어 함께 담은 상품을 세므로, 같은 회원의 변경은 회원 행을 잠가 차례로 실행한다.
+     * 재고보다 먼저 잠가 다른 변경과 잠금 순서를 맞춘다.
+     */
+    @Transactional
     public Long add(Member member, CartItemRequest cartItemRequest) {
-        return cartItemDao.save(new CartItem(member, productDao.getProductById(cartItemRequest.getProductId())));
+        memberDao.lockById(member.getId());
+        CartItem cartItem = new CartItem(member, productLoader.getProductById(cartItemRequest.getProductId()));
+        inventoryService.reserve(cartItem.getProduct().getId(), cartItem.getQuantity());
+        List<Long> cartProductIds = cartItemDao.findProductIdsByMemberId(member.getId());
+        Long cartItemId = cartItemDao.save(cartItem);
+        cartEventLog.record(CartEvent.Type.ADDED, member.getId(), cartItem.getProduct().getId(), cartItem.getQuantity());
+        trendingProducts.record(cartItem.getProduct().getId(), cartItem.getQuantity());
+        if (!cartProductIds.contains(cartItem.getProduct().getId())) {
+            relatedProducts.recordAdded(cartItem.getProduct().getId(), cartProductIds);
+        }
+        return cartItemId;
     }
 
+    @Transactional
     public void updateQuantity(Member member, Long id, CartItemQuantityUpdateRequest request) {
-        CartItem cartItem = cartItemDao.findById(id);
+        memberDao.lockById(member.getId());
+        CartItem cartItem = cartItemDao.findById(member.getId(), id);
         cartItem.checkOwner(member);
 
+        Long productId = cartItem.getProduct().getId();
+        int difference = request.getQuantity() - cartItem.getQuantity();
+        if (difference > 0) {
+            inventoryService.reserve(productId, difference);
+        } else {
+            inventoryService.release(productId, -difference);
+        }
+
         if (request.getQuantity() == 0) {
-            cartItemDao.deleteById(id);
+            List<Long> remainingProductIds = cartItemDao.deleteById(member.getId(), id);
+            cartEventLog.record(CartEvent.Type.REMOVED, member.getId(), cartItem.getProduct().getId(), 0);
+            relatedProducts.recordRemoved(productId, remainingProductIds);
             return;
         }
 
         cartItem.changeQuantity(request.getQuantity());
         cartItemDao.updateQuantity(cartItem);
+        cartEventLog.record(CartEvent.Type.QUANTITY_CHANGED, member.getId(), cartItem.getProduct().getId(), cartItem.getQuantity());
     }
 
+    @Transactional
     public void remove(Member member, Long id) {
-        CartItem cartItem = cartItemDao.findById(id);
+        memberDao.lockById(member.getId());
+        CartItem cartItem = cartItemDao.findById(member.getId(), id);
         cartItem.checkOwner(member);
 
-        cartItemDao.deleteById(id);
+        List<Long> remainingProductIds = cartItemDao.deleteById(member.getId(), id);
+        inventoryService.release(cartItem.getProduct().getId(), cartItem.getQuantity());
+        cartEventLog.record(CartEvent.Type.REMOVED, member.getId(), cartItem.getProduct().getId(), 0);
+        relatedProducts.recordRemoved(cartItem.getProduct().getId(), remainingProductIds);
+    }
+
+    public List<CartItemResponse> findGuestCartItems(GuestCart guestCart) {
+        Map<Long, Integer> quantities = guestCart.getQuantities();
+        Map<Long, Product> products = productDao.findByIds(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<CartItem> cartItems = quantities.keySet().stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(product -> new CartItem(product.getId(), quantities.get(product.getId()), product, null))
+                .collect(Collectors.toList());
+        return toResponses(cartItems);
+    }
+
+    public void addToGuestCart(GuestCart guestCart, CartItemRequest cartItemRequest) {
+        Product product = productLoader.getProductById(cartItemRequest.getProductId());
+        guestCart.add(product.getId());
+    }
+
+    /**
+     * 같은 쿠키로 들어온 요청이 여럿이어도 한 번만 합친다. nonce 를 남기는 것도 같은 트랜잭션이므로 합치다 실패하면 다시 합칠 수 있다.
+     */
+    @Transactional
+    public void mergeGuestCart(Member member, GuestCart guestCart) {
+        if (guestCart.getNonce() == null) {
+            return;
+        }
+        memberDao.lockById(member.getId());
+        if (!guestCartMergeDao.markMerged(guestCart.getNonce())) {
+            return;
+        }
+        Map<Long, Integer> quantities = guestCart.getQuantities();
+        Map<Long, Integer> reservedQuantities = new LinkedHashMap<>();
+        productDao.findByIds(quantities.keySet()).stream()
+                .filter(product -> tryReserve(product.getId(), quantities.get(product.getId())))
+                .forEach(product -> reservedQuantities.put(product.getId(), quantities.get(product.getId())));
+
+        if (!reservedQuantities.isEmpty()) {
+            List<Long> cartProductIds = new ArrayList<>(cartItemDao.findProductIdsByMemberId(member.getId()));
+            cartItemDao.mergeQuantities(member.getId(), reservedQuantities);
+            for (Long productId : reservedQuantities.keySet()) {
+                if (!cartProductIds.contains(productId)) {
+                    relatedProducts.recordAdded(productId, List.copyOf(cartProductIds));
+                    cartProductIds.add(productId);
+                }
+            }
+            reservedQuantities.forEach((productId, quantity) -> {
+                cartEventLog.record(CartEvent.Type.ADDED, member.getId(), productId, quantity);
+                trendingProducts.record(productId, quantity);
+            });
+        }
+    }
+
+    private List<CartItemResponse> toResponses(List<CartItem> cartItems) {
+        CartDiscount cartDiscount = promotionRuleStore.current().apply(cartItems);
+        List<CartItemResponse> responses = new ArrayList<>(cartItems.size());
+        for (int i = 0; i < cartItems.size(); i++) {
+            responses.add(CartItemResponse.of(cartItems.get(i), cartDiscount.getLineDiscount(i)));
+        }
+        return responses;
+    }
+
+    private boolean tryReserve(Long productId, int quantity) {
+        try {
+            inventoryService.reserve(productId, quantity);
+            return true;
+        } catch (InventoryException.OutOfStock e) {
+            return false;
+        }
     }
 }
@@ -0,0 +1,17 @@
+package cart.application;
+
+/**
+ * 다른 노드가 공유 DB 의 catalog_version 을 올렸음을 알린다. 무엇이 바뀌었는지 모르므로 상품으로부터 만든 로컬 상태는
+ * 이 이벤트를 받으면 버려야 한다. 이 노드에서 일어난 변경으로는 발행되지 않으므로 로컬 변경은 쓸 때 직접 반영한다.
+ */
+public class CatalogChangedEvent {
+    private final long version;
+
+    public CatalogChangedEvent(long version) {
+        this.version = version;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,60 @@
+package cart.application;
+
+import cart.dao.ProductDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.LongStream;
+
+/**
+ * 여러 노드가 같은 DB 를 쓸 때 상품 카탈로그 변경을 알아차리기 위해 catalog_version 을 주기적으로 읽는다.
+ * 다른 노드가 올린 버전이 보이면 {@link CatalogChangedEvent} 를 발행하므로, 로컬 상태가 오래된 채로 남는 시간은
+ * cart.catalog.max-staleness 에 조회 시간을 더한 값을 넘지 않는다. 이 노드가 올린 버전은 쓸 때 이미 반영했으므로 건너뛴다.
+ */
+@Component
+@Lazy(false)
+public class CatalogVersionWatcher {
+    private static final Logger log = LoggerFactory.getLogger(CatalogVersionWatcher.class);
+    private static final long UNKNOWN = -1;
+
+    private final ProductDao productDao;
+    private final ApplicationEventPublisher eventPublisher;
+    private volatile long currentVersion = UNKNOWN;
+
+    public CatalogVersionWatcher(ProductDao productDao, ApplicationEventPublisher eventPublisher) {
+        this.productDao = productDao;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Scheduled(fixedDelayString = "${cart.catalog.max-staleness:PT1S}")
+    public void poll() {
+        long version;
+        try {
+            version = productDao.getCatalogVersion();
+        } catch (DataAccessException e) {
+            log.warn("Cannot read catalog version; keeping version {}", currentVersion, e);
+            return;
+        }
+
+        long previousVersion = currentVersion;
+        if (version == previousVersion) {
+            return;
+        }
+        currentVersion = version;
+        boolean changedElsewhere = previousVersion != UNKNOWN && (version < previousVersion
+                || LongStream.rangeClosed(previousVersion + 1, version).anyMatch(written -> !productDao.isWrittenHere(written)));
+        productDao.forgetWrittenVersionsUpTo(version);
+        if (changedElsewhere) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(version));
+        }
+    }
+
+    public long currentVersion() {
+        return currentVersion;
+    }
+}
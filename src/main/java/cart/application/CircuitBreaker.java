@@ -0,0 +1,92 @@
+package cart.application;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * 최근 window-size 번의 호출 중 실패하거나 slow-call-threshold 보다 오래 걸린 비율이 기준을 넘으면 열린다.
+ * 열린 동안에는 호출하지 않고, 백그라운드 점검이 성공하면 다시 닫힌다.
+ */
+public class CircuitBreaker {
+    private final boolean[] failures;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallThresholdNanos;
+    private State state = State.CLOSED;
+    private int calls;
+    private int failureCount;
+    private int next;
+    private long openedCount;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration slowCallThreshold) {
+        this.failures = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallThresholdNanos = slowCallThreshold.toNanos();
+    }
+
+    public synchronized boolean allowsCalls() {
+        return state == State.CLOSED;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized long openedCount() {
+        return openedCount;
+    }
+
+    public void recordSuccess(long elapsedNanos) {
+        record(elapsedNanos > slowCallThresholdNanos);
+    }
+
+    public void recordFailure() {
+        record(true);
+    }
+
+    public boolean isSlow(long elapsedNanos) {
+        return elapsedNanos > slowCallThresholdNanos;
+    }
+
+    public synchronized void startProbe() {
+        if (state == State.OPEN) {
+            state = State.HALF_OPEN;
+        }
+    }
+
+    public synchronized void probeSucceeded() {
+        state = State.CLOSED;
+        calls = 0;
+        failureCount = 0;
+        next = 0;
+        Arrays.fill(failures, false);
+    }
+
+    public synchronized void probeFailed() {
+        state = State.OPEN;
+    }
+
+    private synchronized void record(boolean failure) {
+        if (state != State.CLOSED) {
+            return;
+        }
+        if (calls == failures.length) {
+            failureCount -= failures[next] ? 1 : 0;
+        } else {
+            calls++;
+        }
+        failures[next] = failure;
+        failureCount += failure ? 1 : 0;
+        next = (next + 1) % failures.length;
+
+        if (calls >= minimumCalls && failureCount >= failureRateThreshold * calls) {
+            state = State.OPEN;
+            openedCount++;
+        }
+    }
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
@@ -0,0 +1,132 @@
+package cart.application;
+
+import cart.metrics.MetricsSource;
+import cart.metrics.PrometheusFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * 동시에 처리하는 요청 수의 상한을 응답 시간에 맞춰 조절한다.
+ * 최근 응답 시간이 평소보다 길어지면 줄이고, 상한 가까이 쓰는 동안 응답 시간이 그대로면 조금씩 늘린다.
+ * 과부하로 끝난 요청이 있으면 곱셈으로 줄인다. 요청이 적어 상한 가까이 쓰지 않을 때도 응답 시간이 그대로면
+ * 처음 상한까지는 조금씩 되돌린다.
+ * <p>
+ * 상한을 넘은 요청은 기다리게 하지 않고 바로 거절한다. 조회는 상한 전체를 쓰고, 변경과 관리자 화면은 일부만 쓰므로
+ * 포화되면 변경과 관리자 화면부터 거절된다. 상한이 작아도 각 우선순위는 최소 한 자리를 쓸 수 있다.
+ */
+@Component
+public class ConcurrencyLimiter implements MetricsSource {
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 500;
+    // 응답 시간이 평소의 이 배수를 넘기 전까지는 상한을 줄이지 않는다.
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double[] shares = new double[Priority.values().length];
+    private final long[] rejected = new long[Priority.values().length];
+    private double limit;
+    private int inFlight;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public ConcurrencyLimiter(@Value("${cart.concurrency.initial-limit:20}") int initialLimit,
+                              @Value("${cart.concurrency.min-limit:4}") int minLimit,
+                              @Value("${cart.concurrency.max-limit:200}") int maxLimit,
+                              @Value("${cart.concurrency.smoothing:0.2}") double smoothing,
+                              @Value("${cart.concurrency.write-share:0.8}") double writeShare,
+                              @Value("${cart.concurrency.admin-share:0.5}") double adminShare) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("cart.concurrency limits must satisfy 1 <= min-limit <= max-limit");
+        }
+        this.initialLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.limit = this.initialLimit;
+        shares[Priority.READ.ordinal()] = 1.0;
+        shares[Priority.WRITE.ordinal()] = writeShare;
+        shares[Priority.ADMIN.ordinal()] = adminShare;
+    }
+
+    /**
+     * 자리가 있으면 차지하고 true 를 돌려준다. true 를 받았으면 끝날 때 반드시 release 를 불러야 한다.
+     */
+    public synchronized boolean tryAcquire(Priority priority) {
+        if (inFlight >= Math.max(1, (int) (limit * shares[priority.ordinal()]))) {
+            rejected[priority.ordinal()]++;
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * overloaded 는 DB 연결을 얻지 못했거나 조회 시간이 지나는 등 과부하 때문에 실패한 경우에만 true 다.
+     * 없는 상품 조회 같은 다른 실패는 부하와 상관이 없으므로 상한을 줄이지 않는다.
+     */
+    public synchronized void release(long elapsedNanos, boolean overloaded) {
+        int inFlightBeforeRelease = inFlight--;
+        if (overloaded) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            return;
+        }
+
+        shortRttNanos = shortRttNanos == 0 ? elapsedNanos : shortRttNanos + (elapsedNanos - shortRttNanos) / SHORT_WINDOW;
+        longRttNanos = longRttNanos == 0 ? elapsedNanos : longRttNanos + (elapsedNanos - longRttNanos) / LONG_WINDOW;
+        // 느려진 상태가 오래 이어지면 평소 값이 따라 올라간다. 회복되면 평소 값도 빨리 내려오게 한다.
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+        // 상한의 절반도 쓰지 않을 때는 처음 상한 위로 늘릴 근거가 없다. 그 아래로 줄어 있으면 응답 시간이 그대로일 때만 되돌린다.
+        if (inFlightBeforeRelease < limit / 2) {
+            if (limit < initialLimit && gradient >= 1.0) {
+                limit = Math.min(initialLimit, limit + smoothing * Math.sqrt(limit));
+            }
+            return;
+        }
+
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, (1 - smoothing) * limit + smoothing * newLimit));
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        int currentLimit;
+        int currentInFlight;
+        long[] rejectedCounts;
+        synchronized (this) {
+            currentLimit = (int) limit;
+            currentInFlight = inFlight;
+            rejectedCounts = rejected.clone();
+        }
+        PrometheusFormat.header(out, "http_concurrency_limit", "gauge", "Current adaptive limit on concurrent requests.");
+        PrometheusFormat.sample(out, "http_concurrency_limit", "", currentLimit);
+        PrometheusFormat.header(out, "http_concurrency_in_flight", "gauge", "Requests currently holding a concurrency permit.");
+        PrometheusFormat.sample(out, "http_concurrency_in_flight", "", currentInFlight);
+        PrometheusFormat.header(out, "http_concurrency_rejected_total", "counter", "Requests rejected over the concurrency limit by priority.");
+        for (Priority priority : Priority.values()) {
+            PrometheusFormat.sample(out, "http_concurrency_rejected_total",
+                    PrometheusFormat.label("priority", priority.name().toLowerCase(Locale.ROOT)), rejectedCounts[priority.ordinal()]);
+        }
+    }
+
+    public enum Priority {
+        READ, WRITE, ADMIN
+    }
+}
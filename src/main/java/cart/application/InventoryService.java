@@ -0,0 +1,224 @@
+package cart.application;
+
+import cart.dao.InventoryDao;
+import cart.exception.InventoryException;
+import cart.metrics.MetricsSource;
+import cart.metrics.PrometheusFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 상품 재고를 예약하고 돌려놓는다.
+ * 보통 상품은 "stock >= ?" 조건부 UPDATE 한 번으로 예약하므로 DB 트랜잭션과 함께 커밋되거나 롤백된다.
+ * cart.inventory.hot-product-ids 에 지정한 상품은 DB 에서 lease-size 만큼 미리 떼어 온 재고를
+ * {@link StripedStock} 에 두고 메모리에서 예약해 한 행의 잠금에 요청이 줄 서지 않게 한다.
+ * 떼어 온 재고 중 남은 것은 reconcile-interval 마다, 그리고 종료할 때 DB 로 돌려놓는다.
+ * 떼어 오기와 돌려놓기는 메모리의 재고와 맞도록 부르는 쪽 트랜잭션과 따로 커밋한다.
+ */
+@Service
+@Lazy(false)
+public class InventoryService implements MetricsSource {
+    private final InventoryDao inventoryDao;
+    private final TransactionTemplate leaseTransactionTemplate;
+    private final Map<Long, StripedStock> hotStocks;
+    private final int leaseSize;
+    private final LongAdder hotReservations = new LongAdder();
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder outOfStock = new LongAdder();
+
+    public InventoryService(InventoryDao inventoryDao,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${cart.inventory.hot-product-ids:}") List<Long> hotProductIds,
+                            @Value("${cart.inventory.stripes:8}") int stripes,
+                            @Value("${cart.inventory.lease-size:100}") int leaseSize) {
+        this.inventoryDao = inventoryDao;
+        this.leaseTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaseTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.hotStocks = hotProductIds.stream()
+                .distinct()
+                .collect(Collectors.toUnmodifiableMap(Function.identity(), id -> new StripedStock(stripes)));
+        this.leaseSize = leaseSize;
+    }
+
+    public void reserve(Long productId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        StripedStock hotStock = hotStocks.get(productId);
+        if (hotStock == null) {
+            if (!inventoryDao.reserve(productId, quantity)) {
+                outOfStock.increment();
+                throw new InventoryException.OutOfStock(productId, quantity);
+            }
+            return;
+        }
+
+        if (!hotStock.tryReserve(quantity) && !reserveWithLease(productId, hotStock, quantity)) {
+            outOfStock.increment();
+            throw new InventoryException.OutOfStock(productId, quantity);
+        }
+        hotReservations.increment();
+        releaseOnRollback(hotStock, quantity);
+    }
+
+    public void release(Long productId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        StripedStock hotStock = hotStocks.get(productId);
+        if (hotStock == null) {
+            inventoryDao.release(productId, quantity);
+            return;
+        }
+        releaseOnCommit(hotStock, quantity);
+    }
+
+    public Integer getStock(Long productId) {
+        Integer stock = inventoryDao.findStock(productId);
+        StripedStock hotStock = hotStocks.get(productId);
+        if (stock == null || hotStock == null) {
+            return stock;
+        }
+        return stock + hotStock.available();
+    }
+
+    public void updateStock(Long productId, Integer stock) {
+        if (stock != null && stock < 0) {
+            throw new InventoryException.InvalidStock(stock);
+        }
+        inventoryDao.findStock(productId);
+
+        StripedStock hotStock = hotStocks.get(productId);
+        if (hotStock == null) {
+            inventoryDao.updateStock(productId, stock);
+            return;
+        }
+        synchronized (hotStock) {
+            hotStock.drain();
+            inventoryDao.updateStock(productId, stock);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.inventory.reconcile-interval:PT1S}")
+    public void reconcile() {
+        hotStocks.forEach((productId, hotStock) -> {
+            synchronized (hotStock) {
+                int unused = hotStock.drain();
+                if (unused > 0) {
+                    leaseTransactionTemplate.executeWithoutResult(status -> inventoryDao.release(productId, unused));
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        reconcile();
+    }
+
+    private boolean reserveWithLease(Long productId, StripedStock hotStock, int quantity) {
+        synchronized (hotStock) {
+            if (hotStock.tryReserve(quantity)) {
+                return true;
+            }
+
+            int leased = lease(productId, Math.max(leaseSize, quantity));
+            if (leased < 0) {
+                return true;
+            }
+            hotStock.add(leased);
+            if (hotStock.tryReserve(quantity)) {
+                return true;
+            }
+
+            // 남은 재고가 여러 칸에 흩어져 있으면 한 칸으로 모아서 다시 시도한다.
+            int available = hotStock.drain();
+            if (available >= quantity) {
+                hotStock.add(available - quantity);
+                return true;
+            }
+            hotStock.add(available);
+            return false;
+        }
+    }
+
+    /**
+     * DB 에서 최대 maxQuantity 만큼 재고를 떼어 온다. 재고 제한이 없는 상품이면 -1 을 돌려준다.
+     * 메모리에 더한 재고는 되돌릴 수 없으므로 부르는 쪽 트랜잭션이 롤백되어도 차감은 남아야 한다.
+     */
+    private int lease(Long productId, int maxQuantity) {
+        Integer leased = leaseTransactionTemplate.execute(status -> {
+            while (true) {
+                Integer stock = inventoryDao.findStock(productId);
+                if (stock == null) {
+                    return -1;
+                }
+                int quantity = Math.min(stock, maxQuantity);
+                if (quantity == 0) {
+                    return 0;
+                }
+                if (inventoryDao.reserve(productId, quantity)) {
+                    return quantity;
+                }
+            }
+        });
+        if (leased > 0) {
+            leases.increment();
+        }
+        return leased;
+    }
+
+    /**
+     * 메모리의 재고는 DB 트랜잭션과 함께 되돌릴 수 없으므로, 커밋된 뒤에야 다른 요청이 쓸 수 있게 돌려놓는다.
+     */
+    private void releaseOnCommit(StripedStock hotStock, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            hotStock.add(quantity);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                hotStock.add(quantity);
+            }
+        });
+    }
+
+    private void releaseOnRollback(StripedStock hotStock, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    hotStock.add(quantity);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        PrometheusFormat.header(out, "inventory_hot_reservations_total", "counter", "Reservations served from in-memory hot item stock.");
+        PrometheusFormat.sample(out, "inventory_hot_reservations_total", "", hotReservations.sum());
+        PrometheusFormat.header(out, "inventory_leases_total", "counter", "Stock leases taken from the database for hot items.");
+        PrometheusFormat.sample(out, "inventory_leases_total", "", leases.sum());
+        PrometheusFormat.header(out, "inventory_out_of_stock_total", "counter", "Reservations rejected for lack of stock.");
+        PrometheusFormat.sample(out, "inventory_out_of_stock_total", "", outOfStock.sum());
+    }
+}
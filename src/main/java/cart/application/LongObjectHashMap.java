@@ -0,0 +1,122 @@
+package cart.application;
+
+/**
+ * long 키로 값을 찾을 때 키를 박싱하지 않는 open addressing 해시 맵. 키 0 은 담을 수 없다.
+ * 지우기는 {@link LongIntHashMap} 과 같이 뒤따르는 항목을 당겨 온다. 동기화는 호출하는 쪽이 맡는다.
+ */
+class LongObjectHashMap<V> {
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    LongObjectHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        if (key == LongIntHashMap.EMPTY) {
+            return null;
+        }
+        int slot = slotOf(key);
+        while (keys[slot] != LongIntHashMap.EMPTY) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    void put(long key, V value) {
+        if (key == LongIntHashMap.EMPTY) {
+            throw new IllegalArgumentException("key 0 is reserved for empty slots");
+        }
+        int slot = slotOf(key);
+        while (keys[slot] != LongIntHashMap.EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == LongIntHashMap.EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+        if (size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+    }
+
+    void remove(long key) {
+        if (key == LongIntHashMap.EMPTY) {
+            return;
+        }
+        int slot = slotOf(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == LongIntHashMap.EMPTY) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int gap = slot;
+        int next = (slot + 1) & mask;
+        while (keys[next] != LongIntHashMap.EMPTY) {
+            int home = slotOf(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = LongIntHashMap.EMPTY;
+        values[gap] = null;
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 할당 없이 훑을 수 있도록 칸 단위로 접근한다. 빈 칸의 키는 {@link LongIntHashMap#EMPTY} 다.
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != LongIntHashMap.EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                while (keys[slot] != LongIntHashMap.EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private int slotOf(long key) {
+        return (int) LongIntHashMap.mix(key) & mask;
+    }
+}
@@ -0,0 +1,263 @@
+package cart.application;
+
+import cart.domain.Product;
+import cart.dto.ProductChangeEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 상품 변경 이벤트를 SSE 구독자에게 전달한다.
+ * 최근 이벤트는 고정 크기 링 버퍼에 남겨 두어 Last-Event-ID 로 재접속한 클라이언트가 이어서 받을 수 있다.
+ * 버퍼에서 이미 밀려난 지점을 요청하면 전체 목록을 다시 조회하라는 reset 이벤트를 보낸다.
+ * 트랜잭션 안에서 발행한 이벤트는 커밋된 뒤에 전달한다.
+ * 다른 노드에서 카탈로그가 바뀐 경우에는 변경 내용을 알 수 없으므로 모든 구독자에게 reset 이벤트를 보낸다.
+ * <p>
+ * 구독자마다 크기가 정해진 큐를 두고 보내기 스레드 풀이 큐를 비운다. 느린 구독자의 큐가 차면 연결을 끊으므로
+ * 다른 구독자는 기다리지 않는다. 끊긴 구독자는 Last-Event-ID 로 재접속해 이어서 받는다.
+ */
+@Component
+public class ProductChangeFeed {
+    private static final String CHANGE_EVENT_NAME = "product-change";
+    private static final String RESET_EVENT_NAME = "reset";
+    private static final int SENDER_THREADS = 4;
+
+    private final ProductChangeEvent[] buffer;
+    private final long emitterTimeoutMillis;
+    private final int subscriberQueueSize;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService dispatcher;
+    private final ExecutorService senders;
+    private long lastSequence;
+
+    public ProductChangeFeed(@Value("${cart.product-changes.buffer-size:1024}") int bufferSize,
+                             @Value("${cart.product-changes.emitter-timeout-millis:1800000}") long emitterTimeoutMillis,
+                             @Value("${cart.product-changes.heartbeat-seconds:15}") long heartbeatSeconds,
+                             @Value("${cart.product-changes.subscriber-queue-size:256}") int subscriberQueueSize) {
+        this.buffer = new ProductChangeEvent[bufferSize];
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.senders = Executors.newFixedThreadPool(SENDER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "product-change-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    public void publish(ProductChangeEvent.Kind kind, Long productId, Product product) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(kind, productId, product);
+                }
+            });
+            return;
+        }
+        append(kind, productId, product);
+    }
+
+    private void append(ProductChangeEvent.Kind kind, Long productId, Product product) {
+        ProductChangeEvent event;
+        synchronized (this) {
+            event = ProductChangeEvent.of(++lastSequence, kind, productId, product);
+            buffer[(int) (event.getSequence() % buffer.length)] = event;
+        }
+        dispatcher.execute(() -> broadcast(event));
+    }
+
+    public SseEmitter subscribe(Long lastEventId) {
+        return subscribe(new SseEmitter(emitterTimeoutMillis), lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Long lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        dispatcher.execute(() -> {
+            if (replay(subscriber, lastEventId)) {
+                subscribers.add(subscriber);
+            }
+        });
+        return emitter;
+    }
+
+    synchronized Optional<List<ProductChangeEvent>> eventsAfter(long sequence) {
+        long oldestSequence = Math.max(1, lastSequence - buffer.length + 1);
+        if (sequence > lastSequence || sequence < oldestSequence - 1) {
+            return Optional.empty();
+        }
+
+        List<ProductChangeEvent> events = new ArrayList<>();
+        for (long next = sequence + 1; next <= lastSequence; next++) {
+            events.add(buffer[(int) (next % buffer.length)]);
+        }
+        return Optional.of(events);
+    }
+
+    synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    private boolean replay(Subscriber subscriber, Long lastEventId) {
+        if (lastEventId == null) {
+            subscriber.lastSentSequence = lastSequence();
+            return true;
+        }
+
+        // 큐에 다 담을 수 없을 만큼 놓쳤으면 하나씩 보내는 대신 다시 조회하게 한다.
+        Optional<List<ProductChangeEvent>> missedEvents = eventsAfter(lastEventId)
+                .filter(events -> events.size() < subscriberQueueSize);
+        if (missedEvents.isEmpty()) {
+            subscriber.lastSentSequence = lastSequence();
+            return subscriber.emit(SseEmitter.event()
+                    .id(String.valueOf(subscriber.lastSentSequence))
+                    .name(RESET_EVENT_NAME)
+                    .data(subscriber.lastSentSequence));
+        }
+
+        subscriber.lastSentSequence = lastEventId;
+        for (ProductChangeEvent event : missedEvents.get()) {
+            if (!subscriber.send(event)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void broadcast(ProductChangeEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.send(event)) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        dispatcher.execute(() -> {
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.emit(SseEmitter.event().name(RESET_EVENT_NAME).data(event.getVersion()))) {
+                    subscribers.remove(subscriber);
+                }
+            }
+        });
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.emit(SseEmitter.event().comment("keep-alive"))) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    /**
+     * 디스패처 스레드가 큐에 넣고 보내기 스레드 하나가 순서대로 비운다. 디스패처는 emitter 를 직접 건드리지 않는다.
+     */
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final Deque<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>();
+        private long lastSentSequence;
+        private boolean draining;
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private boolean send(ProductChangeEvent event) {
+            if (event.getSequence() <= lastSentSequence) {
+                return true;
+            }
+            lastSentSequence = event.getSequence();
+            return emit(SseEmitter.event()
+                    .id(String.valueOf(event.getSequence()))
+                    .name(CHANGE_EVENT_NAME)
+                    .data(event, MediaType.APPLICATION_JSON));
+        }
+
+        /**
+         * 큐가 차 있으면 구독을 끊고 false 를 돌려준다. 연결은 보내기 스레드가 지금 보내는 이벤트를 마친 뒤 닫는다.
+         */
+        private synchronized boolean emit(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return false;
+            }
+            if (queue.size() >= subscriberQueueSize) {
+                closed = true;
+                queue.clear();
+            } else {
+                queue.add(event);
+            }
+            if (!draining) {
+                draining = true;
+                senders.execute(this::drain);
+            }
+            return !closed;
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = queue.poll();
+                    if (event == null) {
+                        draining = false;
+                        if (closed) {
+                            emitter.complete();
+                        }
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    synchronized (this) {
+                        closed = true;
+                        queue.clear();
+                    }
+                    subscribers.remove(this);
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+    }
+}
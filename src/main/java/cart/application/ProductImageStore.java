@@ -0,0 +1,205 @@
+package cart.application;
+
+import cart.domain.ProductImage;
+import cart.exception.OverloadException;
+import cart.exception.ProductException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 업로드한 상품 이미지를 로컬 디스크에 내용 해시 이름으로 저장하고, 업로드할 때 썸네일을 한 번만 만든다.
+ * 같은 이름의 파일은 내용이 바뀌지 않으므로 응답은 오래 캐시할 수 있다.
+ * 압축을 푼 이미지는 힙을 많이 쓰므로 동시에 푸는 수를 cart.images.max-concurrent-decodes 로 제한한다.
+ */
+@Component
+public class ProductImageStore {
+    private static final long MAX_PIXELS = 40_000_000L;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path directory;
+    private final int thumbnailSize;
+    private final int maxConcurrentDecodes;
+    private final Semaphore decodes;
+    private final Duration decodeWait;
+
+    public ProductImageStore(@Value("${cart.images.dir:product-images}") Path directory,
+                             @Value("${cart.images.thumbnail-size:200}") int thumbnailSize,
+                             @Value("${cart.images.max-concurrent-decodes:2}") int maxConcurrentDecodes,
+                             @Value("${cart.images.decode-wait:1s}") Duration decodeWait) throws IOException {
+        this.directory = Files.createDirectories(directory).toAbsolutePath();
+        this.thumbnailSize = thumbnailSize;
+        this.maxConcurrentDecodes = maxConcurrentDecodes;
+        this.decodes = new Semaphore(maxConcurrentDecodes, true);
+        this.decodeWait = decodeWait;
+    }
+
+    /**
+     * PNG 나 JPEG 이미지를 저장하고 원본 URL 을 돌려준다. 이미 같은 내용이 있으면 다시 쓰지 않는다.
+     * decode-wait 안에 디코딩 자리를 얻지 못하면 {@link OverloadException.TooManyImageDecodes} 를 던진다.
+     */
+    public String store(byte[] content) {
+        acquireDecode();
+        try {
+            DecodedImage decoded = decode(content);
+            ProductImage image = new ProductImage(sha256(content), decoded.extension);
+            try {
+                Path original = directory.resolve(image.getFileName());
+                if (!Files.exists(original)) {
+                    writeAtomically(original, content);
+                }
+                Path thumbnail = directory.resolve(image.getThumbnailFileName());
+                if (!Files.exists(thumbnail)) {
+                    writeAtomically(thumbnail, encode(thumbnailOf(decoded.image), decoded.extension));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot store product image " + image.getFileName(), e);
+            }
+            return image.getUrl();
+        } finally {
+            decodes.release();
+        }
+    }
+
+    /**
+     * 저장된 원본이나 썸네일 파일의 경로를 돌려준다. 이름이 형식에 맞지 않거나 파일이 없으면 예외를 던진다.
+     */
+    public Path resolve(String fileName) {
+        if (!ProductImage.isFileName(fileName)) {
+            throw new ProductException.ImageNotFound(fileName);
+        }
+        Path path = directory.resolve(fileName);
+        if (!Files.isRegularFile(path)) {
+            throw new ProductException.ImageNotFound(fileName);
+        }
+        return path;
+    }
+
+    private void acquireDecode() {
+        try {
+            if (!decodes.tryAcquire(decodeWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new OverloadException.TooManyImageDecodes(maxConcurrentDecodes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OverloadException.TooManyImageDecodes(maxConcurrentDecodes);
+        }
+    }
+
+    private DecodedImage decode(byte[] content) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new ProductException.InvalidImage("not an image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                String extension = extensionOf(reader.getFormatName());
+                reader.setInput(input, true, true);
+                // 압축을 풀기 전에 크기를 확인해 작은 파일로 큰 힙을 쓰게 만드는 업로드를 막는다.
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    throw new ProductException.InvalidImage("image is too large");
+                }
+                return new DecodedImage(reader.read(0), extension);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new ProductException.InvalidImage("cannot decode image");
+        }
+    }
+
+    private String extensionOf(String formatName) {
+        switch (formatName.toLowerCase()) {
+            case "png":
+                return "png";
+            case "jpeg":
+            case "jpg":
+                return "jpg";
+            default:
+                throw new ProductException.InvalidImage("unsupported format " + formatName);
+        }
+    }
+
+    private BufferedImage thumbnailOf(BufferedImage image) {
+        double scale = Math.min(1.0, (double) thumbnailSize / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage thumbnail = new BufferedImage(width, height, type);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return thumbnail;
+    }
+
+    private byte[] encode(BufferedImage image, String extension) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, extension.equals("jpg") ? "jpeg" : extension, output)) {
+            throw new IOException("No image writer for " + extension);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * 임시 파일에 쓴 뒤 이름을 바꿔, 읽는 쪽이 절반만 쓰인 파일을 보지 않게 한다.
+     */
+    private void writeAtomically(Path target, byte[] content) throws IOException {
+        Path temporary = Files.createTempFile(directory, "upload-", ".tmp");
+        try {
+            Files.write(temporary, content);
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class DecodedImage {
+        private final BufferedImage image;
+        private final String extension;
+
+        private DecodedImage(BufferedImage image, String extension) {
+            this.image = image;
+            this.extension = extension;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package cart.application;
+
+import cart.dao.ProductDao;
+import cart.domain.Product;
+import cart.metrics.MetricsSource;
+import cart.metrics.PrometheusFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class ProductLoader implements MetricsSource {
+    private final SingleFlight<Long, Product> singleFlight;
+    private final ProductDao productDao;
+
+    public ProductLoader(ProductDao productDao, @Value("${cart.product.lookup-max-wait:2s}") Duration maxWait) {
+        this.productDao = productDao;
+        this.singleFlight = new SingleFlight<>(maxWait);
+    }
+
+    public Product getProductById(Long productId) {
+        return singleFlight.load(productId, productDao::getProductById);
+    }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        PrometheusFormat.header(out, "product_lookup_requests_total", "counter", "Product lookups by id requested by services.");
+        PrometheusFormat.sample(out, "product_lookup_requests_total", "", singleFlight.requestCount());
+        PrometheusFormat.header(out, "product_lookup_queries_total", "counter", "Product lookups by id that reached the database.");
+        PrometheusFormat.sample(out, "product_lookup_queries_total", "", singleFlight.loadCount());
+    }
+}
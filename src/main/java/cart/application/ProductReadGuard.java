@@ -0,0 +1,191 @@
+package cart.application;
+
+import cart.dao.ProductDao;
+import cart.domain.Product;
+import cart.exception.ProductException;
+import cart.metrics.MetricsSource;
+import cart.metrics.PrometheusFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 상품 조회를 회로 차단기로 감싸고, 마지막으로 성공한 조회 결과를 메모리에 남겨 둔다.
+ * DB 가 느려지거나 실패해서 차단기가 열리면 DB 를 기다리지 않고 남겨 둔 결과를 오래된 값으로 표시해 돌려준다.
+ * 열린 차단기는 probe-interval 마다 백그라운드에서 상품 한 행을 조회해 보고 빠르게 성공하면 닫는다.
+ * 상품이 바뀌면 남겨 둔 결과를 버린다. 다른 노드에서 바뀐 경우에는 CatalogChangedEvent 를 받아 모두 버린다.
+ */
+@Component
+@Lazy(false)
+public class ProductReadGuard implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(ProductReadGuard.class);
+
+    private final ProductDao productDao;
+    private final ProductLoader productLoader;
+    private final CircuitBreaker circuitBreaker;
+    private final Map<Long, Stamped<Product>> lastKnownProducts = new ConcurrentHashMap<>();
+    private final LongAdder staleReads = new LongAdder();
+    private volatile Stamped<List<Product>> lastKnownCatalog;
+
+    public ProductReadGuard(ProductDao productDao, ProductLoader productLoader,
+                            @Value("${cart.product.breaker.window-size:50}") int windowSize,
+                            @Value("${cart.product.breaker.minimum-calls:10}") int minimumCalls,
+                            @Value("${cart.product.breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+                            @Value("${cart.product.breaker.slow-call-threshold:500ms}") Duration slowCallThreshold) {
+        this.productDao = productDao;
+        this.productLoader = productLoader;
+        this.circuitBreaker = new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold, slowCallThreshold);
+    }
+
+    public ReadResult<List<Product>> getAllProducts() {
+        return read(productDao::getAllProducts, this::rememberCatalog, () -> lastKnownCatalog);
+    }
+
+    public ReadResult<Product> getProductById(Long productId) {
+        return read(() -> productLoader.getProductById(productId),
+                product -> lastKnownProducts.put(productId, new Stamped<>(product, Instant.now())),
+                () -> lastKnownProducts.get(productId));
+    }
+
+    private <T> ReadResult<T> read(Supplier<T> query, Consumer<T> remember, Supplier<Stamped<T>> lastKnown) {
+        if (!circuitBreaker.allowsCalls()) {
+            return fallback(lastKnown, null);
+        }
+
+        long startedAt = System.nanoTime();
+        T value;
+        try {
+            value = query.get();
+        } catch (EmptyResultDataAccessException e) {
+            circuitBreaker.recordSuccess(System.nanoTime() - startedAt);
+            throw e;
+        } catch (DataAccessException e) {
+            circuitBreaker.recordFailure();
+            return fallback(lastKnown, e);
+        }
+        circuitBreaker.recordSuccess(System.nanoTime() - startedAt);
+        remember.accept(value);
+        return ReadResult.fresh(value);
+    }
+
+    private <T> ReadResult<T> fallback(Supplier<Stamped<T>> lastKnown, DataAccessException cause) {
+        Stamped<T> stamped = lastKnown.get();
+        if (stamped == null) {
+            ProductException.CatalogUnavailable unavailable = new ProductException.CatalogUnavailable();
+            if (cause != null) {
+                unavailable.initCause(cause);
+            }
+            throw unavailable;
+        }
+        staleReads.increment();
+        return ReadResult.stale(stamped.value, stamped.readAt);
+    }
+
+    private void rememberCatalog(List<Product> products) {
+        Instant readAt = Instant.now();
+        lastKnownCatalog = new Stamped<>(products, readAt);
+        Map<Long, Product> byId = products.stream().collect(Collectors.toMap(Product::getId, product -> product));
+        lastKnownProducts.keySet().retainAll(byId.keySet());
+        byId.forEach((id, product) -> lastKnownProducts.put(id, new Stamped<>(product, readAt)));
+    }
+
+    /**
+     * 트랜잭션 안에서 부르면 커밋한 뒤에 버린다. 커밋 전에 버리면 그 사이에 읽은 이전 값이 다시 남는다.
+     */
+    public void forget(Long productId) {
+        afterCommit(() -> {
+            lastKnownProducts.remove(productId);
+            lastKnownCatalog = null;
+        });
+    }
+
+    public void forgetAll() {
+        afterCommit(this::clear);
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        clear();
+    }
+
+    private void clear() {
+        lastKnownCatalog = null;
+        lastKnownProducts.clear();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${cart.product.breaker.probe-interval:PT1S}")
+    public void probe() {
+        if (circuitBreaker.state() != CircuitBreaker.State.OPEN) {
+            return;
+        }
+
+        circuitBreaker.startProbe();
+        long startedAt = System.nanoTime();
+        try {
+            productDao.probe();
+            if (circuitBreaker.isSlow(System.nanoTime() - startedAt)) {
+                circuitBreaker.probeFailed();
+                return;
+            }
+            circuitBreaker.probeSucceeded();
+            log.info("Product reads recovered; closing the circuit breaker");
+        } catch (DataAccessException e) {
+            circuitBreaker.probeFailed();
+        }
+    }
+
+    CircuitBreaker.State state() {
+        return circuitBreaker.state();
+    }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        PrometheusFormat.header(out, "product_read_breaker_state", "gauge", "Product read circuit breaker state (0 closed, 1 open, 2 half-open).");
+        PrometheusFormat.sample(out, "product_read_breaker_state", "", circuitBreaker.state().ordinal());
+        PrometheusFormat.header(out, "product_read_breaker_opened_total", "counter", "Times the product read circuit breaker opened.");
+        PrometheusFormat.sample(out, "product_read_breaker_opened_total", "", circuitBreaker.openedCount());
+        PrometheusFormat.header(out, "product_read_stale_total", "counter", "Product reads served from the last known good copy.");
+        PrometheusFormat.sample(out, "product_read_stale_total", "", staleReads.sum());
+    }
+
+    private static class Stamped<T> {
+        private final T value;
+        private final Instant readAt;
+
+        private Stamped(T value, Instant readAt) {
+            this.value = value;
+            this.readAt = readAt;
+        }
+    }
+}
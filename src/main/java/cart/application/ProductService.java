@@ -1,44 +1,133 @@
 package cart.application;
 
+import cart.domain.PriceAdjustment;
 import cart.domain.Product;
 import cart.dao.ProductDao;
+import cart.dto.ProductChangeEvent;
+import cart.dto.ProductPageResponse;
+import cart.dto.ProductPriceUpdateRequest;
+import cart.dto.ProductPriceUpdateResponse;
 import cart.dto.ProductRequest;
 import cart.dto.ProductResponse;
+import cart.exception.ProductException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
+    private static final int MAX_PAGE_SIZE = 100;
 
     private final ProductDao productDao;
+    private final ProductReadGuard productReadGuard;
+    private final ProductChangeFeed productChangeFeed;
+    private final ProductImageStore productImageStore;
+    private final TransactionTemplate transactionTemplate;
+    private final RelatedProducts relatedProducts;
+    private final TrendingProducts trendingProducts;
 
-    public ProductService(ProductDao productDao) {
+    public ProductService(ProductDao productDao, ProductReadGuard productReadGuard, ProductChangeFeed productChangeFeed,
+                          ProductImageStore productImageStore, TransactionTemplate transactionTemplate,
+                          RelatedProducts relatedProducts, TrendingProducts trendingProducts) {
         this.productDao = productDao;
+        this.productReadGuard = productReadGuard;
+        this.productChangeFeed = productChangeFeed;
+        this.productImageStore = productImageStore;
+        this.transactionTemplate = transactionTemplate;
+        this.relatedProducts = relatedProducts;
+        this.trendingProducts = trendingProducts;
     }
 
-    public List<ProductResponse> getAllProducts() {
-        List<Product> products = productDao.getAllProducts();
-        return products.stream().map(ProductResponse::of).collect(Collectors.toList());
+    public ReadResult<List<ProductResponse>> getAllProducts() {
+        return productReadGuard.getAllProducts()
+                .map(products -> products.stream().map(ProductResponse::of).collect(Collectors.toList()));
     }
 
-    public ProductResponse getProductById(Long productId) {
-        Product product = productDao.getProductById(productId);
-        return ProductResponse.of(product);
+    public ProductPageResponse getProductPage(String keyword, Long lastId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long cursor = lastId == null ? 0 : lastId;
+        List<Product> products = keyword == null || keyword.isBlank()
+                ? productDao.getProductsAfter(cursor, pageSize + 1)
+                : productDao.searchProductsAfter(keyword.strip(), cursor, pageSize + 1);
+
+        boolean hasNext = products.size() > pageSize;
+        List<ProductResponse> page = products.stream()
+                .limit(pageSize)
+                .map(ProductResponse::of)
+                .collect(Collectors.toList());
+        return ProductPageResponse.of(page, hasNext);
+    }
+
+    public ReadResult<ProductResponse> getProductById(Long productId) {
+        return productReadGuard.getProductById(productId).map(ProductResponse::of);
     }
 
+    @Transactional
     public Long createProduct(ProductRequest productRequest) {
         Product product = new Product(productRequest.getName(), productRequest.getPrice(), productRequest.getImageUrl());
-        return productDao.createProduct(product);
+        Long productId = productDao.createProduct(product);
+        productReadGuard.forget(productId);
+        productChangeFeed.publish(ProductChangeEvent.Kind.CREATED, productId, product);
+        return productId;
     }
 
+    @Transactional
     public void updateProduct(Long productId, ProductRequest productRequest) {
         Product product = new Product(productRequest.getName(), productRequest.getPrice(), productRequest.getImageUrl());
         productDao.updateProduct(productId, product);
+        productReadGuard.forget(productId);
+        productChangeFeed.publish(ProductChangeEvent.Kind.UPDATED, productId, product);
+    }
+
+    /**
+     * 디코딩과 파일 쓰기는 트랜잭션 밖에서 하고, 상품 행만 짧은 트랜잭션으로 바꾼다.
+     * 없는 상품이면 파일을 남기지 않도록 저장하기 전에 확인한다.
+     * 파일 이름이 내용 해시라 그 뒤에 상품이 지워져 남은 파일은 다음 업로드가 그대로 쓴다.
+     */
+    public ProductResponse updateImage(Long productId, byte[] image) {
+        productDao.getProductById(productId);
+        String imageUrl = productImageStore.store(image);
+        return transactionTemplate.execute(status -> {
+            productDao.updateImageUrl(productId, imageUrl);
+            Product updated = productDao.getProductById(productId);
+            productReadGuard.forget(productId);
+            productChangeFeed.publish(ProductChangeEvent.Kind.UPDATED, productId, updated);
+            return ProductResponse.of(updated);
+        });
     }
 
+    @Transactional
     public void deleteProduct(Long productId) {
         productDao.deleteProduct(productId);
+        productReadGuard.forget(productId);
+        relatedProducts.forget(productId);
+        trendingProducts.forget(productId);
+        productChangeFeed.publish(ProductChangeEvent.Kind.DELETED, productId, null);
+    }
+
+    @Transactional
+    public ProductPriceUpdateResponse adjustPrices(ProductPriceUpdateRequest request) {
+        PriceAdjustment adjustment = new PriceAdjustment(request.getAdjustmentType(), request.getAdjustmentValue());
+        int updatedCount = hasProductIds(request)
+                ? productDao.adjustPrices(request.getProductIds().stream().distinct().collect(Collectors.toList()), adjustment)
+                : productDao.adjustPricesBetween(request.getMinPrice(), request.getMaxPrice(), adjustment);
+
+        if (updatedCount > 0) {
+            productReadGuard.forgetAll();
+            productChangeFeed.publish(ProductChangeEvent.Kind.PRICES_CHANGED, null, null);
+        }
+        return new ProductPriceUpdateResponse(updatedCount);
+    }
+
+    private boolean hasProductIds(ProductPriceUpdateRequest request) {
+        boolean hasProductIds = request.getProductIds() != null && !request.getProductIds().isEmpty();
+        boolean hasPriceRange = request.getMinPrice() != null && request.getMaxPrice() != null;
+        if (hasProductIds == hasPriceRange) {
+            throw new ProductException.InvalidPriceUpdate("exactly one of productIds or minPrice/maxPrice is required");
+        }
+        return hasProductIds;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package cart.application;
+
+import cart.dao.PromotionDao;
+import cart.domain.Promotion;
+import cart.domain.PromotionRules;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 할인 규칙을 메모리에 {@link PromotionRules} 로 컴파일해 두고 장바구니를 조회할 때마다 DB 없이 적용한다.
+ * 규칙이 바뀌면 새로 컴파일한 객체로 통째로 바꾸므로 읽는 쪽은 잠금 없이 일관된 규칙을 본다.
+ * 시작/종료 시각이 지나면 메모리에 있는 규칙 목록으로 다시 컴파일하고, 다른 노드의 변경은 promotion_version 을
+ * cart.promotion.max-staleness 마다 읽어 알아챈다.
+ */
+@Component
+@Lazy(false)
+public class PromotionRuleStore {
+    private static final Logger log = LoggerFactory.getLogger(PromotionRuleStore.class);
+
+    private final PromotionDao promotionDao;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public PromotionRuleStore(PromotionDao promotionDao) {
+        this.promotionDao = promotionDao;
+        reload();
+    }
+
+    public PromotionRules current() {
+        Snapshot current = snapshot.get();
+        Instant now = Instant.now();
+        if (current.rules.isValidAt(now)) {
+            return current.rules;
+        }
+
+        Snapshot recompiled = new Snapshot(current.version, current.promotions, PromotionRules.compile(current.promotions, now));
+        snapshot.compareAndSet(current, recompiled);
+        return recompiled.rules;
+    }
+
+    /**
+     * 버전을 먼저 읽으므로 그 사이에 바뀐 규칙은 다음 poll 에서 다시 읽는다.
+     */
+    public void reload() {
+        long version = promotionDao.getVersion();
+        List<Promotion> promotions = List.copyOf(promotionDao.findAll());
+        snapshot.set(new Snapshot(version, promotions, PromotionRules.compile(promotions, Instant.now())));
+    }
+
+    @Scheduled(fixedDelayString = "${cart.promotion.max-staleness:PT1S}")
+    public void poll() {
+        try {
+            if (promotionDao.getVersion() != snapshot.get().version) {
+                reload();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Cannot reload promotions; keeping version {}", snapshot.get().version, e);
+        }
+    }
+
+    private static class Snapshot {
+        private final long version;
+        private final List<Promotion> promotions;
+        private final PromotionRules rules;
+
+        private Snapshot(long version, List<Promotion> promotions, PromotionRules rules) {
+            this.version = version;
+            this.promotions = promotions;
+            this.rules = rules;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package cart.application;
+
+import cart.dao.PromotionDao;
+import cart.domain.Promotion;
+import cart.dto.PromotionRequest;
+import cart.dto.PromotionResponse;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class PromotionService {
+    private final PromotionDao promotionDao;
+    private final PromotionRuleStore promotionRuleStore;
+
+    public PromotionService(PromotionDao promotionDao, PromotionRuleStore promotionRuleStore) {
+        this.promotionDao = promotionDao;
+        this.promotionRuleStore = promotionRuleStore;
+    }
+
+    public List<PromotionResponse> findAll() {
+        return promotionDao.findAll().stream().map(PromotionResponse::of).collect(Collectors.toList());
+    }
+
+    public Long create(PromotionRequest request) {
+        Promotion promotion = new Promotion(null, request.getType(), request.getProductId(), request.getPercent(),
+                request.getBuyQuantity(), request.getFreeQuantity(), request.getMinSpend(), request.getDiscountAmount(),
+                request.getStartsAt(), request.getEndsAt());
+        Long id = promotionDao.save(promotion);
+        promotionRuleStore.reload();
+        return id;
+    }
+
+    public void delete(Long id) {
+        promotionDao.deleteById(id);
+        promotionRuleStore.reload();
+    }
+}
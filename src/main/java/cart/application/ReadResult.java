@@ -0,0 +1,42 @@
+package cart.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * DB 에서 방금 읽은 값인지, DB 장애로 마지막으로 성공했던 조회 결과를 대신 돌려준 것인지 함께 전달한다.
+ */
+public class ReadResult<T> {
+    private final T value;
+    private final Instant staleSince;
+
+    private ReadResult(T value, Instant staleSince) {
+        this.value = value;
+        this.staleSince = staleSince;
+    }
+
+    public static <T> ReadResult<T> fresh(T value) {
+        return new ReadResult<>(value, null);
+    }
+
+    public static <T> ReadResult<T> stale(T value, Instant readAt) {
+        return new ReadResult<>(value, readAt);
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public boolean isStale() {
+        return staleSince != null;
+    }
+
+    public Duration age(Instant now) {
+        return isStale() ? Duration.between(staleSince, now) : Duration.ZERO;
+    }
+
+    public <R> ReadResult<R> map(Function<T, R> mapper) {
+        return new ReadResult<>(mapper.apply(value), staleSince);
+    }
+}
@@ -0,0 +1,304 @@
+package cart.application;
+
+import cart.dao.CartItemDao;
+import cart.dao.ProductDao;
+import cart.domain.Product;
+import cart.dto.RelatedProductResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 같은 장바구니에 함께 담긴 횟수로 상품별 "함께 담은 상품" 을 센다.
+ * 시작할 때 지금 있는 장바구니로 한 번 만들고, 이후에는 담기와 삭제가 커밋될 때마다 해당 상품 쌍의 횟수만 고친다.
+ * 시작한 뒤에는 이 노드를 거친 담기와 삭제만 세므로, 여러 노드가 있으면 노드마다 횟수가 조금씩 다르다.
+ * 상품마다 이웃을 max-neighbours 의 두 배까지만 두고, 넘치면 횟수가 많은 max-neighbours 개만 남긴다.
+ * 잘려 나간 쌍은 다시 1 부터 세므로 하위 순위의 횟수는 근삿값이다.
+ * 지운 상품은 이 노드에서 지웠으면 커밋될 때, 다른 노드에서 지웠으면 CatalogChangedEvent 를 받은 뒤 별도 스레드에서 찾아 버린다.
+ */
+@Component
+public class RelatedProducts {
+    private static final Logger log = LoggerFactory.getLogger(RelatedProducts.class);
+    // 상품이 아주 많은 장바구니 하나가 쌍의 수를 제곱으로 늘리지 않도록 앞쪽 상품만 센다.
+    private static final int MAX_CART_PRODUCTS = 100;
+    private static final int PRODUCT_CHECK_CHUNK_SIZE = 500;
+
+    private final ProductDao productDao;
+    private final int maxNeighbours;
+    private final LongObjectHashMap<LongIntHashMap> neighbours = new LongObjectHashMap<>(1024);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean sweepPending = new AtomicBoolean();
+    private final ExecutorService sweeper = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "related-products-sweep");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public RelatedProducts(CartItemDao cartItemDao, ProductDao productDao,
+                           @Value("${cart.related.max-neighbours:50}") int maxNeighbours) {
+        this(productDao, maxNeighbours);
+        cartItemDao.forEachCart(this::addCart);
+    }
+
+    RelatedProducts(ProductDao productDao, int maxNeighbours) {
+        this.productDao = productDao;
+        this.maxNeighbours = maxNeighbours;
+    }
+
+    public List<RelatedProductResponse> related(Long productId, int limit) {
+        int size = Math.max(1, Math.min(limit, maxNeighbours));
+        long[] topIds = new long[size];
+        int[] topCounts = new int[size];
+        int found = 0;
+
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            LongIntHashMap counts = neighbours.get(productId);
+            if (counts == null) {
+                return List.of();
+            }
+            for (int slot = 0; slot < counts.capacity(); slot++) {
+                long id = counts.keyAt(slot);
+                if (id != LongIntHashMap.EMPTY) {
+                    found = insertTop(topIds, topCounts, found, id, counts.valueAt(slot));
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+
+        List<RelatedProductResponse> related = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            related.add(new RelatedProductResponse(topIds[i], topCounts[i]));
+        }
+        return related;
+    }
+
+    /**
+     * 장바구니에 새 상품이 담겼다. 트랜잭션 안이면 커밋된 뒤에 반영한다.
+     */
+    public void recordAdded(Long productId, Collection<Long> otherProductIds) {
+        afterCommit(() -> update(productId, otherProductIds, 1));
+    }
+
+    /**
+     * 장바구니에서 상품이 빠졌다. 트랜잭션 안이면 커밋된 뒤에 반영한다.
+     */
+    public void recordRemoved(Long productId, Collection<Long> remainingProductIds) {
+        afterCommit(() -> update(productId, remainingProductIds, -1));
+    }
+
+    /**
+     * 상품이 지워졌다. 트랜잭션 안이면 커밋된 뒤에 그 상품이 들어간 쌍을 모두 버린다.
+     */
+    public void forget(Long productId) {
+        afterCommit(() -> removeProducts(Set.of(productId)));
+    }
+
+    /**
+     * 카탈로그 감시 스레드와 뒤의 리스너를 붙잡지 않도록 찾기는 별도 스레드에 맡긴다. 밀린 찾기가 있으면 하나로 합친다.
+     */
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (sweepPending.compareAndSet(false, true)) {
+            sweeper.execute(this::sweepDeletedProducts);
+        }
+    }
+
+    /**
+     * 다른 노드에서 지운 상품은 어느 것인지 알 수 없으므로, 세고 있는 상품 중 DB 에 없는 상품을 찾아 버린다.
+     * DB 를 읽지 못하면 다음 카탈로그 변경 때 다시 찾는다.
+     */
+    void sweepDeletedProducts() {
+        sweepPending.set(false);
+        List<Long> trackedProductIds = new ArrayList<>();
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            for (int slot = 0; slot < neighbours.capacity(); slot++) {
+                long id = neighbours.keyAt(slot);
+                if (id != LongIntHashMap.EMPTY) {
+                    trackedProductIds.add(id);
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+
+        Set<Long> deletedProductIds = new HashSet<>(trackedProductIds);
+        try {
+            for (int from = 0; from < trackedProductIds.size(); from += PRODUCT_CHECK_CHUNK_SIZE) {
+                List<Long> chunk = trackedProductIds.subList(from, Math.min(from + PRODUCT_CHECK_CHUNK_SIZE, trackedProductIds.size()));
+                for (Product product : productDao.findByIds(chunk)) {
+                    deletedProductIds.remove(product.getId());
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Cannot check related products against the catalog; keeping {} products", trackedProductIds.size(), e);
+            return;
+        }
+        if (!deletedProductIds.isEmpty()) {
+            removeProducts(deletedProductIds);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    private void removeProducts(Set<Long> productIds) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            for (Long productId : productIds) {
+                neighbours.remove(productId);
+            }
+            // 잘라 낼 때 한쪽에만 남은 쌍이 있을 수 있으므로 모든 상품의 이웃에서 지운다.
+            for (int slot = 0; slot < neighbours.capacity(); slot++) {
+                LongIntHashMap counts = neighbours.valueAt(slot);
+                if (counts != null) {
+                    for (Long productId : productIds) {
+                        counts.remove(productId);
+                    }
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+            return;
+        }
+        update.run();
+    }
+
+    private void update(Long productId, Collection<Long> otherProductIds, int delta) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            for (Long other : otherProductIds) {
+                if (!other.equals(productId)) {
+                    increment(productId, other, delta);
+                    increment(other, productId, delta);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void addCart(long[] productIds) {
+        int size = Math.min(productIds.length, MAX_CART_PRODUCTS);
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    if (productIds[i] != productIds[j]) {
+                        increment(productIds[i], productIds[j], 1);
+                    }
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void increment(long productId, long other, int delta) {
+        LongIntHashMap counts = neighbours.get(productId);
+        if (counts == null) {
+            if (delta < 0) {
+                return;
+            }
+            counts = new LongIntHashMap(maxNeighbours * 2);
+            neighbours.put(productId, counts);
+        }
+        counts.addTo(other, delta);
+        if (counts.size() >= maxNeighbours * 2) {
+            neighbours.put(productId, prune(counts));
+        }
+    }
+
+    private LongIntHashMap prune(LongIntHashMap counts) {
+        int[] values = new int[counts.size()];
+        int index = 0;
+        for (int slot = 0; slot < counts.capacity(); slot++) {
+            if (counts.keyAt(slot) != LongIntHashMap.EMPTY) {
+                values[index++] = counts.valueAt(slot);
+            }
+        }
+        Arrays.sort(values);
+        int threshold = values[values.length - maxNeighbours];
+        int aboveThreshold = 0;
+        for (int value : values) {
+            if (value > threshold) {
+                aboveThreshold++;
+            }
+        }
+
+        // 경계값과 같은 이웃은 남은 자리만큼만 둔다.
+        int tiesToKeep = maxNeighbours - aboveThreshold;
+        LongIntHashMap pruned = new LongIntHashMap(maxNeighbours * 2);
+        for (int slot = 0; slot < counts.capacity(); slot++) {
+            long id = counts.keyAt(slot);
+            int value = counts.valueAt(slot);
+            if (id == LongIntHashMap.EMPTY || value < threshold) {
+                continue;
+            }
+            if (value > threshold || tiesToKeep-- > 0) {
+                pruned.put(id, value);
+            }
+        }
+        return pruned;
+    }
+
+    /**
+     * 횟수 내림차순, 같으면 상품 id 오름차순으로 상위 항목을 배열 안에서 유지한다.
+     */
+    private static int insertTop(long[] topIds, int[] topCounts, int found, long id, int count) {
+        int position = found;
+        while (position > 0 && (topCounts[position - 1] < count || (topCounts[position - 1] == count && topIds[position - 1] > id))) {
+            position--;
+        }
+        if (position == topIds.length) {
+            return found;
+        }
+        int last = Math.min(found, topIds.length - 1);
+        System.arraycopy(topIds, position, topIds, position + 1, last - position);
+        System.arraycopy(topCounts, position, topCounts, position + 1, last - position);
+        topIds[position] = id;
+        topCounts[position] = count;
+        return Math.min(found + 1, topIds.length);
+    }
+}
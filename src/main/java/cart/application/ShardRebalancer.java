@@ -0,0 +1,113 @@
+package cart.application;
+
+import cart.dao.CartItemShards;
+import cart.dto.ShardStatusResponse;
+import cart.exception.ShardException;
+import cart.metrics.MetricsSource;
+import cart.metrics.PrometheusFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 설정만 되어 있고 링에 없는 샤드를 서비스 중에 링에 더한다.
+ * 기존 샤드의 회원을 id 순으로 훑으며 새 링에서 주인이 바뀌는 회원만 옮기고, 모든 노드가 옮기기 시작한 뒤 한 번 더 훑어 링을 바꾼다.
+ * 중간에 실패하면 옮긴 회원은 새 샤드에서 계속 서비스되고, 같은 샤드로 다시 요청하면 이어서 옮긴다.
+ * 조정 상태는 공용 DB 에 있으므로 재시작한 노드나 다른 노드에서 다시 요청해도 이어서 옮긴다.
+ */
+@Service
+public class ShardRebalancer implements MetricsSource {
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    public enum State {
+        IDLE, RUNNING, FAILED
+    }
+
+    private final CartItemShards cartItemShards;
+    private final int batchSize;
+    private final LongAdder scannedMembers = new LongAdder();
+    private final LongAdder movedMembers = new LongAdder();
+    private volatile State state = State.IDLE;
+
+    public ShardRebalancer(CartItemShards cartItemShards,
+                           @Value("${cart.shards.rebalance-batch-size:500}") int batchSize) {
+        this.cartItemShards = cartItemShards;
+        this.batchSize = batchSize;
+    }
+
+    public ShardStatusResponse getStatus() {
+        return new ShardStatusResponse(cartItemShards.shardCount(), cartItemShards.activeShards(), cartItemShards.joiningShard(),
+                state.name(), scannedMembers.sum(), movedMembers.sum());
+    }
+
+    /**
+     * 백그라운드 스레드에서 샤드를 더하기 시작한다. 진행 상황은 {@link #getStatus()} 로 본다.
+     */
+    public synchronized void addShard(int shard) {
+        Integer joiningShard = cartItemShards.joiningShard();
+        if (state == State.RUNNING || (joiningShard != null && joiningShard != shard)) {
+            throw new ShardException.RebalanceInProgress(joiningShard);
+        }
+        if (joiningShard == null) {
+            if (shard < 0 || shard >= cartItemShards.shardCount() || cartItemShards.activeShards().contains(shard)) {
+                throw new ShardException.InvalidShard(shard);
+            }
+            cartItemShards.beginAdding(shard);
+        }
+        state = State.RUNNING;
+
+        Thread worker = new Thread(() -> rebalance(shard), "cart-shard-rebalancer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void rebalance(int shard) {
+        try {
+            cartItemShards.awaitRingPropagation();
+            for (int source : cartItemShards.activeShards()) {
+                moveMembersOf(source);
+            }
+            // 훑는 동안 아직 옮기기 전의 노드가 옛 샤드에 쓴 회원이 있을 수 있으므로, 모든 노드가 옮기기 시작한 뒤 한 번 더 훑는다.
+            cartItemShards.awaitMovesEverywhere();
+            for (int source : cartItemShards.activeShards()) {
+                moveMembersOf(source);
+            }
+            cartItemShards.completeAdding();
+            log.info("Shard {} joined the cart ring; active shards are now {}", shard, cartItemShards.activeShards());
+            state = State.IDLE;
+        } catch (RuntimeException e) {
+            log.error("Rebalancing cart shards into shard {} failed; request it again to resume", shard, e);
+            state = State.FAILED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = State.FAILED;
+        }
+    }
+
+    private void moveMembersOf(int source) {
+        long lastMemberId = 0;
+        List<Long> memberIds;
+        do {
+            memberIds = cartItemShards.findMemberIdsAfter(source, lastMemberId, batchSize);
+            for (Long memberId : memberIds) {
+                scannedMembers.increment();
+                if (cartItemShards.moveIfNeeded(memberId)) {
+                    movedMembers.increment();
+                }
+                lastMemberId = memberId;
+            }
+        } while (memberIds.size() == batchSize);
+    }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        PrometheusFormat.header(out, "cart_shard_rebalance_members_total", "counter", "Members moved to a joining cart shard.");
+        PrometheusFormat.sample(out, "cart_shard_rebalance_members_total", "", movedMembers.sum());
+        PrometheusFormat.header(out, "cart_shard_rebalancing", "gauge", "1 while a cart shard is joining the ring.");
+        PrometheusFormat.sample(out, "cart_shard_rebalancing", "", cartItemShards.isRebalancing() ? 1 : 0);
+    }
+}
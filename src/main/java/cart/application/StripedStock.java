@@ -0,0 +1,56 @@
+package cart.application;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 인기 상품 하나의 재고를 여러 칸으로 나누어 메모리에 들고 있는 카운터.
+ * 스레드마다 다른 칸에서 CAS 로 차감하므로 동시에 구매하는 요청이 한 곳에서 경쟁하지 않는다.
+ * 칸 사이의 간격을 벌려 서로 다른 칸이 같은 캐시 라인에 놓이지 않게 한다.
+ */
+class StripedStock {
+    private static final int PADDING = 16;
+
+    private final AtomicIntegerArray cells;
+    private final int stripes;
+
+    StripedStock(int stripes) {
+        this.stripes = stripes;
+        this.cells = new AtomicIntegerArray(stripes * PADDING);
+    }
+
+    boolean tryReserve(int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            int cell = ((start + i) % stripes) * PADDING;
+            int available = cells.get(cell);
+            while (available >= quantity) {
+                if (cells.compareAndSet(cell, available, available - quantity)) {
+                    return true;
+                }
+                available = cells.get(cell);
+            }
+        }
+        return false;
+    }
+
+    void add(int quantity) {
+        cells.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * PADDING, quantity);
+    }
+
+    int drain() {
+        int drained = 0;
+        for (int i = 0; i < stripes; i++) {
+            drained += cells.getAndSet(i * PADDING, 0);
+        }
+        return drained;
+    }
+
+    int available() {
+        int available = 0;
+        for (int i = 0; i < stripes; i++) {
+            available += cells.get(i * PADDING);
+        }
+        return available;
+    }
+}
@@ -0,0 +1,218 @@
+package cart.application;
+
+import cart.dao.ProductDao;
+import cart.domain.Product;
+import cart.dto.TrendingProductResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 장바구니 담기 횟수로 지금 많이 담기는 상품을 추적한다.
+ * Space-Saving 알고리즘으로 capacity 개의 카운터만 유지하므로 상품 수와 관계없이 메모리가 고정되고,
+ * 카운터가 모두 차면 가장 작은 카운터를 새 상품에 넘겨준다.
+ * 오래된 담기는 half-life 마다 절반의 무게가 되도록 forward decay 를 적용한다. 담기 시점의 무게를
+ * 기준 시각부터 지수적으로 키워서 더하고 조회할 때 한 번 나누므로, 시간이 흘러도 카운터를 매번 고칠 필요가 없다.
+ * 지운 상품은 이 노드에서 지웠으면 커밋될 때, 다른 노드에서 지웠으면 CatalogChangedEvent 를 받은 뒤 별도 스레드에서 찾아 버린다.
+ */
+@Component
+public class TrendingProducts {
+    private static final Logger log = LoggerFactory.getLogger(TrendingProducts.class);
+    private static final double RESCALE_EXPONENT = 64;
+
+    private final ProductDao productDao;
+    private final Clock clock;
+    private final double decayPerMilli;
+    private final long[] productIds;
+    private final double[] weights;
+    private final Map<Long, Integer> slots;
+    private int size;
+    private long landmarkMillis;
+    private final AtomicBoolean sweepPending = new AtomicBoolean();
+    private final ExecutorService sweeper = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "trending-products-sweep");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public TrendingProducts(ProductDao productDao,
+                            @Value("${cart.trending.capacity:128}") int capacity,
+                            @Value("${cart.trending.half-life:1h}") Duration halfLife) {
+        this(productDao, capacity, halfLife, Clock.systemUTC());
+    }
+
+    TrendingProducts(ProductDao productDao, int capacity, Duration halfLife, Clock clock) {
+        this.productDao = productDao;
+        this.clock = clock;
+        this.decayPerMilli = Math.log(2) / halfLife.toMillis();
+        this.productIds = new long[capacity];
+        this.weights = new double[capacity];
+        this.slots = new HashMap<>(capacity * 2);
+        this.landmarkMillis = clock.millis();
+    }
+
+    /**
+     * 상품이 담겼다. 트랜잭션 안이면 커밋된 뒤에 반영해, 되돌려진 담기는 세지 않는다.
+     */
+    public void record(Long productId, int quantity) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(productId, quantity);
+                }
+            });
+            return;
+        }
+        add(productId, quantity);
+    }
+
+    /**
+     * 상품이 지워졌다. 트랜잭션 안이면 커밋된 뒤에 카운터를 비운다.
+     */
+    public void forget(Long productId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(productId);
+                }
+            });
+            return;
+        }
+        remove(productId);
+    }
+
+    /**
+     * 카탈로그 감시 스레드를 붙잡지 않도록 찾기는 별도 스레드에 맡긴다. 밀린 찾기가 있으면 하나로 합친다.
+     */
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (sweepPending.compareAndSet(false, true)) {
+            sweeper.execute(this::sweepDeletedProducts);
+        }
+    }
+
+    /**
+     * 세고 있는 상품 중 DB 에 없는 상품을 버린다. DB 를 읽지 못하면 다음 카탈로그 변경 때 다시 찾는다.
+     */
+    void sweepDeletedProducts() {
+        sweepPending.set(false);
+        List<Long> trackedProductIds;
+        synchronized (this) {
+            trackedProductIds = new ArrayList<>(slots.keySet());
+        }
+        if (trackedProductIds.isEmpty()) {
+            return;
+        }
+
+        List<Long> deletedProductIds = new ArrayList<>(trackedProductIds);
+        try {
+            for (Product product : productDao.findByIds(trackedProductIds)) {
+                deletedProductIds.remove(product.getId());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Cannot check trending products against the catalog; keeping {} products", trackedProductIds.size(), e);
+            return;
+        }
+        deletedProductIds.forEach(this::remove);
+    }
+
+    @PreDestroy
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * 마지막 카운터를 비운 자리로 옮겨 카운터가 앞쪽에 모여 있게 한다.
+     */
+    private synchronized void remove(Long productId) {
+        Integer slot = slots.remove(productId);
+        if (slot == null) {
+            return;
+        }
+        int last = --size;
+        if (slot != last) {
+            productIds[slot] = productIds[last];
+            weights[slot] = weights[last];
+            slots.put(productIds[slot], slot);
+        }
+        productIds[last] = 0;
+        weights[last] = 0;
+    }
+
+    private synchronized void add(Long productId, int quantity) {
+        long now = clock.millis();
+        if (decayPerMilli * (now - landmarkMillis) > RESCALE_EXPONENT) {
+            rescale(now);
+        }
+        double weight = quantity * Math.exp(decayPerMilli * (now - landmarkMillis));
+
+        Integer slot = slots.get(productId);
+        if (slot == null) {
+            slot = size < productIds.length ? size++ : evictSmallest();
+            productIds[slot] = productId;
+            slots.put(productId, slot);
+        }
+        weights[slot] += weight;
+    }
+
+    public List<TrendingProductResponse> top(int limit) {
+        long[] ids;
+        double[] scores;
+        synchronized (this) {
+            double decay = Math.exp(-decayPerMilli * (clock.millis() - landmarkMillis));
+            ids = Arrays.copyOf(productIds, size);
+            scores = new double[size];
+            for (int i = 0; i < size; i++) {
+                scores[i] = weights[i] * decay;
+            }
+        }
+
+        List<TrendingProductResponse> trending = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            trending.add(new TrendingProductResponse(ids[i], scores[i]));
+        }
+        trending.sort(Comparator.comparingDouble(TrendingProductResponse::getScore).reversed());
+        return trending.subList(0, Math.min(Math.max(limit, 0), trending.size()));
+    }
+
+    private int evictSmallest() {
+        int smallest = 0;
+        for (int i = 1; i < size; i++) {
+            if (weights[i] < weights[smallest]) {
+                smallest = i;
+            }
+        }
+        slots.remove(productIds[smallest]);
+        return smallest;
+    }
+
+    private void rescale(long now) {
+        double factor = Math.exp(-decayPerMilli * (now - landmarkMillis));
+        for (int i = 0; i < size; i++) {
+            weights[i] *= factor;
+        }
+        landmarkMillis = now;
+    }
+}
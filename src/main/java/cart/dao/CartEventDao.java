@@ -0,0 +1,27 @@
+package cart.dao;
+
+import cart.domain.CartEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Repository
+public class CartEventDao {
+    private final JdbcTemplate jdbcTemplate;
+
+    public CartEventDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<CartEvent> events) {
+        String sql = "INSERT INTO cart_event (member_id, product_id, type, quantity, occurred_at) VALUES (?, ?, ?, ?, ?)";
+        List<Object[]> rows = events.stream()
+                .map(event -> new Object[]{event.getMemberId(), event.getProductId(), event.getType().name(),
+                        event.getQuantity(), Timestamp.from(event.getOccurredAt())})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+}
@@ -3,99 +3,231 @@ package cart.dao;
 import cart.domain.CartItem;
 import cart.domain.Member;
 import cart.domain.Product;
-import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
-
-import java.sql.PreparedStatement;
-import java.sql.Statement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * cart_item 은 회원 샤드에 있고 상품은 공용 DB 에 있으므로, 조회한 아이템의 상품은 공용 DB 에서 한 번에 채운다.
+ */
 @Repository
 public class CartItemDao {
-    private final JdbcTemplate jdbcTemplate;
+    private final CartItemShards shards;
+    private final ProductDao productDao;
 
-    public CartItemDao(JdbcTemplate jdbcTemplate) {
-        this.jdbcTemplate = jdbcTemplate;
+    public CartItemDao(CartItemShards shards, ProductDao productDao) {
+        this.shards = shards;
+        this.productDao = productDao;
     }
 
     public List<CartItem> findByMemberId(Long memberId) {
-        String sql = "SELECT cart_item.id, cart_item.member_id, member.email, product.id, product.name, product.price, product.image_url, cart_item.quantity " +
-                "FROM cart_item " +
-                "INNER JOIN member ON cart_item.member_id = member.id " +
-                "INNER JOIN product ON cart_item.product_id = product.id " +
-                "WHERE cart_item.member_id = ?";
-        return jdbcTemplate.query(sql, new Object[]{memberId}, (rs, rowNum) -> {
-            String email = rs.getString("email");
-            Long productId = rs.getLong("product.id");
-            String name = rs.getString("name");
-            int price = rs.getInt("price");
-            String imageUrl = rs.getString("image_url");
-            Long cartItemId = rs.getLong("cart_item.id");
-            int quantity = rs.getInt("cart_item.quantity");
-            Member member = new Member(memberId, email, null);
-            Product product = new Product(productId, name, price, imageUrl);
-            return new CartItem(cartItemId, quantity, product, member);
-        });
+        String sql = "SELECT id, product_id, quantity FROM cart_item WHERE member_id = ? ORDER BY id";
+        List<CartItemRow> rows = shards.withMember(memberId, jdbcTemplate ->
+                jdbcTemplate.query(sql, (rs, rowNum) -> new CartItemRow(
+                        rs.getLong("id"), memberId, rs.getLong("product_id"), rs.getInt("quantity")
+                ), memberId));
+        return hydrate(rows);
+    }
+
+    public List<Long> findProductIdsByMemberId(Long memberId) {
+        String sql = "SELECT product_id FROM cart_item WHERE member_id = ?";
+        return shards.withMember(memberId, jdbcTemplate -> jdbcTemplate.queryForList(sql, Long.class, memberId));
     }
 
+    /**
+     * 모든 샤드의 장바구니를 회원 단위로 읽어 상품 id 배열로 넘긴다. 전체를 한 번 훑으므로 시작할 때만 쓴다.
+     */
+    public void forEachCart(Consumer<long[]> consumer) {
+        String sql = "SELECT member_id, product_id FROM cart_item ORDER BY member_id, product_id";
+        for (int shard : shards.activeShards()) {
+            List<Long> productIds = new ArrayList<>();
+            long[] currentMemberId = {0};
+            shards.shard(shard).query(sql, rs -> {
+                long memberId = rs.getLong("member_id");
+                if (memberId != currentMemberId[0] && !productIds.isEmpty()) {
+                    consumer.accept(productIds.stream().mapToLong(Long::longValue).distinct().toArray());
+                    productIds.clear();
+                }
+                currentMemberId[0] = memberId;
+                productIds.add(rs.getLong("product_id"));
+            });
+            if (!productIds.isEmpty()) {
+                consumer.accept(productIds.stream().mapToLong(Long::longValue).distinct().toArray());
+            }
+        }
+    }
+
+    /**
+     * 회원의 장바구니에 같은 상품이 이미 있으면 그 아이템에 수량을 더하고 그 아이템의 id 를 돌려준다.
+     * (member_id, product_id) 는 유니크하므로 회원마다 상품 하나에 아이템은 하나뿐이다.
+     */
     public Long save(CartItem cartItem) {
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-
-        jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(
-                    "INSERT INTO cart_item (member_id, product_id, quantity) VALUES (?, ?, ?)",
-                    Statement.RETURN_GENERATED_KEYS
-            );
-
-            ps.setLong(1, cartItem.getMember().getId());
-            ps.setLong(2, cartItem.getProduct().getId());
-            ps.setInt(3, cartItem.getQuantity());
-
-            return ps;
-        }, keyHolder);
-
-        return Objects.requireNonNull(keyHolder.getKey()).longValue();
-    }
-
-    public CartItem findById(Long id) {
-        String sql = "SELECT cart_item.id, cart_item.member_id, member.email, product.id, product.name, product.price, product.image_url, cart_item.quantity " +
-                "FROM cart_item " +
-                "INNER JOIN member ON cart_item.member_id = member.id " +
-                "INNER JOIN product ON cart_item.product_id = product.id " +
-                "WHERE cart_item.id = ?";
-        List<CartItem> cartItems = jdbcTemplate.query(sql, new Object[]{id}, (rs, rowNum) -> {
-            Long memberId = rs.getLong("member_id");
-            String email = rs.getString("email");
-            Long productId = rs.getLong("id");
-            String name = rs.getString("name");
-            int price = rs.getInt("price");
-            String imageUrl = rs.getString("image_url");
-            Long cartItemId = rs.getLong("cart_item.id");
-            int quantity = rs.getInt("cart_item.quantity");
-            Member member = new Member(memberId, email, null);
-            Product product = new Product(productId, name, price, imageUrl);
-            return new CartItem(cartItemId, quantity, product, member);
+        Long memberId = cartItem.getMember().getId();
+        Long productId = cartItem.getProduct().getId();
+        String updateSql = "UPDATE cart_item SET quantity = quantity + ?, last_modified = CURRENT_TIMESTAMP WHERE member_id = ? AND product_id = ?";
+        String selectSql = "SELECT id FROM cart_item WHERE member_id = ? AND product_id = ?";
+        String insertSql = "INSERT INTO cart_item (id, member_id, product_id, quantity, last_modified) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)";
+        // 새로 넣을 행의 id 를 미리 받아 둔다. 기존 행에 더해지면 받아 둔 id 는 쓰이지 않는다.
+        Long id = shards.nextIds(1).get(0);
+        return shards.withMember(memberId, jdbcTemplate -> {
+            if (jdbcTemplate.update(updateSql, cartItem.getQuantity(), memberId, productId) > 0) {
+                return jdbcTemplate.queryForObject(selectSql, Long.class, memberId, productId);
+            }
+            jdbcTemplate.update(insertSql, id, memberId, productId, cartItem.getQuantity());
+            return id;
         });
-        return cartItems.isEmpty() ? null : cartItems.get(0);
     }
 
+    public void mergeQuantities(Long memberId, Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        String sql = "MERGE INTO cart_item target " +
+                "USING (SELECT CAST(? AS BIGINT) AS id, CAST(? AS BIGINT) AS member_id, CAST(? AS BIGINT) AS product_id, CAST(? AS INT) AS quantity) source " +
+                "ON target.member_id = source.member_id AND target.product_id = source.product_id " +
+                "WHEN MATCHED THEN UPDATE SET quantity = target.quantity + source.quantity, last_modified = CURRENT_TIMESTAMP " +
+                "WHEN NOT MATCHED THEN INSERT (id, member_id, product_id, quantity, last_modified) " +
+                "VALUES (source.id, source.member_id, source.product_id, source.quantity, CURRENT_TIMESTAMP)";
+        // 새로 넣을 행의 id 를 미리 받아 둔다. 기존 행과 합쳐지면 받아 둔 id 는 쓰이지 않는다.
+        Iterator<Long> ids = shards.nextIds(quantities.size()).iterator();
+        List<Object[]> rows = quantities.entrySet().stream()
+                .map(entry -> new Object[]{ids.next(), memberId, entry.getKey(), entry.getValue()})
+                .collect(Collectors.toList());
+        shards.withMember(memberId, jdbcTemplate -> jdbcTemplate.batchUpdate(sql, rows));
+    }
+
+    /**
+     * 회원의 샤드에서 먼저 찾는다. 다른 회원의 아이템이면 소유자 확인에서 거절되도록 다른 샤드도 찾아본다.
+     */
+    public CartItem findById(Long memberId, Long id) {
+        String sql = "SELECT id, member_id, product_id, quantity FROM cart_item WHERE id = ?";
+        CartItemRow row = shards.findAcrossShards(memberId, jdbcTemplate -> {
+            List<CartItemRow> rows = jdbcTemplate.query(sql, (rs, rowNum) -> new CartItemRow(
+                    rs.getLong("id"), rs.getLong("member_id"), rs.getLong("product_id"), rs.getInt("quantity")
+            ), id);
+            return rows.isEmpty() ? null : rows.get(0);
+        });
+        if (row == null) {
+            return null;
+        }
+        List<CartItem> cartItems = hydrate(List.of(row));
+        return cartItems.isEmpty() ? null : cartItems.get(0);
+    }
 
     public void delete(Long memberId, Long productId) {
         String sql = "DELETE FROM cart_item WHERE member_id = ? AND product_id = ?";
-        jdbcTemplate.update(sql, memberId, productId);
+        shards.withMember(memberId, jdbcTemplate -> jdbcTemplate.update(sql, memberId, productId));
     }
 
-    public void deleteById(Long id) {
-        String sql = "DELETE FROM cart_item WHERE id = ?";
-        jdbcTemplate.update(sql, id);
+    /**
+     * 지우고 나서 회원의 장바구니에 남은 상품 id 를 같은 샤드에서 이어서 읽어 돌려준다.
+     */
+    public List<Long> deleteById(Long memberId, Long id) {
+        String deleteSql = "DELETE FROM cart_item WHERE id = ?";
+        String selectSql = "SELECT product_id FROM cart_item WHERE member_id = ?";
+        return shards.withMember(memberId, jdbcTemplate -> {
+            jdbcTemplate.update(deleteSql, id);
+            return jdbcTemplate.queryForList(selectSql, Long.class, memberId);
+        });
     }
 
     public void updateQuantity(CartItem cartItem) {
-        String sql = "UPDATE cart_item SET quantity = ? WHERE id = ?";
-        jdbcTemplate.update(sql, cartItem.getQuantity(), cartItem.getId());
+        String sql = "UPDATE cart_item SET quantity = ?, last_modified = CURRENT_TIMESTAMP WHERE id = ?";
+        shards.withMember(cartItem.getMember().getId(), jdbcTemplate ->
+                jdbcTemplate.update(sql, cartItem.getQuantity(), cartItem.getId()));
+    }
+
+    public List<Integer> shardIndexes() {
+        return shards.activeShards();
     }
-}
 
+    public boolean isRebalancing() {
+        return shards.isRebalancing();
+    }
+
+    public TransactionTemplate transactionTemplate(int shard) {
+        return shards.transactionTemplate(shard);
+    }
+
+    public List<Long> findOldestIdsModifiedBefore(int shard, Instant cutoff, int limit) {
+        String sql = "SELECT id FROM cart_item WHERE last_modified < ? ORDER BY last_modified, id LIMIT ?";
+        return shards.shard(shard).queryForList(sql, Long.class, Timestamp.from(cutoff), limit);
+    }
+
+    /**
+     * 정리할 아이템의 상품별 수량 합계를 구한다. 같은 트랜잭션에서 지울 때까지 다른 변경이 끼어들지 않도록 행을 잠근다.
+     */
+    public Map<Long, Integer> lockQuantitiesByIdsModifiedBefore(int shard, List<Long> ids, Instant cutoff) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String sql = "SELECT product_id, quantity FROM cart_item WHERE id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ") " +
+                "AND last_modified < ? FOR UPDATE";
+
+        Map<Long, Integer> quantities = new HashMap<>();
+        shards.shard(shard).query(sql, rs -> {
+            quantities.merge(rs.getLong("product_id"), rs.getInt("quantity"), Integer::sum);
+        }, idsAndCutoff(ids, cutoff));
+        return quantities;
+    }
+
+    public int deleteByIdsModifiedBefore(int shard, List<Long> ids, Instant cutoff) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String sql = "DELETE FROM cart_item WHERE id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ") " +
+                "AND last_modified < ?";
+        return shards.shard(shard).update(sql, idsAndCutoff(ids, cutoff));
+    }
+
+    private Object[] idsAndCutoff(List<Long> ids, Instant cutoff) {
+        Object[] args = new Object[ids.size() + 1];
+        for (int i = 0; i < ids.size(); i++) {
+            args[i] = ids.get(i);
+        }
+        args[ids.size()] = Timestamp.from(cutoff);
+        return args;
+    }
+
+    /**
+     * 공용 DB 에서 지워진 상품을 가리키는 아이템은 샤드 사이에 외래 키가 없으므로 결과에서 뺀다.
+     */
+    private List<CartItem> hydrate(List<CartItemRow> rows) {
+        if (rows.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<Long> productIds = rows.stream().map(row -> row.productId).collect(Collectors.toSet());
+        Map<Long, Product> products = productDao.findByIds(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return rows.stream()
+                .filter(row -> products.containsKey(row.productId))
+                .map(row -> new CartItem(row.id, row.quantity, products.get(row.productId), new Member(row.memberId, null, null)))
+                .collect(Collectors.toList());
+    }
+
+    private static class CartItemRow {
+        private final long id;
+        private final long memberId;
+        private final long productId;
+        private final int quantity;
+
+        private CartItemRow(long id, long memberId, long productId, int quantity) {
+            this.id = id;
+            this.memberId = memberId;
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package cart.dao;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * cart_item 을 member_id 기준으로 여러 DB 에 나누어 둔다. 상품과 회원은 공용 DB 에 남는다.
+ * cart.shards.urls 가 비어 있으면 공용 DB 하나가 유일한 샤드다.
+ * <p>
+ * 링과 조정 상태는 공용 DB 의 shard_ring 과 shard_moved_member 에 두고, 모든 노드가 cart.shards.ring-poll-interval 마다
+ * 읽어 같은 링으로 요청을 보낸다. 재시작해도 그 상태를 이어받으며, cart.shards.active 는 처음 링을 만들 때만 쓴다.
+ * <p>
+ * 샤드를 더할 때는 새 링으로 옮겨 갈 회원만 옮긴다. 모든 노드가 새 링을 읽을 시간만큼 기다린 뒤 옮기기 시작하고,
+ * 주인이 바뀌는 회원의 요청과 옮기기는 공용 DB 의 회원 행을 잠가 노드 사이에서도 차례로 실행한다.
+ */
+@Component
+@Lazy(false)
+public class CartItemShards {
+    private static final Logger log = LoggerFactory.getLogger(CartItemShards.class);
+
+    private final JdbcTemplate sharedJdbcTemplate;
+    private final TransactionTemplate sharedTransactionTemplate;
+    private final TransactionTemplate moveTransactionTemplate;
+    private final List<JdbcTemplate> shards;
+    private final List<TransactionTemplate> transactionTemplates;
+    private final List<HikariDataSource> ownedDataSources;
+    private final int virtualNodes;
+    private final Duration ringPollInterval;
+    private final Duration ringPropagation;
+    private volatile RingState state;
+
+    @Autowired
+    public CartItemShards(JdbcTemplate jdbcTemplate,
+                          @Value("${cart.shards.urls:}") List<String> urls,
+                          @Value("${cart.shards.username:sa}") String username,
+                          @Value("${cart.shards.password:}") String password,
+                          @Value("${cart.shards.active:}") List<Integer> activeShards,
+                          @Value("${cart.shards.virtual-nodes:128}") int virtualNodes,
+                          @Value("${cart.shards.ring-poll-interval:PT1S}") Duration ringPollInterval) {
+        this(jdbcTemplate, connect(urls, username, password), activeShards, virtualNodes, ringPollInterval);
+    }
+
+    CartItemShards(JdbcTemplate sharedJdbcTemplate, List<JdbcTemplate> shards, Collection<Integer> activeShards, int virtualNodes) {
+        this(sharedJdbcTemplate, shards, activeShards, virtualNodes, Duration.ofSeconds(1));
+    }
+
+    CartItemShards(JdbcTemplate sharedJdbcTemplate, List<JdbcTemplate> shards, Collection<Integer> activeShards, int virtualNodes,
+                   Duration ringPollInterval) {
+        this.sharedJdbcTemplate = sharedJdbcTemplate;
+        DataSourceTransactionManager sharedTransactionManager = new DataSourceTransactionManager(sharedJdbcTemplate.getDataSource());
+        this.sharedTransactionTemplate = new TransactionTemplate(sharedTransactionManager);
+        // 옮긴 기록은 부르는 쪽 트랜잭션이 되돌려져도 남아야 한다. 샤드의 행은 이미 옮겨졌기 때문이다.
+        this.moveTransactionTemplate = new TransactionTemplate(sharedTransactionManager);
+        this.moveTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shards = shards.isEmpty() ? List.of(sharedJdbcTemplate) : List.copyOf(shards);
+        this.transactionTemplates = this.shards.stream()
+                .map(shard -> new TransactionTemplate(new DataSourceTransactionManager(shard.getDataSource())))
+                .collect(Collectors.toUnmodifiableList());
+        this.ownedDataSources = this.shards.stream()
+                .map(JdbcTemplate::getDataSource)
+                .filter(dataSource -> dataSource instanceof HikariDataSource && dataSource != sharedJdbcTemplate.getDataSource())
+                .map(HikariDataSource.class::cast)
+                .collect(Collectors.toUnmodifiableList());
+        this.virtualNodes = virtualNodes;
+        this.ringPollInterval = ringPollInterval;
+        this.ringPropagation = ringPollInterval.multipliedBy(2);
+
+        List<Integer> active = activeShards.isEmpty()
+                ? IntStream.range(0, this.shards.size()).boxed().collect(Collectors.toList())
+                : new ArrayList<>(activeShards);
+        if (active.stream().anyMatch(shard -> shard < 0 || shard >= this.shards.size())) {
+            throw new IllegalArgumentException("cart.shards.active refers to an unknown shard: " + active);
+        }
+        sharedJdbcTemplate.update("UPDATE shard_ring SET active_shards = ?, version = version + 1 WHERE id = 1 AND active_shards IS NULL",
+                toColumn(active));
+        load();
+    }
+
+    private static List<JdbcTemplate> connect(List<String> urls, String username, String password) {
+        List<JdbcTemplate> shards = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("cart-shard-" + i);
+            dataSource.setJdbcUrl(urls.get(i));
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            new ResourceDatabasePopulator(new ClassPathResource("cart-shard-schema.sql")).execute(dataSource);
+            shards.add(new JdbcTemplate(dataSource));
+        }
+        return shards;
+    }
+
+    /**
+     * 회원의 장바구니가 있는 샤드에서 작업한다. 작업하는 동안 그 회원의 아이템은 다른 샤드로 옮겨지지 않는다.
+     */
+    public <T> T withMember(Long memberId, Function<JdbcTemplate, T> operation) {
+        RingState current = state;
+        if (!current.changesOwner(memberId)) {
+            return operation.apply(shards.get(current.ring.ownerOf(memberId)));
+        }
+        // 부르는 쪽 트랜잭션이 있으면 거기에 합류한다. 이미 회원 행을 잠갔더라도 같은 잠금 안에서 옮긴 뒤 새 샤드에 쓴다.
+        return sharedTransactionTemplate.execute(status -> {
+            lockMember(memberId);
+            int shard = moveLocked(current, memberId) ? current.targetRing.ownerOf(memberId) : shardOf(current, memberId);
+            return operation.apply(shards.get(shard));
+        });
+    }
+
+    /**
+     * 회원의 샤드를 먼저 보고, 없으면 나머지 활성 샤드를 차례로 본다. 다른 회원의 아이템 id 로 요청한 경우에만 여러 샤드를 본다.
+     */
+    public <T> T findAcrossShards(Long memberId, Function<JdbcTemplate, T> lookup) {
+        T found = withMember(memberId, lookup);
+        if (found != null) {
+            return found;
+        }
+        RingState current = state;
+        int memberShard = shardOf(current, memberId);
+        for (int shard : (current.targetRing != null ? current.targetRing : current.ring).shards()) {
+            if (shard != memberShard) {
+                found = lookup.apply(shards.get(shard));
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    public JdbcTemplate shard(int shard) {
+        return shards.get(shard);
+    }
+
+    public TransactionTemplate transactionTemplate(int shard) {
+        return transactionTemplates.get(shard);
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public List<Integer> activeShards() {
+        return state.ring.shards();
+    }
+
+    public boolean isRebalancing() {
+        return state.targetRing != null;
+    }
+
+    public Integer joiningShard() {
+        return state.joiningShard;
+    }
+
+    int shardOf(Long memberId) {
+        return shardOf(state, memberId);
+    }
+
+    private int shardOf(RingState current, Long memberId) {
+        if (current.changesOwner(memberId) && isMoved(current, memberId)) {
+            return current.targetRing.ownerOf(memberId);
+        }
+        return current.ring.ownerOf(memberId);
+    }
+
+    /**
+     * 샤드를 옮겨도 id 가 겹치지 않도록 장바구니 아이템 id 는 공용 DB 의 시퀀스에서 한 번에 받아 온다.
+     */
+    public List<Long> nextIds(int count) {
+        if (count == 1) {
+            return List.of(sharedJdbcTemplate.queryForObject("SELECT NEXT VALUE FOR cart_item_id_seq", Long.class));
+        }
+        return sharedJdbcTemplate.queryForList("SELECT NEXT VALUE FOR cart_item_id_seq FROM SYSTEM_RANGE(1, ?)", Long.class, count);
+    }
+
+    /**
+     * 지난 조정에서 옮긴 회원 기록은 새 조정을 시작할 때 지운다. 링을 바꾼 직후 아직 옛 상태를 보는 노드가 그 기록으로 새 샤드를 찾는다.
+     */
+    public synchronized void beginAdding(int shard) {
+        load();
+        RingState current = state;
+        if (current.targetRing != null) {
+            throw new IllegalStateException("a rebalance is already in progress");
+        }
+        if (shard < 0 || shard >= shards.size() || current.ring.contains(shard)) {
+            throw new IllegalArgumentException("shard " + shard + " is not a configured inactive shard");
+        }
+        sharedTransactionTemplate.executeWithoutResult(status -> {
+            sharedJdbcTemplate.update("DELETE FROM shard_moved_member");
+            updateRing("UPDATE shard_ring SET joining_shard = ?, version = version + 1 WHERE id = 1 AND version = ?",
+                    shard, current.version);
+        });
+        load();
+    }
+
+    public synchronized void completeAdding() {
+        load();
+        RingState current = state;
+        if (current.targetRing == null) {
+            return;
+        }
+        // 모든 대상 회원을 옮긴 뒤에 링을 바꾸므로, 바꾸는 순간 어느 회원의 샤드도 달라지지 않는다.
+        updateRing("UPDATE shard_ring SET active_shards = ?, joining_shard = NULL, version = version + 1 WHERE id = 1 AND version = ?",
+                toColumn(current.targetRing.shards()), current.version);
+        load();
+    }
+
+    /**
+     * 조정을 시작한 뒤 다른 노드가 모두 새 링을 읽을 때까지 기다린다. 그 전에는 이 노드도 회원을 옮기지 않는다.
+     */
+    public void awaitRingPropagation() throws InterruptedException {
+        sleepUntil(state.movableAt);
+    }
+
+    /**
+     * 다른 노드도 모두 쓰기 전에 회원을 옮기기 시작할 때까지 기다린다. 그 뒤로는 옛 샤드에 새 아이템이 쌓이지 않는다.
+     */
+    public void awaitMovesEverywhere() throws InterruptedException {
+        sleepUntil(state.movableAt + ringPollInterval.toNanos());
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.shards.ring-poll-interval:PT1S}")
+    public void refresh() {
+        try {
+            load();
+        } catch (DataAccessException e) {
+            log.warn("Cannot read the cart shard ring; keeping version {}", state.version, e);
+        }
+    }
+
+    /**
+     * 샤드에 아이템이 있는 회원 id 를 오름차순으로 조금씩 읽는다.
+     */
+    public List<Long> findMemberIdsAfter(int shard, long lastMemberId, int limit) {
+        String sql = "SELECT DISTINCT member_id FROM cart_item WHERE member_id > ? ORDER BY member_id LIMIT ?";
+        return shards.get(shard).queryForList(sql, Long.class, lastMemberId, limit);
+    }
+
+    /**
+     * 조정 중이고 회원의 샤드가 바뀌는 경우 아이템을 새 샤드로 옮긴다. 옮겼으면 true 를 돌려준다.
+     */
+    public boolean moveIfNeeded(Long memberId) {
+        RingState current = state;
+        if (!current.changesOwner(memberId) || System.nanoTime() < current.movableAt || isMoved(current, memberId)) {
+            return false;
+        }
+
+        return Boolean.TRUE.equals(moveTransactionTemplate.execute(status -> {
+            lockMember(memberId);
+            return moveLocked(current, memberId);
+        }));
+    }
+
+    /**
+     * 회원 행을 잠근 트랜잭션 안에서 옮긴다. 샤드의 행은 바로 옮겨지므로, 그 트랜잭션이 되돌려지면 옮긴 기록만 따로 다시 남긴다.
+     */
+    private boolean moveLocked(RingState current, Long memberId) {
+        if (System.nanoTime() < current.movableAt || isMoved(current, memberId)) {
+            return false;
+        }
+        moveRows(memberId, shards.get(current.ring.ownerOf(memberId)), shards.get(current.targetRing.ownerOf(memberId)));
+        recordMoved(memberId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    moveTransactionTemplate.executeWithoutResult(retry -> recordMoved(memberId));
+                }
+                current.movedMembers.add(memberId);
+            }
+        });
+        return true;
+    }
+
+    private void recordMoved(Long memberId) {
+        sharedJdbcTemplate.update("MERGE INTO shard_moved_member (member_id) KEY (member_id) VALUES (?)", memberId);
+    }
+
+    /**
+     * 옮긴 회원은 조정이 끝날 때까지 그대로이므로 한 번 본 회원은 이 노드에 기억해 두고 다시 묻지 않는다.
+     */
+    private boolean isMoved(RingState current, Long memberId) {
+        if (current.movedMembers.contains(memberId)) {
+            return true;
+        }
+        Integer count = sharedJdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM shard_moved_member WHERE member_id = ?", Integer.class, memberId);
+        if (count != null && count > 0) {
+            current.movedMembers.add(memberId);
+            return true;
+        }
+        return false;
+    }
+
+    private void lockMember(Long memberId) {
+        sharedJdbcTemplate.queryForList("SELECT id FROM member WHERE id = ? FOR UPDATE", Long.class, memberId);
+    }
+
+    private synchronized void load() {
+        RingRow row = sharedJdbcTemplate.queryForObject(
+                "SELECT version, active_shards, joining_shard FROM shard_ring WHERE id = 1",
+                (rs, rowNum) -> new RingRow(rs.getLong("version"), rs.getString("active_shards"),
+                        rs.getObject("joining_shard", Integer.class)));
+        RingState current = state;
+        if (current != null && current.version == row.version) {
+            return;
+        }
+
+        List<Integer> active = Arrays.stream(row.activeShards.split(","))
+                .map(String::trim)
+                .map(Integer::valueOf)
+                .collect(Collectors.toList());
+        if (active.stream().anyMatch(shard -> shard < 0 || shard >= shards.size())
+                || (row.joiningShard != null && (row.joiningShard < 0 || row.joiningShard >= shards.size()))) {
+            throw new IllegalStateException("shard_ring refers to a shard that is not configured in cart.shards.urls: " + row.activeShards
+                    + (row.joiningShard == null ? "" : " + " + row.joiningShard));
+        }
+        ConsistentHashRing ring = new ConsistentHashRing(active, virtualNodes);
+        ConsistentHashRing targetRing = row.joiningShard == null ? null : ring.withShard(row.joiningShard);
+        state = new RingState(row.version, ring, targetRing, row.joiningShard, System.nanoTime() + ringPropagation.toNanos());
+    }
+
+    private void updateRing(String sql, Object... args) {
+        if (sharedJdbcTemplate.update(sql, args) == 0) {
+            throw new IllegalStateException("the cart shard ring was changed by another node");
+        }
+    }
+
+    private static String toColumn(List<Integer> shards) {
+        return shards.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    /**
+     * 같은 id 로 복사한 다음 원래 샤드에서 지운다. 중간에 실패해도 다시 옮기면 MERGE 가 같은 행을 덮어쓴다.
+     */
+    private void moveRows(Long memberId, JdbcTemplate from, JdbcTemplate to) {
+        List<Object[]> rows = from.query(
+                "SELECT id, member_id, product_id, quantity, last_modified FROM cart_item WHERE member_id = ?",
+                (rs, rowNum) -> new Object[]{
+                        rs.getLong("id"), rs.getLong("member_id"), rs.getLong("product_id"), rs.getInt("quantity"),
+                        rs.getTimestamp("last_modified")
+                },
+                memberId);
+        if (!rows.isEmpty()) {
+            to.batchUpdate("MERGE INTO cart_item (id, member_id, product_id, quantity, last_modified) KEY (id) VALUES (?, ?, ?, ?, ?)", rows);
+        }
+        from.update("DELETE FROM cart_item WHERE member_id = ?", memberId);
+    }
+
+    @PreDestroy
+    public void close() {
+        ownedDataSources.forEach(HikariDataSource::close);
+    }
+
+    private static class RingRow {
+        private final long version;
+        private final String activeShards;
+        private final Integer joiningShard;
+
+        private RingRow(long version, String activeShards, Integer joiningShard) {
+            this.version = version;
+            this.activeShards = activeShards;
+            this.joiningShard = joiningShard;
+        }
+    }
+
+    /**
+     * shard_ring 한 버전을 읽은 결과. 버전이 바뀌면 통째로 바꾸므로 요청 하나는 한 버전의 링만 본다.
+     */
+    private static class RingState {
+        private final long version;
+        private final ConsistentHashRing ring;
+        private final ConsistentHashRing targetRing;
+        private final Integer joiningShard;
+        private final long movableAt;
+        private final Set<Long> movedMembers = ConcurrentHashMap.newKeySet();
+
+        private RingState(long version, ConsistentHashRing ring, ConsistentHashRing targetRing, Integer joiningShard, long movableAt) {
+            this.version = version;
+            this.ring = ring;
+            this.targetRing = targetRing;
+            this.joiningShard = joiningShard;
+            this.movableAt = movableAt;
+        }
+
+        private boolean changesOwner(Long memberId) {
+            return targetRing != null && targetRing.ownerOf(memberId) != ring.ownerOf(memberId);
+        }
+    }
+}
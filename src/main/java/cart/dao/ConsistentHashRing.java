@@ -0,0 +1,79 @@
+package cart.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 샤드마다 가상 노드를 여러 개 두는 consistent hashing 링. 샤드를 하나 더하면 새 샤드로 옮겨 갈 키만 주인이 바뀐다.
+ * 위치와 주인은 정렬된 배열로 들고 있어 조회는 할당 없이 이진 탐색 한 번으로 끝난다.
+ */
+class ConsistentHashRing {
+    // 가상 노드 위치를 키와 다른 공간에서 뽑아, 작은 회원 id 가 특정 샤드의 노드 위치와 겹치지 않게 한다.
+    private static final long NODE_SALT = 0x9E3779B97F4A7C15L;
+
+    private final List<Integer> shards;
+    private final int virtualNodes;
+    private final long[] positions;
+    private final int[] owners;
+
+    ConsistentHashRing(Collection<Integer> shards, int virtualNodes) {
+        if (shards.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("a ring needs at least one shard and one virtual node");
+        }
+        this.shards = shards.stream().sorted().distinct().collect(Collectors.toUnmodifiableList());
+        this.virtualNodes = virtualNodes;
+
+        long[][] nodes = new long[this.shards.size() * virtualNodes][];
+        int index = 0;
+        for (int shard : this.shards) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                nodes[index++] = new long[]{mix((((long) shard << 32) | replica) ^ NODE_SALT), shard};
+            }
+        }
+        // 위치가 같으면 샤드 번호로 정렬해, 같은 샤드 집합이면 어느 노드에서 만들어도 같은 링이 된다.
+        Arrays.sort(nodes, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.positions = new long[nodes.length];
+        this.owners = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            positions[i] = nodes[i][0];
+            owners[i] = (int) nodes[i][1];
+        }
+    }
+
+    ConsistentHashRing withShard(int shard) {
+        List<Integer> extended = new ArrayList<>(shards);
+        extended.add(shard);
+        return new ConsistentHashRing(extended, virtualNodes);
+    }
+
+    int ownerOf(long key) {
+        int index = Arrays.binarySearch(positions, mix(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == positions.length ? 0 : index];
+    }
+
+    List<Integer> shards() {
+        return shards;
+    }
+
+    boolean contains(int shard) {
+        return shards.contains(shard);
+    }
+
+    /**
+     * 연속된 id 도 링 위에 고르게 흩어지도록 MurmurHash3 의 마지막 섞기 단계를 쓴다.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
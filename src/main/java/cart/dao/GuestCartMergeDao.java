@@ -0,0 +1,38 @@
+package cart.dao;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * 회원 장바구니에 합친 비회원 장바구니 쿠키의 nonce 를 남겨 같은 쿠키를 두 번 합치지 않게 한다.
+ */
+@Repository
+public class GuestCartMergeDao {
+    private final JdbcTemplate jdbcTemplate;
+
+    public GuestCartMergeDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 처음 보는 nonce 면 남기고 true 를 돌려준다. 같은 nonce 를 동시에 남기려 하면 먼저 커밋한 쪽만 true 를 받는다.
+     */
+    public boolean markMerged(String nonce) {
+        String sql = "INSERT INTO guest_cart_merge (nonce, merged_at) VALUES (?, CURRENT_TIMESTAMP)";
+        try {
+            jdbcTemplate.update(sql, nonce);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public int deleteMergedBefore(Instant cutoff) {
+        String sql = "DELETE FROM guest_cart_merge WHERE merged_at < ?";
+        return jdbcTemplate.update(sql, Timestamp.from(cutoff));
+    }
+}
@@ -0,0 +1,46 @@
+package cart.dao;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * product.stock 을 다룬다. stock 이 NULL 인 상품은 재고 제한이 없다.
+ */
+@Repository
+public class InventoryDao {
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Integer findStock(Long productId) {
+        String sql = "SELECT stock FROM product WHERE id = ?";
+        return jdbcTemplate.queryForObject(sql, Integer.class, productId);
+    }
+
+    /**
+     * 남은 재고가 quantity 이상일 때만 차감한다. 재고 제한이 없는 상품은 언제나 성공한다.
+     * 재고 제한이 없는 상품의 행은 갱신하지 않아 예약끼리 행 잠금을 기다리지 않게 한다.
+     */
+    public boolean reserve(Long productId, int quantity) {
+        String sql = "UPDATE product SET stock = stock - ? WHERE id = ? AND stock IS NOT NULL AND stock >= ?";
+        if (jdbcTemplate.update(sql, quantity, productId, quantity) == 1) {
+            return true;
+        }
+        List<Integer> stocks = jdbcTemplate.queryForList("SELECT stock FROM product WHERE id = ?", Integer.class, productId);
+        return stocks.size() == 1 && stocks.get(0) == null;
+    }
+
+    public void release(Long productId, int quantity) {
+        String sql = "UPDATE product SET stock = stock + ? WHERE id = ? AND stock IS NOT NULL";
+        jdbcTemplate.update(sql, quantity, productId);
+    }
+
+    public void updateStock(Long productId, Integer stock) {
+        String sql = "UPDATE product SET stock = ? WHERE id = ?";
+        jdbcTemplate.update(sql, stock, productId);
+    }
+}
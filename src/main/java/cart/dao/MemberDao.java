@@ -31,6 +31,14 @@ public class MemberDao {
         return members.isEmpty() ? null : members.get(0);
     }
 
+    /**
+     * 트랜잭션이 끝날 때까지 회원 행을 잠가, 같은 회원의 장바구니 변경을 노드와 상관없이 차례로 실행하게 한다.
+     */
+    public void lockById(Long id) {
+        String sql = "SELECT id FROM member WHERE id = ? FOR UPDATE";
+        jdbcTemplate.queryForList(sql, Long.class, id);
+    }
+
     public void addMember(Member member) {
         String sql = "INSERT INTO member (email, password) VALUES (?, ?)";
         jdbcTemplate.update(sql, member.getEmail(), member.getPassword());
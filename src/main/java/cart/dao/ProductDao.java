@@ -1,44 +1,109 @@
 package cart.dao;
 
+import cart.domain.PriceAdjustment;
 import cart.domain.Product;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.annotation.PreDestroy;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Repository
 public class ProductDao {
+    private static final int PRICE_UPDATE_CHUNK_SIZE = 1000;
 
     private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
+    private final int readTimeoutSeconds;
+    private final Set<Long> writtenVersions = ConcurrentHashMap.newKeySet();
 
     public ProductDao(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, jdbcTemplate, Duration.ZERO);
+    }
+
+    /**
+     * 회로 차단기가 지켜보는 전체 목록과 단건 조회는 read-timeout 이 지나면 취소한다.
+     * DB 가 멈춰도 호출이 끝나야 느린 호출로 세어 차단기를 열 수 있다. 0 이면 제한하지 않는다.
+     * 커넥션을 기다리는 시간은 쿼리 제한에 들지 않으므로, 트랜잭션 밖의 이 조회는 read-connection-timeout 만
+     * 기다리는 작은 풀 read-pool-size 를 따로 쓴다. 본 풀이 바닥나도 차단기가 열리는 데 30초가 걸리지 않는다.
+     */
+    @Autowired
+    public ProductDao(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+                      @Value("${cart.product.read-timeout:2s}") Duration readTimeout,
+                      @Value("${cart.product.read-pool-size:4}") int readPoolSize,
+                      @Value("${cart.product.read-connection-timeout:250ms}") Duration readConnectionTimeout) {
+        this(jdbcTemplate, new JdbcTemplate(connectReadPool(dataSourceProperties, readPoolSize, readConnectionTimeout)), readTimeout);
+    }
+
+    ProductDao(JdbcTemplate jdbcTemplate, JdbcTemplate readJdbcTemplate, Duration readTimeout) {
         this.jdbcTemplate = jdbcTemplate;
+        this.readJdbcTemplate = readJdbcTemplate;
+        this.readTimeoutSeconds = (int) Math.max(0, (readTimeout.toMillis() + 999) / 1000);
+    }
+
+    private static HikariDataSource connectReadPool(DataSourceProperties dataSourceProperties, int poolSize, Duration connectionTimeout) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("product-reads");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setConnectionTimeout(connectionTimeout.toMillis());
+        return dataSource;
     }
 
     public List<Product> getAllProducts() {
         String sql = "SELECT * FROM product";
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
-            Long productId = rs.getLong("id");
-            String name = rs.getString("name");
-            int price = rs.getInt("price");
-            String imageUrl = rs.getString("image_url");
-            return new Product(productId, name, price, imageUrl);
-        });
+        return queryWithReadTimeout(sql);
+    }
+
+    public List<Product> getProductsAfter(Long lastId, int size) {
+        String sql = "SELECT * FROM product WHERE id > ? ORDER BY id LIMIT ?";
+        return jdbcTemplate.query(sql, new ProductRowMapper(), lastId, size);
+    }
+
+    public List<Product> searchProductsAfter(String keyword, Long lastId, int size) {
+        String sql = "SELECT * FROM product WHERE id > ? AND name LIKE ? ESCAPE '\\' ORDER BY id LIMIT ?";
+        return jdbcTemplate.query(sql, new ProductRowMapper(), lastId, "%" + escapeLike(keyword) + "%", size);
     }
 
     public Product getProductById(Long productId) {
         String sql = "SELECT * FROM product WHERE id = ?";
-        return jdbcTemplate.queryForObject(sql, new Object[]{productId}, (rs, rowNum) -> {
-            String name = rs.getString("name");
-            int price = rs.getInt("price");
-            String imageUrl = rs.getString("image_url");
-            return new Product(productId, name, price, imageUrl);
-        });
+        return DataAccessUtils.requiredSingleResult(queryWithReadTimeout(sql, productId));
+    }
+
+    /**
+     * 회로 차단기가 DB 가 돌아왔는지 볼 때 한 행만 읽는다.
+     */
+    public void probe() {
+        queryWithReadTimeout("SELECT * FROM product LIMIT 1");
+    }
+
+    public List<Product> findByIds(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String sql = "SELECT * FROM product WHERE id IN (" + String.join(", ", Collections.nCopies(productIds.size(), "?")) + ")";
+        return jdbcTemplate.query(sql, new ProductRowMapper(), new ArrayList<>(productIds).toArray());
     }
 
     public Long createProduct(Product product) {
@@ -56,6 +121,7 @@ public class ProductDao {
 
             return ps;
         }, keyHolder);
+        bumpCatalogVersion();
 
         return Objects.requireNonNull(keyHolder.getKey()).longValue();
     }
@@ -63,10 +129,163 @@ public class ProductDao {
     public void updateProduct(Long productId, Product product) {
         String sql = "UPDATE product SET name = ?, price = ?, image_url = ? WHERE id = ?";
         jdbcTemplate.update(sql, product.getName(), product.getPrice(), product.getImageUrl(), productId);
+        bumpCatalogVersion();
+    }
+
+    /**
+     * 이미지 URL 만 바꾸므로 그사이 바뀐 이름과 가격을 덮어쓰지 않는다. 상품이 없으면 false 를 돌려준다.
+     */
+    public boolean updateImageUrl(Long productId, String imageUrl) {
+        String sql = "UPDATE product SET image_url = ? WHERE id = ?";
+        if (jdbcTemplate.update(sql, imageUrl, productId) == 0) {
+            return false;
+        }
+        bumpCatalogVersion();
+        return true;
     }
 
     public void deleteProduct(Long productId) {
         String sql = "DELETE FROM product WHERE id = ?";
         jdbcTemplate.update(sql, productId);
+        bumpCatalogVersion();
+    }
+
+    public int adjustPrices(List<Long> productIds, PriceAdjustment adjustment) {
+        int updatedCount = 0;
+        for (int from = 0; from < productIds.size(); from += PRICE_UPDATE_CHUNK_SIZE) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + PRICE_UPDATE_CHUNK_SIZE, productIds.size()));
+            String sql = "UPDATE product SET price = " + priceExpression(adjustment) +
+                    " WHERE id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+
+            Object[] args = new Object[chunk.size() + 1];
+            args[0] = adjustment.getValue();
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 1] = chunk.get(i);
+            }
+            updatedCount += jdbcTemplate.update(sql, args);
+        }
+        if (updatedCount > 0) {
+            bumpCatalogVersion();
+        }
+        return updatedCount;
+    }
+
+    /**
+     * ix_product_price 의 (price, id) 순서로 PRICE_UPDATE_CHUNK_SIZE 개씩 대상을 골라 바꾼다. 마지막으로 본 (price, id) 다음부터
+     * 이어서 찾으므로 범위 안의 행만 읽는다. 바꾼 가격이 아직 훑지 않은 쪽으로 가지 않도록, 올릴 때는 비싼 쪽부터 내려가고
+     * 내릴 때는 싼 쪽부터 올라간다. 고른 뒤에 가격이 바뀐 상품은 건너뛴다.
+     */
+    public int adjustPricesBetween(int minPrice, int maxPrice, PriceAdjustment adjustment) {
+        boolean descending = adjustment.raisesPrices();
+        String selectSql = descending
+                ? "SELECT id, price FROM product WHERE price BETWEEN ? AND ? AND (price < ? OR id < ?) ORDER BY price DESC, id DESC LIMIT ?"
+                : "SELECT id, price FROM product WHERE price BETWEEN ? AND ? AND (price > ? OR id > ?) ORDER BY price, id LIMIT ?";
+        int updatedCount = 0;
+        int lastPrice = descending ? maxPrice : minPrice;
+        long lastId = descending ? Long.MAX_VALUE : 0;
+        while (true) {
+            List<long[]> chunk = jdbcTemplate.query(selectSql, (rs, rowNum) -> new long[]{rs.getLong("id"), rs.getInt("price")},
+                    descending ? minPrice : lastPrice, descending ? lastPrice : maxPrice, lastPrice, lastId, PRICE_UPDATE_CHUNK_SIZE);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            String sql = "UPDATE product SET price = " + priceExpression(adjustment) +
+                    " WHERE id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")" +
+                    " AND price BETWEEN ? AND ?";
+            Object[] args = new Object[chunk.size() + 3];
+            args[0] = adjustment.getValue();
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 1] = chunk.get(i)[0];
+            }
+            args[chunk.size() + 1] = minPrice;
+            args[chunk.size() + 2] = maxPrice;
+            updatedCount += jdbcTemplate.update(sql, args);
+            long[] last = chunk.get(chunk.size() - 1);
+            lastId = last[0];
+            lastPrice = (int) last[1];
+        }
+        if (updatedCount > 0) {
+            bumpCatalogVersion();
+        }
+        return updatedCount;
+    }
+
+    public long getCatalogVersion() {
+        String sql = "SELECT version FROM catalog_version WHERE id = 1";
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    /**
+     * 이 노드가 올린 카탈로그 버전인지 확인한다. 커밋 전에도 true 이고, 롤백되면 false 가 된다.
+     */
+    public boolean isWrittenHere(long version) {
+        return writtenVersions.contains(version);
+    }
+
+    public void forgetWrittenVersionsUpTo(long version) {
+        writtenVersions.removeIf(writtenVersion -> writtenVersion <= version);
+    }
+
+    /**
+     * 버전을 올리고 올린 값을 한 문장으로 돌려받는다. 다른 노드가 동시에 올려도 각자 자기가 쓴 값을 안다.
+     */
+    private long bumpCatalogVersion() {
+        String sql = "SELECT version FROM FINAL TABLE (UPDATE catalog_version SET version = version + 1 WHERE id = 1)";
+        long version = jdbcTemplate.queryForObject(sql, Long.class);
+        writtenVersions.add(version);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        writtenVersions.remove(version);
+                    }
+                }
+            });
+        }
+        return version;
+    }
+
+    /**
+     * INT 를 넘지 않도록 BIGINT 로 계산한 뒤 0 과 INT 최댓값 사이로 자른다.
+     */
+    private static String priceExpression(PriceAdjustment adjustment) {
+        if (adjustment.getType() == PriceAdjustment.Type.PERCENT) {
+            return "CAST(LEAST(2147483647, GREATEST(0, ROUND(CAST(price AS BIGINT) * (100 + CAST(? AS BIGINT)) / 100.0))) AS INT)";
+        }
+        return "CAST(LEAST(2147483647, GREATEST(0, CAST(price AS BIGINT) + ?)) AS INT)";
+    }
+
+    private static String escapeLike(String keyword) {
+        return keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * 트랜잭션 안에서는 아직 커밋하지 않은 변경을 봐야 하므로 그 트랜잭션의 커넥션으로 읽는다.
+     */
+    private List<Product> queryWithReadTimeout(String sql, Object... args) {
+        JdbcTemplate template = TransactionSynchronizationManager.hasResource(jdbcTemplate.getDataSource())
+                ? jdbcTemplate
+                : readJdbcTemplate;
+        return template.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setQueryTimeout(readTimeoutSeconds);
+            new ArgumentPreparedStatementSetter(args).setValues(statement);
+            return statement;
+        }, new ProductRowMapper());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (readJdbcTemplate != jdbcTemplate && readJdbcTemplate.getDataSource() instanceof HikariDataSource) {
+            ((HikariDataSource) readJdbcTemplate.getDataSource()).close();
+        }
+    }
+
+    private static class ProductRowMapper implements RowMapper<Product> {
+        @Override
+        public Product mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return new Product(rs.getLong("id"), rs.getString("name"), rs.getInt("price"), rs.getString("image_url"));
+        }
     }
 }
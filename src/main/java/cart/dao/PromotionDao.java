@@ -0,0 +1,106 @@
+package cart.dao;
+
+import cart.domain.Promotion;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 할인 규칙을 저장한다. 규칙이 바뀌면 다른 노드도 다시 읽도록 promotion_version 을 함께 올린다.
+ * 상품 카탈로그와 버전을 나눠 두어 할인 규칙 변경이 상품 캐시를 비우지 않게 한다.
+ */
+@Repository
+public class PromotionDao {
+    private final JdbcTemplate jdbcTemplate;
+
+    public PromotionDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Promotion> findAll() {
+        String sql = "SELECT * FROM promotion";
+        return jdbcTemplate.query(sql, new PromotionRowMapper());
+    }
+
+    public long getVersion() {
+        String sql = "SELECT version FROM promotion_version WHERE id = 1";
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    public Long save(Promotion promotion) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO promotion (type, product_id, percent, buy_quantity, free_quantity, min_spend, discount_amount, starts_at, ends_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS
+            );
+
+            ps.setString(1, promotion.getType().name());
+            ps.setObject(2, promotion.getProductId(), Types.BIGINT);
+            ps.setInt(3, promotion.getPercent());
+            ps.setInt(4, promotion.getBuyQuantity());
+            ps.setInt(5, promotion.getFreeQuantity());
+            ps.setInt(6, promotion.getMinSpend());
+            ps.setInt(7, promotion.getDiscountAmount());
+            ps.setTimestamp(8, toTimestamp(promotion.getStartsAt()));
+            ps.setTimestamp(9, toTimestamp(promotion.getEndsAt()));
+
+            return ps;
+        }, keyHolder);
+        bumpVersion();
+
+        return Objects.requireNonNull(keyHolder.getKey()).longValue();
+    }
+
+    public void deleteById(Long id) {
+        String sql = "DELETE FROM promotion WHERE id = ?";
+        jdbcTemplate.update(sql, id);
+        bumpVersion();
+    }
+
+    private void bumpVersion() {
+        String sql = "UPDATE promotion_version SET version = version + 1 WHERE id = 1";
+        jdbcTemplate.update(sql);
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return instant == null ? null : Timestamp.from(instant);
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    private static class PromotionRowMapper implements RowMapper<Promotion> {
+        @Override
+        public Promotion mapRow(ResultSet rs, int rowNum) throws SQLException {
+            Long productId = rs.getObject("product_id", Long.class);
+            return new Promotion(
+                    rs.getLong("id"),
+                    Promotion.Type.valueOf(rs.getString("type")),
+                    productId,
+                    rs.getInt("percent"),
+                    rs.getInt("buy_quantity"),
+                    rs.getInt("free_quantity"),
+                    rs.getInt("min_spend"),
+                    rs.getInt("discount_amount"),
+                    toInstant(rs.getTimestamp("starts_at")),
+                    toInstant(rs.getTimestamp("ends_at"))
+            );
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package cart.domain;
+
+public class CartDiscount {
+    private final long[] lineDiscounts;
+    private final long subtotal;
+    private final long itemDiscount;
+    private final long cartDiscount;
+
+    public CartDiscount(long[] lineDiscounts, long subtotal, long itemDiscount, long cartDiscount) {
+        this.lineDiscounts = lineDiscounts;
+        this.subtotal = subtotal;
+        this.itemDiscount = itemDiscount;
+        this.cartDiscount = cartDiscount;
+    }
+
+    public long getLineDiscount(int index) {
+        return lineDiscounts[index];
+    }
+
+    public long getSubtotal() {
+        return subtotal;
+    }
+
+    public long getItemDiscount() {
+        return itemDiscount;
+    }
+
+    public long getCartDiscount() {
+        return cartDiscount;
+    }
+
+    public long getTotal() {
+        return subtotal - itemDiscount - cartDiscount;
+    }
+}
@@ -0,0 +1,43 @@
+package cart.domain;
+
+import java.time.Instant;
+
+public class CartEvent {
+    private final Long memberId;
+    private final Long productId;
+    private final Type type;
+    private final int quantity;
+    private final Instant occurredAt;
+
+    public CartEvent(Long memberId, Long productId, Type type, int quantity, Instant occurredAt) {
+        this.memberId = memberId;
+        this.productId = productId;
+        this.type = type;
+        this.quantity = quantity;
+        this.occurredAt = occurredAt;
+    }
+
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public enum Type {
+        ADDED, QUANTITY_CHANGED, REMOVED
+    }
+}
@@ -0,0 +1,65 @@
+package cart.domain;
+
+import cart.exception.GuestCartException;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class GuestCart {
+    public static final int MAX_ITEMS = 50;
+    public static final int MAX_QUANTITY = 99;
+    public static final Duration MAX_AGE = Duration.ofDays(30);
+
+    private final Map<Long, Integer> quantities;
+    private final String nonce;
+
+    public GuestCart() {
+        this(new LinkedHashMap<>(), null);
+    }
+
+    /**
+     * nonce 는 이 장바구니를 담아 온 쿠키 하나를 가리킨다. 쿠키에서 읽지 않은 장바구니는 null 이다.
+     */
+    public GuestCart(Map<Long, Integer> quantities, String nonce) {
+        this.quantities = new LinkedHashMap<>(quantities);
+        this.nonce = nonce;
+    }
+
+    public void add(Long productId) {
+        if (!quantities.containsKey(productId) && quantities.size() >= MAX_ITEMS) {
+            throw new GuestCartException.TooManyItems(MAX_ITEMS);
+        }
+        quantities.merge(productId, 1, (current, added) -> Math.min(current + added, MAX_QUANTITY));
+    }
+
+    public void changeQuantity(Long productId, int quantity) {
+        if (!quantities.containsKey(productId)) {
+            throw new GuestCartException.ItemNotFound(productId);
+        }
+        if (quantity <= 0) {
+            quantities.remove(productId);
+            return;
+        }
+        quantities.put(productId, Math.min(quantity, MAX_QUANTITY));
+    }
+
+    public void remove(Long productId) {
+        if (quantities.remove(productId) == null) {
+            throw new GuestCartException.ItemNotFound(productId);
+        }
+    }
+
+    public Map<Long, Integer> getQuantities() {
+        return Collections.unmodifiableMap(quantities);
+    }
+
+    public String getNonce() {
+        return nonce;
+    }
+
+    public boolean isEmpty() {
+        return quantities.isEmpty();
+    }
+}
@@ -0,0 +1,37 @@
+package cart.domain;
+
+import cart.exception.ProductException;
+
+public class PriceAdjustment {
+    private static final int MIN_PERCENT = -100;
+
+    private final Type type;
+    private final int value;
+
+    public PriceAdjustment(Type type, int value) {
+        if (type == null) {
+            throw new ProductException.InvalidPriceUpdate("adjustment type is required");
+        }
+        if (type == Type.PERCENT && value < MIN_PERCENT) {
+            throw new ProductException.InvalidPriceUpdate("percent adjustment must be at least " + MIN_PERCENT + "; value=" + value);
+        }
+        this.type = type;
+        this.value = value;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public boolean raisesPrices() {
+        return value > 0;
+    }
+
+    public enum Type {
+        PERCENT, AMOUNT
+    }
+}
@@ -0,0 +1,62 @@
+package cart.domain;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 로컬에 저장한 상품 이미지. 파일 이름은 원본 내용의 SHA-256 이므로 같은 이름의 내용은 바뀌지 않는다.
+ */
+public class ProductImage {
+    public static final String URL_PREFIX = "/images/";
+    private static final String THUMBNAIL_SUFFIX = "-thumb";
+    private static final Pattern FILE_NAME = Pattern.compile("([0-9a-f]{64})(" + THUMBNAIL_SUFFIX + ")?\\.(png|jpg)");
+
+    private final String hash;
+    private final String extension;
+
+    public ProductImage(String hash, String extension) {
+        this.hash = hash;
+        this.extension = extension;
+    }
+
+    /**
+     * 저장소가 만든 원본 또는 썸네일 파일 이름인지 확인한다. 경로 문자가 들어간 이름은 모두 거절된다.
+     */
+    public static boolean isFileName(String fileName) {
+        return FILE_NAME.matcher(fileName).matches();
+    }
+
+    /**
+     * 로컬 이미지면 썸네일 URL 을, 외부 URL 이면 원래 URL 을 돌려준다.
+     */
+    public static String thumbnailUrlOf(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(URL_PREFIX)) {
+            return imageUrl;
+        }
+        Matcher matcher = FILE_NAME.matcher(imageUrl.substring(URL_PREFIX.length()));
+        if (!matcher.matches() || matcher.group(2) != null) {
+            return imageUrl;
+        }
+        return new ProductImage(matcher.group(1), matcher.group(3)).getThumbnailUrl();
+    }
+
+    public String getFileName() {
+        return hash + "." + extension;
+    }
+
+    public String getThumbnailFileName() {
+        return hash + THUMBNAIL_SUFFIX + "." + extension;
+    }
+
+    public String getUrl() {
+        return URL_PREFIX + getFileName();
+    }
+
+    public String getThumbnailUrl() {
+        return URL_PREFIX + getThumbnailFileName();
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
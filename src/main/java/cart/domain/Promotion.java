@@ -0,0 +1,118 @@
+package cart.domain;
+
+import cart.exception.PromotionException;
+
+import java.time.Instant;
+
+/**
+ * 할인 규칙 하나. 종류에 따라 쓰는 값이 다르다.
+ * PERCENT_OFF 는 product_id 상품(비어 있으면 모든 상품)을 percent 만큼 할인하고,
+ * BUY_X_GET_Y 는 product_id 상품을 buy_quantity 개 살 때마다 free_quantity 개를 무료로 주며,
+ * MIN_SPEND 는 상품 할인 후 합계가 min_spend 이상이면 discount_amount 를 뺀다.
+ */
+public class Promotion {
+    private final Long id;
+    private final Type type;
+    private final Long productId;
+    private final int percent;
+    private final int buyQuantity;
+    private final int freeQuantity;
+    private final int minSpend;
+    private final int discountAmount;
+    private final Instant startsAt;
+    private final Instant endsAt;
+
+    public Promotion(Long id, Type type, Long productId, int percent, int buyQuantity, int freeQuantity,
+                     int minSpend, int discountAmount, Instant startsAt, Instant endsAt) {
+        validate(type, productId, percent, buyQuantity, freeQuantity, minSpend, discountAmount, startsAt, endsAt);
+        this.id = id;
+        this.type = type;
+        this.productId = productId;
+        this.percent = percent;
+        this.buyQuantity = buyQuantity;
+        this.freeQuantity = freeQuantity;
+        this.minSpend = minSpend;
+        this.discountAmount = discountAmount;
+        this.startsAt = startsAt;
+        this.endsAt = endsAt;
+    }
+
+    public static Promotion percentOff(Long productId, int percent) {
+        return new Promotion(null, Type.PERCENT_OFF, productId, percent, 0, 0, 0, 0, null, null);
+    }
+
+    public static Promotion buyXGetY(Long productId, int buyQuantity, int freeQuantity) {
+        return new Promotion(null, Type.BUY_X_GET_Y, productId, 0, buyQuantity, freeQuantity, 0, 0, null, null);
+    }
+
+    public static Promotion minSpend(int minSpend, int discountAmount) {
+        return new Promotion(null, Type.MIN_SPEND, null, 0, 0, 0, minSpend, discountAmount, null, null);
+    }
+
+    private static void validate(Type type, Long productId, int percent, int buyQuantity, int freeQuantity,
+                                 int minSpend, int discountAmount, Instant startsAt, Instant endsAt) {
+        if (type == null) {
+            throw new PromotionException.InvalidPromotion("type is required");
+        }
+        if (type == Type.PERCENT_OFF && (percent <= 0 || percent > 100)) {
+            throw new PromotionException.InvalidPromotion("percent must be between 1 and 100; percent=" + percent);
+        }
+        if (type == Type.BUY_X_GET_Y && (productId == null || buyQuantity <= 0 || freeQuantity <= 0)) {
+            throw new PromotionException.InvalidPromotion("buy-x-get-y needs a product and positive quantities");
+        }
+        if (type == Type.MIN_SPEND && (minSpend < 0 || discountAmount <= 0)) {
+            throw new PromotionException.InvalidPromotion("min-spend needs a positive discount amount");
+        }
+        if (startsAt != null && endsAt != null && !startsAt.isBefore(endsAt)) {
+            throw new PromotionException.InvalidPromotion("startsAt must be before endsAt");
+        }
+    }
+
+    public boolean isActiveAt(Instant now) {
+        return (startsAt == null || !now.isBefore(startsAt)) && (endsAt == null || now.isBefore(endsAt));
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getPercent() {
+        return percent;
+    }
+
+    public int getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    public int getFreeQuantity() {
+        return freeQuantity;
+    }
+
+    public int getMinSpend() {
+        return minSpend;
+    }
+
+    public int getDiscountAmount() {
+        return discountAmount;
+    }
+
+    public Instant getStartsAt() {
+        return startsAt;
+    }
+
+    public Instant getEndsAt() {
+        return endsAt;
+    }
+
+    public enum Type {
+        PERCENT_OFF, BUY_X_GET_Y, MIN_SPEND
+    }
+}
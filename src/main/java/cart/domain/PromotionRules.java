@@ -0,0 +1,184 @@
+package cart.domain;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 현재 유효한 할인 규칙을 장바구니에 바로 적용할 수 있는 형태로 미리 계산해 둔 불변 객체.
+ * 상품별 규칙은 정렬된 상품 id 배열과 같은 순서의 값 배열로 두어 이진 탐색 한 번으로 찾고,
+ * 최소 주문 금액 규칙은 금액 오름차순으로 두어 조건을 만족하는 가장 큰 할인을 바로 고른다.
+ * 한 상품에 여러 규칙이 있으면 할인액이 가장 큰 하나만 적용한다.
+ */
+public final class PromotionRules {
+    public static final PromotionRules EMPTY = compile(List.of(), Instant.EPOCH);
+
+    private final long[] productIds;
+    private final int[] percents;
+    private final int[] buyQuantities;
+    private final int[] freeQuantities;
+    private final int globalPercent;
+    private final int[] minSpends;
+    private final int[] minSpendDiscounts;
+    private final Instant validUntil;
+
+    private PromotionRules(long[] productIds, int[] percents, int[] buyQuantities, int[] freeQuantities, int globalPercent,
+                           int[] minSpends, int[] minSpendDiscounts, Instant validUntil) {
+        this.productIds = productIds;
+        this.percents = percents;
+        this.buyQuantities = buyQuantities;
+        this.freeQuantities = freeQuantities;
+        this.globalPercent = globalPercent;
+        this.minSpends = minSpends;
+        this.minSpendDiscounts = minSpendDiscounts;
+        this.validUntil = validUntil;
+    }
+
+    /**
+     * now 시점에 유효한 규칙만 모은다. 다음에 시작하거나 끝나는 규칙이 있으면 그 시각까지만 유효하다.
+     */
+    public static PromotionRules compile(Collection<Promotion> promotions, Instant now) {
+        Map<Long, int[]> productRules = new TreeMap<>();
+        Map<Integer, Integer> minSpendRules = new TreeMap<>();
+        int globalPercent = 0;
+        Instant validUntil = null;
+
+        for (Promotion promotion : promotions) {
+            validUntil = earlier(validUntil, nextBoundary(promotion, now));
+            if (!promotion.isActiveAt(now)) {
+                continue;
+            }
+            switch (promotion.getType()) {
+                case PERCENT_OFF:
+                    if (promotion.getProductId() == null) {
+                        globalPercent = Math.max(globalPercent, promotion.getPercent());
+                    } else {
+                        int[] rule = productRules.computeIfAbsent(promotion.getProductId(), id -> new int[3]);
+                        rule[0] = Math.max(rule[0], promotion.getPercent());
+                    }
+                    break;
+                case BUY_X_GET_Y:
+                    int[] bundleRule = productRules.computeIfAbsent(promotion.getProductId(), id -> new int[3]);
+                    if (isMoreGenerous(promotion.getBuyQuantity(), promotion.getFreeQuantity(), bundleRule[1], bundleRule[2])) {
+                        bundleRule[1] = promotion.getBuyQuantity();
+                        bundleRule[2] = promotion.getFreeQuantity();
+                    }
+                    break;
+                case MIN_SPEND:
+                    minSpendRules.merge(promotion.getMinSpend(), promotion.getDiscountAmount(), Math::max);
+                    break;
+            }
+        }
+
+        int size = productRules.size();
+        long[] productIds = new long[size];
+        int[] percents = new int[size];
+        int[] buyQuantities = new int[size];
+        int[] freeQuantities = new int[size];
+        int index = 0;
+        for (Map.Entry<Long, int[]> entry : productRules.entrySet()) {
+            productIds[index] = entry.getKey();
+            percents[index] = entry.getValue()[0];
+            buyQuantities[index] = entry.getValue()[1];
+            freeQuantities[index] = entry.getValue()[2];
+            index++;
+        }
+
+        int[] minSpends = new int[minSpendRules.size()];
+        int[] minSpendDiscounts = new int[minSpendRules.size()];
+        index = 0;
+        int bestDiscount = 0;
+        for (Map.Entry<Integer, Integer> entry : minSpendRules.entrySet()) {
+            bestDiscount = Math.max(bestDiscount, entry.getValue());
+            minSpends[index] = entry.getKey();
+            minSpendDiscounts[index] = bestDiscount;
+            index++;
+        }
+
+        return new PromotionRules(productIds, percents, buyQuantities, freeQuantities, globalPercent,
+                minSpends, minSpendDiscounts, validUntil);
+    }
+
+    public CartDiscount apply(List<CartItem> cartItems) {
+        long[] lineDiscounts = new long[cartItems.size()];
+        long subtotal = 0;
+        long itemDiscount = 0;
+
+        for (int i = 0; i < lineDiscounts.length; i++) {
+            CartItem cartItem = cartItems.get(i);
+            Product product = cartItem.getProduct();
+            int quantity = cartItem.getQuantity();
+            long lineTotal = (long) product.getPrice() * quantity;
+            subtotal += lineTotal;
+
+            int percent = globalPercent;
+            int slot = productIds.length == 0 ? -1 : Arrays.binarySearch(productIds, product.getId());
+            long discount;
+            if (slot < 0) {
+                discount = lineTotal * percent / 100;
+            } else {
+                discount = lineTotal * Math.max(percent, percents[slot]) / 100;
+                int buyQuantity = buyQuantities[slot];
+                if (buyQuantity > 0) {
+                    int freeQuantity = freeQuantities[slot];
+                    long freeItems = (long) quantity / (buyQuantity + freeQuantity) * freeQuantity;
+                    discount = Math.max(discount, freeItems * product.getPrice());
+                }
+            }
+            lineDiscounts[i] = discount;
+            itemDiscount += discount;
+        }
+
+        long discountedSubtotal = subtotal - itemDiscount;
+        long cartDiscount = Math.min(minSpendDiscount(discountedSubtotal), discountedSubtotal);
+        return new CartDiscount(lineDiscounts, subtotal, itemDiscount, cartDiscount);
+    }
+
+    public boolean isValidAt(Instant now) {
+        return validUntil == null || now.isBefore(validUntil);
+    }
+
+    private long minSpendDiscount(long amount) {
+        int low = 0;
+        int high = minSpends.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (minSpends[middle] <= amount) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found < 0 ? 0 : minSpendDiscounts[found];
+    }
+
+    private static boolean isMoreGenerous(int buyQuantity, int freeQuantity, int currentBuyQuantity, int currentFreeQuantity) {
+        if (currentBuyQuantity == 0) {
+            return true;
+        }
+        return (long) freeQuantity * (currentBuyQuantity + currentFreeQuantity)
+                > (long) currentFreeQuantity * (buyQuantity + freeQuantity);
+    }
+
+    private static Instant nextBoundary(Promotion promotion, Instant now) {
+        if (promotion.getStartsAt() != null && promotion.getStartsAt().isAfter(now)) {
+            return promotion.getStartsAt();
+        }
+        if (promotion.getEndsAt() != null && promotion.getEndsAt().isAfter(now)) {
+            return promotion.getEndsAt();
+        }
+        return null;
+    }
+
+    private static Instant earlier(Instant first, Instant second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null || first.isBefore(second) ? first : second;
+    }
+}
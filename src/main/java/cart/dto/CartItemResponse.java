@@ -6,18 +6,25 @@ public class CartItemResponse {
     private Long id;
     private int quantity;
     private ProductResponse product;
+    private long discount;
 
-    private CartItemResponse(Long id, int quantity, ProductResponse product) {
+    private CartItemResponse(Long id, int quantity, ProductResponse product, long discount) {
         this.id = id;
         this.quantity = quantity;
         this.product = product;
+        this.discount = discount;
     }
 
     public static CartItemResponse of(CartItem cartItem) {
+        return of(cartItem, 0);
+    }
+
+    public static CartItemResponse of(CartItem cartItem, long discount) {
         return new CartItemResponse(
                 cartItem.getId(),
                 cartItem.getQuantity(),
-                ProductResponse.of(cartItem.getProduct())
+                ProductResponse.of(cartItem.getProduct()),
+                discount
         );
     }
 
@@ -32,4 +39,8 @@ public class CartItemResponse {
     public ProductResponse getProduct() {
         return product;
     }
+
+    public long getDiscount() {
+        return discount;
+    }
 }
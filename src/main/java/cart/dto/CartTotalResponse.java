@@ -0,0 +1,41 @@
+package cart.dto;
+
+import cart.domain.CartDiscount;
+
+public class CartTotalResponse {
+    private long subtotal;
+    private long itemDiscount;
+    private long cartDiscount;
+    private long total;
+
+    public CartTotalResponse() {
+    }
+
+    private CartTotalResponse(long subtotal, long itemDiscount, long cartDiscount, long total) {
+        this.subtotal = subtotal;
+        this.itemDiscount = itemDiscount;
+        this.cartDiscount = cartDiscount;
+        this.total = total;
+    }
+
+    public static CartTotalResponse of(CartDiscount cartDiscount) {
+        return new CartTotalResponse(cartDiscount.getSubtotal(), cartDiscount.getItemDiscount(),
+                cartDiscount.getCartDiscount(), cartDiscount.getTotal());
+    }
+
+    public long getSubtotal() {
+        return subtotal;
+    }
+
+    public long getItemDiscount() {
+        return itemDiscount;
+    }
+
+    public long getCartDiscount() {
+        return cartDiscount;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,30 @@
+package cart.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class CompositeOperationRequest {
+    private String method;
+    private String path;
+    private JsonNode body;
+
+    public CompositeOperationRequest() {
+    }
+
+    public CompositeOperationRequest(String method, String path, JsonNode body) {
+        this.method = method;
+        this.path = path;
+        this.body = body;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public JsonNode getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,24 @@
+package cart.dto;
+
+import java.util.List;
+
+public class CompositeRequest {
+    private boolean transactional;
+    private List<CompositeOperationRequest> operations;
+
+    public CompositeRequest() {
+    }
+
+    public CompositeRequest(boolean transactional, List<CompositeOperationRequest> operations) {
+        this.transactional = transactional;
+        this.operations = operations;
+    }
+
+    public boolean isTransactional() {
+        return transactional;
+    }
+
+    public List<CompositeOperationRequest> getOperations() {
+        return operations;
+    }
+}
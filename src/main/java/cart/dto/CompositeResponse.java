@@ -0,0 +1,24 @@
+package cart.dto;
+
+import java.util.List;
+
+public class CompositeResponse {
+    private boolean rolledBack;
+    private List<CompositeResultResponse> results;
+
+    public CompositeResponse() {
+    }
+
+    public CompositeResponse(boolean rolledBack, List<CompositeResultResponse> results) {
+        this.rolledBack = rolledBack;
+        this.results = results;
+    }
+
+    public boolean isRolledBack() {
+        return rolledBack;
+    }
+
+    public List<CompositeResultResponse> getResults() {
+        return results;
+    }
+}
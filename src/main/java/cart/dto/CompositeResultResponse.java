@@ -0,0 +1,52 @@
+package cart.dto;
+
+public class CompositeResultResponse {
+    private int status;
+    private String location;
+    private Object body;
+    private boolean stale;
+    private Long age;
+
+    public CompositeResultResponse() {
+    }
+
+    public CompositeResultResponse(int status, String location, Object body) {
+        this(status, location, body, false, null);
+    }
+
+    /**
+     * stale 이면 DB 장애로 마지막으로 성공했던 조회 결과를 돌려준 것이고, age 는 그 결과를 읽은 뒤 지난 초다.
+     * 따로 호출했을 때의 Age 와 Warning 헤더에 해당한다.
+     */
+    public CompositeResultResponse(int status, String location, Object body, boolean stale, Long age) {
+        this.status = status;
+        this.location = location;
+        this.body = body;
+        this.stale = stale;
+        this.age = age;
+    }
+
+    public static CompositeResultResponse of(int status) {
+        return new CompositeResultResponse(status, null, null);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public Object getBody() {
+        return body;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public Long getAge() {
+        return age;
+    }
+}
@@ -0,0 +1,56 @@
+package cart.dto;
+
+import cart.domain.Product;
+
+public class ProductChangeEvent {
+    private final long sequence;
+    private final Kind kind;
+    private final Long id;
+    private final String name;
+    private final Integer price;
+    private final String imageUrl;
+
+    private ProductChangeEvent(long sequence, Kind kind, Long id, String name, Integer price, String imageUrl) {
+        this.sequence = sequence;
+        this.kind = kind;
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.imageUrl = imageUrl;
+    }
+
+    public static ProductChangeEvent of(long sequence, Kind kind, Long productId, Product product) {
+        if (product == null) {
+            return new ProductChangeEvent(sequence, kind, productId, null, null, null);
+        }
+        return new ProductChangeEvent(sequence, kind, productId, product.getName(), product.getPrice(), product.getImageUrl());
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Integer getPrice() {
+        return price;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public enum Kind {
+        CREATED, UPDATED, DELETED, PRICES_CHANGED
+    }
+}
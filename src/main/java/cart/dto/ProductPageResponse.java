@@ -0,0 +1,26 @@
+package cart.dto;
+
+import java.util.List;
+
+public class ProductPageResponse {
+    private List<ProductResponse> products;
+    private Long nextCursor;
+
+    private ProductPageResponse(List<ProductResponse> products, Long nextCursor) {
+        this.products = products;
+        this.nextCursor = nextCursor;
+    }
+
+    public static ProductPageResponse of(List<ProductResponse> products, boolean hasNext) {
+        Long nextCursor = hasNext ? products.get(products.size() - 1).getId() : null;
+        return new ProductPageResponse(products, nextCursor);
+    }
+
+    public List<ProductResponse> getProducts() {
+        return products;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,45 @@
+package cart.dto;
+
+import cart.domain.PriceAdjustment;
+
+import java.util.List;
+
+public class ProductPriceUpdateRequest {
+    private List<Long> productIds;
+    private Integer minPrice;
+    private Integer maxPrice;
+    private PriceAdjustment.Type adjustmentType;
+    private int adjustmentValue;
+
+    public ProductPriceUpdateRequest() {
+    }
+
+    public ProductPriceUpdateRequest(List<Long> productIds, Integer minPrice, Integer maxPrice,
+                                     PriceAdjustment.Type adjustmentType, int adjustmentValue) {
+        this.productIds = productIds;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.adjustmentType = adjustmentType;
+        this.adjustmentValue = adjustmentValue;
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+
+    public Integer getMinPrice() {
+        return minPrice;
+    }
+
+    public Integer getMaxPrice() {
+        return maxPrice;
+    }
+
+    public PriceAdjustment.Type getAdjustmentType() {
+        return adjustmentType;
+    }
+
+    public int getAdjustmentValue() {
+        return adjustmentValue;
+    }
+}
@@ -0,0 +1,16 @@
+package cart.dto;
+
+public class ProductPriceUpdateResponse {
+    private int updatedCount;
+
+    public ProductPriceUpdateResponse() {
+    }
+
+    public ProductPriceUpdateResponse(int updatedCount) {
+        this.updatedCount = updatedCount;
+    }
+
+    public int getUpdatedCount() {
+        return updatedCount;
+    }
+}
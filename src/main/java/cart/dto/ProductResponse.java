@@ -1,22 +1,26 @@
 package cart.dto;
 
 import cart.domain.Product;
+import cart.domain.ProductImage;
 
 public class ProductResponse {
     private Long id;
     private String name;
     private int price;
     private String imageUrl;
+    private String thumbnailUrl;
 
-    private ProductResponse(Long id, String name, int price, String imageUrl) {
+    private ProductResponse(Long id, String name, int price, String imageUrl, String thumbnailUrl) {
         this.id = id;
         this.name = name;
         this.price = price;
         this.imageUrl = imageUrl;
+        this.thumbnailUrl = thumbnailUrl;
     }
 
     public static ProductResponse of(Product product) {
-        return new ProductResponse(product.getId(), product.getName(), product.getPrice(), product.getImageUrl());
+        return new ProductResponse(product.getId(), product.getName(), product.getPrice(), product.getImageUrl(),
+                ProductImage.thumbnailUrlOf(product.getImageUrl()));
     }
 
     public Long getId() {
@@ -34,4 +38,8 @@ public class ProductResponse {
     public String getImageUrl() {
         return imageUrl;
     }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
 }
@@ -0,0 +1,69 @@
+package cart.dto;
+
+import cart.domain.Promotion;
+
+import java.time.Instant;
+
+public class PromotionRequest {
+    private Promotion.Type type;
+    private Long productId;
+    private int percent;
+    private int buyQuantity;
+    private int freeQuantity;
+    private int minSpend;
+    private int discountAmount;
+    private Instant startsAt;
+    private Instant endsAt;
+
+    public PromotionRequest() {
+    }
+
+    public PromotionRequest(Promotion.Type type, Long productId, int percent, int buyQuantity, int freeQuantity,
+                            int minSpend, int discountAmount, Instant startsAt, Instant endsAt) {
+        this.type = type;
+        this.productId = productId;
+        this.percent = percent;
+        this.buyQuantity = buyQuantity;
+        this.freeQuantity = freeQuantity;
+        this.minSpend = minSpend;
+        this.discountAmount = discountAmount;
+        this.startsAt = startsAt;
+        this.endsAt = endsAt;
+    }
+
+    public Promotion.Type getType() {
+        return type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getPercent() {
+        return percent;
+    }
+
+    public int getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    public int getFreeQuantity() {
+        return freeQuantity;
+    }
+
+    public int getMinSpend() {
+        return minSpend;
+    }
+
+    public int getDiscountAmount() {
+        return discountAmount;
+    }
+
+    public Instant getStartsAt() {
+        return startsAt;
+    }
+
+    public Instant getEndsAt() {
+        return endsAt;
+    }
+}
@@ -0,0 +1,19 @@
+package cart.dto;
+
+public class RelatedProductResponse {
+    private final Long productId;
+    private final int count;
+
+    public RelatedProductResponse(Long productId, int count) {
+        this.productId = productId;
+        this.count = count;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,77 @@
+package cart.dto;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+public class RouteLatencyResponse {
+    private static final double MICROS_PER_MILLI = 1_000.0;
+
+    private String route;
+    private long count;
+    private double errorRate;
+    private double p50Millis;
+    private double p95Millis;
+    private double p99Millis;
+    private double maxMillis;
+    private Map<String, Long> statusCounts;
+
+    private RouteLatencyResponse(String route, long count, double errorRate, double p50Millis, double p95Millis,
+                                 double p99Millis, double maxMillis, Map<String, Long> statusCounts) {
+        this.route = route;
+        this.count = count;
+        this.errorRate = errorRate;
+        this.p50Millis = p50Millis;
+        this.p95Millis = p95Millis;
+        this.p99Millis = p99Millis;
+        this.maxMillis = maxMillis;
+        this.statusCounts = statusCounts;
+    }
+
+    public static RouteLatencyResponse of(String route, Histogram micros, Map<String, Long> statusCounts) {
+        long count = micros.getTotalCount();
+        long errors = statusCounts.getOrDefault("5xx", 0L);
+        return new RouteLatencyResponse(
+                route,
+                count,
+                count == 0 ? 0 : (double) errors / count,
+                micros.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                micros.getValueAtPercentile(95) / MICROS_PER_MILLI,
+                micros.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                micros.getMaxValue() / MICROS_PER_MILLI,
+                statusCounts
+        );
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP95Millis() {
+        return p95Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public Map<String, Long> getStatusCounts() {
+        return statusCounts;
+    }
+}
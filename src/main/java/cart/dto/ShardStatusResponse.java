@@ -0,0 +1,49 @@
+package cart.dto;
+
+import java.util.List;
+
+public class ShardStatusResponse {
+    private int shardCount;
+    private List<Integer> activeShards;
+    private Integer joiningShard;
+    private String state;
+    private long scannedMembers;
+    private long movedMembers;
+
+    public ShardStatusResponse() {
+    }
+
+    public ShardStatusResponse(int shardCount, List<Integer> activeShards, Integer joiningShard, String state,
+                               long scannedMembers, long movedMembers) {
+        this.shardCount = shardCount;
+        this.activeShards = activeShards;
+        this.joiningShard = joiningShard;
+        this.state = state;
+        this.scannedMembers = scannedMembers;
+        this.movedMembers = movedMembers;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public List<Integer> getActiveShards() {
+        return activeShards;
+    }
+
+    public Integer getJoiningShard() {
+        return joiningShard;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public long getScannedMembers() {
+        return scannedMembers;
+    }
+
+    public long getMovedMembers() {
+        return movedMembers;
+    }
+}
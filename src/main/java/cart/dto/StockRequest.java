@@ -0,0 +1,16 @@
+package cart.dto;
+
+public class StockRequest {
+    private Integer stock;
+
+    public StockRequest() {
+    }
+
+    public StockRequest(Integer stock) {
+        this.stock = stock;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+}
@@ -0,0 +1,22 @@
+package cart.dto;
+
+public class StockResponse {
+    private Long productId;
+    private Integer stock;
+
+    public StockResponse() {
+    }
+
+    public StockResponse(Long productId, Integer stock) {
+        this.productId = productId;
+        this.stock = stock;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+}
@@ -0,0 +1,19 @@
+package cart.dto;
+
+public class TrendingProductResponse {
+    private final Long productId;
+    private final double score;
+
+    public TrendingProductResponse(Long productId, double score) {
+        this.productId = productId;
+        this.score = score;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
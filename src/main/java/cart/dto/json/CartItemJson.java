@@ -0,0 +1,100 @@
+package cart.dto.json;
+
+import cart.dto.CartItemQuantityUpdateRequest;
+import cart.dto.CartItemRequest;
+import cart.dto.CartItemResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * 장바구니 아이템 DTO 를 리플렉션 없이 스트리밍으로 읽고 쓴다. 안에 든 상품은 {@link ProductJson} 으로 바로 쓴다.
+ */
+@JsonComponent
+public class CartItemJson {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString QUANTITY = new SerializedString("quantity");
+    private static final SerializedString PRODUCT = new SerializedString("product");
+    private static final SerializedString DISCOUNT = new SerializedString("discount");
+
+    public static class Serializer extends JsonSerializer<CartItemResponse> {
+        @Override
+        public void serialize(CartItemResponse value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartObject(value);
+            gen.writeFieldName(ID);
+            JsonFields.writeNullableNumber(gen, value.getId());
+            gen.writeFieldName(QUANTITY);
+            gen.writeNumber(value.getQuantity());
+            gen.writeFieldName(PRODUCT);
+            if (value.getProduct() == null) {
+                gen.writeNull();
+            } else {
+                ProductJson.writeProduct(value.getProduct(), gen);
+            }
+            gen.writeFieldName(DISCOUNT);
+            gen.writeNumber(value.getDiscount());
+            gen.writeEndObject();
+        }
+
+        @Override
+        public Class<CartItemResponse> handledType() {
+            return CartItemResponse.class;
+        }
+    }
+
+    public static class RequestDeserializer extends JsonDeserializer<CartItemRequest> {
+        @Override
+        public CartItemRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonFields.requireObject(p, ctxt, CartItemRequest.class);
+            Long productId = null;
+
+            String field;
+            while ((field = p.nextFieldName()) != null) {
+                JsonToken token = p.nextToken();
+                if ("productId".equals(field)) {
+                    productId = JsonFields.readNullableLong(p, ctxt, token, CartItemRequest.class);
+                } else {
+                    p.skipChildren();
+                }
+            }
+            return new CartItemRequest(productId);
+        }
+
+        @Override
+        public Class<CartItemRequest> handledType() {
+            return CartItemRequest.class;
+        }
+    }
+
+    public static class QuantityUpdateRequestDeserializer extends JsonDeserializer<CartItemQuantityUpdateRequest> {
+        @Override
+        public CartItemQuantityUpdateRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonFields.requireObject(p, ctxt, CartItemQuantityUpdateRequest.class);
+            int quantity = 0;
+
+            String field;
+            while ((field = p.nextFieldName()) != null) {
+                JsonToken token = p.nextToken();
+                if ("quantity".equals(field)) {
+                    quantity = JsonFields.readInt(p, ctxt, token, CartItemQuantityUpdateRequest.class);
+                } else {
+                    p.skipChildren();
+                }
+            }
+            return new CartItemQuantityUpdateRequest(quantity);
+        }
+
+        @Override
+        public Class<CartItemQuantityUpdateRequest> handledType() {
+            return CartItemQuantityUpdateRequest.class;
+        }
+    }
+}
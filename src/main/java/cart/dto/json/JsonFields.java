@@ -0,0 +1,68 @@
+package cart.dto.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+import java.io.IOException;
+
+/**
+ * 직접 작성한 직렬화기들이 함께 쓰는 읽기/쓰기 도우미.
+ * 숫자 필드는 기본 데이터 바인딩처럼 숫자와 숫자 문자열을 받고, 그 밖의 값은 같은 종류의 예외로 거절한다.
+ */
+final class JsonFields {
+    private JsonFields() {
+    }
+
+    static void writeNullableNumber(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    static void requireObject(JsonParser p, DeserializationContext ctxt, Class<?> type) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            ctxt.handleUnexpectedToken(type, p);
+        }
+    }
+
+    static String readNullableString(JsonParser p, DeserializationContext ctxt, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isScalarValue()) {
+            return p.getValueAsString();
+        }
+        return (String) ctxt.handleUnexpectedToken(String.class, p);
+    }
+
+    static int readInt(JsonParser p, DeserializationContext ctxt, JsonToken token, Class<?> type) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return p.getValueAsInt();
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return 0;
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            Integer value = ctxt.readValue(p, Integer.class);
+            return value == null ? 0 : value;
+        }
+        return (Integer) ctxt.handleUnexpectedToken(type, p);
+    }
+
+    static Long readNullableLong(JsonParser p, DeserializationContext ctxt, JsonToken token, Class<?> type) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return p.getValueAsLong();
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            return ctxt.readValue(p, Long.class);
+        }
+        return (Long) ctxt.handleUnexpectedToken(type, p);
+    }
+}
@@ -0,0 +1,89 @@
+package cart.dto.json;
+
+import cart.dto.ProductRequest;
+import cart.dto.ProductResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * 상품 DTO 를 리플렉션 없이 스트리밍으로 읽고 쓴다.
+ * 필드 이름은 미리 인코딩해 두고, 출력은 기본 ObjectMapper 의 결과와 바이트 단위로 같다.
+ */
+@JsonComponent
+public class ProductJson {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString PRICE = new SerializedString("price");
+    private static final SerializedString IMAGE_URL = new SerializedString("imageUrl");
+    private static final SerializedString THUMBNAIL_URL = new SerializedString("thumbnailUrl");
+
+    static void writeProduct(ProductResponse product, JsonGenerator gen) throws IOException {
+        gen.writeStartObject(product);
+        gen.writeFieldName(ID);
+        JsonFields.writeNullableNumber(gen, product.getId());
+        gen.writeFieldName(NAME);
+        gen.writeString(product.getName());
+        gen.writeFieldName(PRICE);
+        gen.writeNumber(product.getPrice());
+        gen.writeFieldName(IMAGE_URL);
+        gen.writeString(product.getImageUrl());
+        gen.writeFieldName(THUMBNAIL_URL);
+        gen.writeString(product.getThumbnailUrl());
+        gen.writeEndObject();
+    }
+
+    public static class Serializer extends JsonSerializer<ProductResponse> {
+        @Override
+        public void serialize(ProductResponse value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            writeProduct(value, gen);
+        }
+
+        @Override
+        public Class<ProductResponse> handledType() {
+            return ProductResponse.class;
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<ProductRequest> {
+        @Override
+        public ProductRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonFields.requireObject(p, ctxt, ProductRequest.class);
+            String name = null;
+            int price = 0;
+            String imageUrl = null;
+
+            String field;
+            while ((field = p.nextFieldName()) != null) {
+                JsonToken token = p.nextToken();
+                switch (field) {
+                    case "name":
+                        name = JsonFields.readNullableString(p, ctxt, token);
+                        break;
+                    case "price":
+                        price = JsonFields.readInt(p, ctxt, token, ProductRequest.class);
+                        break;
+                    case "imageUrl":
+                        imageUrl = JsonFields.readNullableString(p, ctxt, token);
+                        break;
+                    default:
+                        p.skipChildren();
+                }
+            }
+            return new ProductRequest(name, price, imageUrl);
+        }
+
+        @Override
+        public Class<ProductRequest> handledType() {
+            return ProductRequest.class;
+        }
+    }
+}
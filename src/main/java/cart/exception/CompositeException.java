@@ -0,0 +1,25 @@
+package cart.exception;
+
+public class CompositeException extends RuntimeException {
+    public CompositeException(String message) {
+        super(message);
+    }
+
+    public static class TooManyOperations extends CompositeException {
+        public TooManyOperations(int maxOperations) {
+            super("Composite request cannot hold more than " + maxOperations + " operations");
+        }
+    }
+
+    public static class UnsupportedOperation extends CompositeException {
+        public UnsupportedOperation(String method, String path) {
+            super("Operation is not supported in a composite request; method=" + method + ", path=" + path);
+        }
+    }
+
+    public static class InvalidBody extends CompositeException {
+        public InvalidBody(String method, String path) {
+            super("Operation body cannot be read; method=" + method + ", path=" + path);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package cart.exception;
+
+public class GuestCartException extends RuntimeException {
+    public GuestCartException(String message) {
+        super(message);
+    }
+
+    public static class TooManyItems extends GuestCartException {
+        public TooManyItems(int maxItems) {
+            super("Guest cart cannot hold more than " + maxItems + " products");
+        }
+    }
+
+    public static class ItemNotFound extends GuestCartException {
+        public ItemNotFound(Long productId) {
+            super("Product is not in the guest cart; productId=" + productId);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package cart.exception;
+
+public class InventoryException extends RuntimeException {
+    public InventoryException(String message) {
+        super(message);
+    }
+
+    public static class OutOfStock extends InventoryException {
+        public OutOfStock(Long productId, int quantity) {
+            super("Not enough stock; productId=" + productId + ", quantity=" + quantity);
+        }
+    }
+
+    public static class InvalidStock extends InventoryException {
+        public InvalidStock(Integer stock) {
+            super("Stock must be empty (unlimited) or not negative; stock=" + stock);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package cart.exception;
+
+public class OverloadException extends RuntimeException {
+    public OverloadException(String message) {
+        super(message);
+    }
+
+    public static class LimitExceeded extends OverloadException {
+        public LimitExceeded(String priority, int limit) {
+            super("Too many concurrent requests; priority=" + priority + ", limit=" + limit);
+        }
+    }
+
+    public static class TooManyImageDecodes extends OverloadException {
+        public TooManyImageDecodes(int limit) {
+            super("Too many concurrent image decodes; limit=" + limit);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package cart.exception;
+
+public class ProductException extends RuntimeException {
+    public ProductException(String message) {
+        super(message);
+    }
+
+    public static class InvalidPriceUpdate extends ProductException {
+        public InvalidPriceUpdate(String reason) {
+            super("Invalid bulk price update; " + reason);
+        }
+    }
+
+    public static class CatalogUnavailable extends ProductException {
+        public CatalogUnavailable() {
+            super("Product catalog is temporarily unavailable");
+        }
+    }
+
+    public static class InvalidImage extends ProductException {
+        public InvalidImage(String reason) {
+            super("Invalid product image; " + reason);
+        }
+    }
+
+    public static class ImageNotFound extends ProductException {
+        public ImageNotFound(String fileName) {
+            super("Product image not found; fileName=" + fileName);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package cart.exception;
+
+public class PromotionException extends RuntimeException {
+    public PromotionException(String message) {
+        super(message);
+    }
+
+    public static class InvalidPromotion extends PromotionException {
+        public InvalidPromotion(String reason) {
+            super("Invalid promotion; " + reason);
+        }
+    }
+}
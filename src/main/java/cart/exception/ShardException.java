@@ -0,0 +1,19 @@
+package cart.exception;
+
+public class ShardException extends RuntimeException {
+    public ShardException(String message) {
+        super(message);
+    }
+
+    public static class InvalidShard extends ShardException {
+        public InvalidShard(int shard) {
+            super("Shard is not a configured inactive shard; shard=" + shard);
+        }
+    }
+
+    public static class RebalanceInProgress extends ShardException {
+        public RebalanceInProgress(int joiningShard) {
+            super("Cart shards are already being rebalanced; joiningShard=" + joiningShard);
+        }
+    }
+}
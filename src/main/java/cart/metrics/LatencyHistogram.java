@@ -0,0 +1,39 @@
+package cart.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * 기록은 HdrHistogram {@link Recorder}로 락 없이 하고, 읽을 때만 구간 히스토그램을 모아
+ * 누적 값과 마지막으로 읽은 이후의 값(window)을 함께 갱신한다.
+ */
+public class LatencyHistogram {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram cumulative = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram window = new Histogram(SIGNIFICANT_DIGITS);
+    private Histogram interval;
+
+    public void recordMicros(long micros) {
+        recorder.recordValue(Math.max(0, micros));
+    }
+
+    public synchronized Histogram cumulativeSnapshot() {
+        collect();
+        return cumulative.copy();
+    }
+
+    public synchronized Histogram drainWindow() {
+        collect();
+        Histogram snapshot = window.copy();
+        window.reset();
+        return snapshot;
+    }
+
+    private void collect() {
+        interval = recorder.getIntervalHistogram(interval);
+        cumulative.add(interval);
+        window.add(interval);
+    }
+}
@@ -0,0 +1,6 @@
+package cart.metrics;
+
+public interface MetricsSource {
+
+    void writePrometheus(StringBuilder out);
+}
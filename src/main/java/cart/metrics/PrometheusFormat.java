@@ -0,0 +1,38 @@
+package cart.metrics;
+
+import org.HdrHistogram.Histogram;
+
+public final class PrometheusFormat {
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+    private static final double MICROS_PER_SECOND = 1_000_000.0;
+
+    private PrometheusFormat() {
+    }
+
+    public static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    public static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    public static void summaryInSeconds(StringBuilder out, String name, String labels, Histogram micros, double sumMicros) {
+        String separator = labels.isEmpty() ? "" : ",";
+        for (double quantile : QUANTILES) {
+            sample(out, name, labels + separator + "quantile=\"" + quantile + "\"",
+                    micros.getValueAtPercentile(quantile * 100) / MICROS_PER_SECOND);
+        }
+        sample(out, name + "_count", labels, micros.getTotalCount());
+        sample(out, name + "_sum", labels, sumMicros / MICROS_PER_SECOND);
+    }
+
+    public static String label(String name, String value) {
+        return name + "=\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+}
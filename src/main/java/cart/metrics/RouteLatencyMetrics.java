@@ -0,0 +1,88 @@
+package cart.metrics;
+
+import cart.dto.RouteLatencyResponse;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class RouteLatencyMetrics implements MetricsSource {
+    private static final String METRIC_NAME = "http_server_requests_seconds";
+
+    private final Map<RouteKey, RouteStats> stats = new ConcurrentHashMap<>();
+
+    public void record(String method, String route, int status, long elapsedNanos) {
+        long micros = elapsedNanos / 1_000;
+        RouteStats routeStats = stats.computeIfAbsent(new RouteKey(method, route, statusClass(status)), key -> new RouteStats());
+        routeStats.histogram.recordMicros(micros);
+        routeStats.sumMicros.add(micros);
+    }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        PrometheusFormat.header(out, METRIC_NAME, "summary", "Request latency by route template and status class.");
+        stats.forEach((key, routeStats) -> PrometheusFormat.summaryInSeconds(out, METRIC_NAME,
+                PrometheusFormat.label("method", key.method) + ","
+                        + PrometheusFormat.label("route", key.route) + ","
+                        + PrometheusFormat.label("status", key.statusClass),
+                routeStats.histogram.cumulativeSnapshot(),
+                routeStats.sumMicros.sum()));
+    }
+
+    public List<RouteLatencyResponse> drainWindows() {
+        Map<String, Histogram> latencies = new LinkedHashMap<>();
+        Map<String, Map<String, Long>> statusCounts = new LinkedHashMap<>();
+
+        stats.forEach((key, routeStats) -> {
+            String route = key.method + " " + key.route;
+            Histogram window = routeStats.histogram.drainWindow();
+            latencies.computeIfAbsent(route, ignored -> new Histogram(3)).add(window);
+            statusCounts.computeIfAbsent(route, ignored -> new LinkedHashMap<>()).merge(key.statusClass, window.getTotalCount(), Long::sum);
+        });
+
+        List<RouteLatencyResponse> responses = new ArrayList<>();
+        latencies.forEach((route, histogram) -> responses.add(RouteLatencyResponse.of(route, histogram, statusCounts.get(route))));
+        return responses;
+    }
+
+    private static String statusClass(int status) {
+        return (status / 100) + "xx";
+    }
+
+    private static class RouteStats {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder sumMicros = new LongAdder();
+    }
+
+    private static class RouteKey {
+        private final String method;
+        private final String route;
+        private final String statusClass;
+
+        private RouteKey(String method, String route, String statusClass) {
+            this.method = method;
+            this.route = route;
+            this.statusClass = statusClass;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            RouteKey routeKey = (RouteKey) o;
+            return method.equals(routeKey.method) && route.equals(routeKey.route) && statusClass.equals(routeKey.statusClass);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, route, statusClass);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import cart.domain.Member;
 import cart.dto.CartItemQuantityUpdateRequest;
 import cart.dto.CartItemRequest;
 import cart.dto.CartItemResponse;
+import cart.dto.CartTotalResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -27,6 +28,11 @@ public class CartItemApiController {
         return ResponseEntity.ok(cartItemService.findByMember(member));
     }
 
+    @GetMapping("/total")
+    public ResponseEntity<CartTotalResponse> showCartTotal(Member member) {
+        return ResponseEntity.ok(cartItemService.getTotal(member));
+    }
+
     @PostMapping
     public ResponseEntity<Void> addCartItems(Member member, @RequestBody CartItemRequest cartItemRequest) {
         Long cartItemId = cartItemService.add(member, cartItemRequest);
@@ -0,0 +1,216 @@
+package cart.ui;
+
+import cart.application.CartItemService;
+import cart.application.ProductService;
+import cart.application.ReadResult;
+import cart.domain.Member;
+import cart.dto.CartItemQuantityUpdateRequest;
+import cart.dto.CartItemRequest;
+import cart.dto.CompositeOperationRequest;
+import cart.dto.CompositeRequest;
+import cart.dto.CompositeResponse;
+import cart.dto.CompositeResultResponse;
+import cart.exception.AuthenticationException;
+import cart.exception.CompositeException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 상품과 장바구니 API 호출 여러 개를 한 번의 요청으로 차례대로 실행한다. 인증은 요청마다 한 번만 한다.
+ * transactional 이면 모든 작업을 한 트랜잭션에서 실행하고, 하나라도 실패하면 모두 되돌린다.
+ * 장바구니 샤드를 따로 두면 샤드의 cart_item 변경은 이 트랜잭션에 묶이지 않는다.
+ * <p>
+ * 각 작업의 상태 코드는 같은 API 를 따로 호출했을 때와 같다. 예외는 ControllerExceptionHandler 의 매핑을 그대로 따른다.
+ * 상품 조회가 DB 장애로 오래된 값을 돌려주면 Age/Warning 헤더 대신 결과의 stale 과 age 로 표시한다.
+ */
+@RestController
+@RequestMapping("/composite")
+public class CompositeApiController {
+    private static final Logger log = LoggerFactory.getLogger(CompositeApiController.class);
+    private static final int MAX_OPERATIONS = 20;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ControllerExceptionHandler exceptionHandler;
+    private final ExceptionHandlerMethodResolver exceptionHandlerMethods =
+            new ExceptionHandlerMethodResolver(ControllerExceptionHandler.class);
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Route> routes;
+
+    public CompositeApiController(ProductService productService, CartItemService cartItemService,
+                                  TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                                  ControllerExceptionHandler exceptionHandler) {
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.exceptionHandler = exceptionHandler;
+        this.routes = List.of(
+                new Route(HttpMethod.GET, "/products", (member, variables, body) ->
+                        ok(productService.getAllProducts())),
+                new Route(HttpMethod.GET, "/products/{id:\\d+}", (member, variables, body) ->
+                        ok(productService.getProductById(id(variables)))),
+                new Route(HttpMethod.GET, "/cart-items", (member, variables, body) ->
+                        ok(cartItemService.findByMember(authenticated(member)))),
+                new Route(HttpMethod.GET, "/cart-items/total", (member, variables, body) ->
+                        ok(cartItemService.getTotal(authenticated(member)))),
+                new Route(HttpMethod.POST, "/cart-items", (member, variables, body) -> {
+                    Long cartItemId = cartItemService.add(authenticated(member), body.read(CartItemRequest.class));
+                    return new CompositeResultResponse(HttpStatus.CREATED.value(), "/cart-items/" + cartItemId, null);
+                }),
+                new Route(HttpMethod.PATCH, "/cart-items/{id:\\d+}", (member, variables, body) -> {
+                    cartItemService.updateQuantity(authenticated(member), id(variables), body.read(CartItemQuantityUpdateRequest.class));
+                    return CompositeResultResponse.of(HttpStatus.OK.value());
+                }),
+                new Route(HttpMethod.DELETE, "/cart-items/{id:\\d+}", (member, variables, body) -> {
+                    cartItemService.remove(authenticated(member), id(variables));
+                    return CompositeResultResponse.of(HttpStatus.NO_CONTENT.value());
+                })
+        );
+    }
+
+    @PostMapping
+    public ResponseEntity<CompositeResponse> execute(Member member, @RequestBody CompositeRequest request) {
+        List<CompositeOperationRequest> operations = request.getOperations() == null ? List.of() : request.getOperations();
+        if (operations.size() > MAX_OPERATIONS) {
+            throw new CompositeException.TooManyOperations(MAX_OPERATIONS);
+        }
+        if (request.isTransactional()) {
+            return ResponseEntity.ok(executeInTransaction(member, operations));
+        }
+
+        List<CompositeResultResponse> results = new ArrayList<>(operations.size());
+        for (CompositeOperationRequest operation : operations) {
+            try {
+                results.add(dispatch(member, operation));
+            } catch (RuntimeException e) {
+                results.add(CompositeResultResponse.of(statusOf(e)));
+            }
+        }
+        return ResponseEntity.ok(new CompositeResponse(false, results));
+    }
+
+    /**
+     * 실패하면 실패한 작업에는 그 상태 코드를, 나머지 작업에는 424 를 돌려준다. 앞선 작업도 모두 되돌려졌기 때문이다.
+     */
+    private CompositeResponse executeInTransaction(Member member, List<CompositeOperationRequest> operations) {
+        List<CompositeResultResponse> results = new ArrayList<>(operations.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (CompositeOperationRequest operation : operations) {
+                    results.add(dispatch(member, operation));
+                }
+            });
+            return new CompositeResponse(false, results);
+        } catch (RuntimeException e) {
+            int failedIndex = results.size();
+            int failedStatus = statusOf(e);
+            List<CompositeResultResponse> rolledBack = new ArrayList<>(operations.size());
+            for (int i = 0; i < operations.size(); i++) {
+                rolledBack.add(CompositeResultResponse.of(i == failedIndex ? failedStatus : HttpStatus.FAILED_DEPENDENCY.value()));
+            }
+            return new CompositeResponse(true, rolledBack);
+        }
+    }
+
+    private CompositeResultResponse dispatch(Member member, CompositeOperationRequest operation) {
+        String path = operation.getPath() == null ? "" : operation.getPath();
+        HttpMethod method = operation.getMethod() == null ? null : HttpMethod.resolve(operation.getMethod().toUpperCase());
+        for (Route route : routes) {
+            if (route.method == method && pathMatcher.match(route.pattern, path)) {
+                Map<String, String> variables = pathMatcher.extractUriTemplateVariables(route.pattern, path);
+                return route.handler.handle(member, variables, new Body(operation));
+            }
+        }
+        throw new CompositeException.UnsupportedOperation(operation.getMethod(), path);
+    }
+
+    private int statusOf(RuntimeException e) {
+        Method method = exceptionHandlerMethods.resolveMethod(e);
+        if (method != null) {
+            try {
+                return ((ResponseEntity<?>) method.invoke(exceptionHandler, e)).getStatusCodeValue();
+            } catch (ReflectiveOperationException ignored) {
+                // 매핑을 쓰지 못하면 처리하지 못한 예외와 같이 다룬다.
+            }
+        }
+        log.error("Composite operation failed", e);
+        return HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+
+    private static CompositeResultResponse ok(Object body) {
+        return new CompositeResultResponse(HttpStatus.OK.value(), null, body);
+    }
+
+    private static CompositeResultResponse ok(ReadResult<?> result) {
+        if (!result.isStale()) {
+            return ok(result.getValue());
+        }
+        return new CompositeResultResponse(HttpStatus.OK.value(), null, result.getValue(), true,
+                result.age(Instant.now()).toSeconds());
+    }
+
+    private static Member authenticated(Member member) {
+        if (member == null) {
+            throw new AuthenticationException();
+        }
+        return member;
+    }
+
+    private static Long id(Map<String, String> variables) {
+        return Long.valueOf(variables.get("id"));
+    }
+
+    private class Body {
+        private final CompositeOperationRequest operation;
+
+        private Body(CompositeOperationRequest operation) {
+            this.operation = operation;
+        }
+
+        private <T> T read(Class<T> type) {
+            JsonNode body = operation.getBody();
+            if (body == null || body.isNull()) {
+                throw new CompositeException.InvalidBody(operation.getMethod(), operation.getPath());
+            }
+            try {
+                return objectMapper.treeToValue(body, type);
+            } catch (JsonProcessingException e) {
+                throw new CompositeException.InvalidBody(operation.getMethod(), operation.getPath());
+            }
+        }
+    }
+
+    private interface Handler {
+        CompositeResultResponse handle(Member member, Map<String, String> variables, Body body);
+    }
+
+    private static class Route {
+        private final HttpMethod method;
+        private final String pattern;
+        private final Handler handler;
+
+        private Route(HttpMethod method, String pattern, Handler handler) {
+            this.method = method;
+            this.pattern = pattern;
+            this.handler = handler;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package cart.ui;
+
+import cart.application.ConcurrencyLimiter;
+import cart.application.ConcurrencyLimiter.Priority;
+import cart.exception.OverloadException;
+import cart.exception.ProductException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 상한을 넘은 요청은 핸들러를 실행하지 않고 503 으로 거절한다.
+ * 상한은 과부하를 뜻하는 예외로 끝난 요청에만 줄인다. 없는 상품처럼 부하와 상관없는 5xx 는 세지 않는다.
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+    private static final String ACQUIRED_AT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".acquiredAt";
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    public ConcurrencyLimitInterceptor(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Priority priority = priorityOf(request, handler);
+        if (!concurrencyLimiter.tryAcquire(priority)) {
+            throw new OverloadException.LimitExceeded(priority.name(), concurrencyLimiter.limit());
+        }
+        request.setAttribute(ACQUIRED_AT_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object acquiredAt = request.getAttribute(ACQUIRED_AT_ATTRIBUTE);
+        if (acquiredAt == null) {
+            return;
+        }
+        request.removeAttribute(ACQUIRED_AT_ATTRIBUTE);
+        // ControllerExceptionHandler 가 처리한 예외는 ex 로 오지 않고 요청 속성에 남는다.
+        Object handled = request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE);
+        Throwable error = ex != null ? ex : handled instanceof Throwable ? (Throwable) handled : null;
+        concurrencyLimiter.release(System.nanoTime() - (long) acquiredAt, isOverload(error));
+    }
+
+    private boolean isOverload(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OverloadException
+                    || cause instanceof ProductException.CatalogUnavailable
+                    || cause instanceof CannotGetJdbcConnectionException
+                    || cause instanceof QueryTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Priority priorityOf(HttpServletRequest request, Object handler) {
+        if (handler instanceof HandlerMethod && ((HandlerMethod) handler).getBeanType() == PageController.class) {
+            return Priority.ADMIN;
+        }
+        if ("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())) {
+            return Priority.READ;
+        }
+        return Priority.WRITE;
+    }
+}
@@ -2,10 +2,19 @@ package cart.ui;
 
 import cart.exception.AuthenticationException;
 import cart.exception.CartItemException;
+import cart.exception.CompositeException;
+import cart.exception.GuestCartException;
+import cart.exception.InventoryException;
+import cart.exception.OverloadException;
+import cart.exception.ProductException;
+import cart.exception.PromotionException;
+import cart.exception.ShardException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 @ControllerAdvice
 public class ControllerExceptionHandler {
@@ -20,4 +29,89 @@ public class ControllerExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
     }
 
+    @ExceptionHandler(GuestCartException.TooManyItems.class)
+    public ResponseEntity<Void> handleException(GuestCartException.TooManyItems e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+
+    @ExceptionHandler(GuestCartException.ItemNotFound.class)
+    public ResponseEntity<Void> handleException(GuestCartException.ItemNotFound e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    @ExceptionHandler(ProductException.InvalidPriceUpdate.class)
+    public ResponseEntity<Void> handleException(ProductException.InvalidPriceUpdate e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+
+    @ExceptionHandler(InventoryException.OutOfStock.class)
+    public ResponseEntity<Void> handleException(InventoryException.OutOfStock e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @ExceptionHandler(InventoryException.InvalidStock.class)
+    public ResponseEntity<Void> handleException(InventoryException.InvalidStock e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+
+    @ExceptionHandler(PromotionException.InvalidPromotion.class)
+    public ResponseEntity<Void> handleException(PromotionException.InvalidPromotion e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+
+    @ExceptionHandler(ProductException.CatalogUnavailable.class)
+    public ResponseEntity<Void> handleException(ProductException.CatalogUnavailable e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    @ExceptionHandler(ProductException.InvalidImage.class)
+    public ResponseEntity<Void> handleException(ProductException.InvalidImage e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+
+    @ExceptionHandler(ProductException.ImageNotFound.class)
+    public ResponseEntity<Void> handleException(ProductException.ImageNotFound e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    @ExceptionHandler(ShardException.InvalidShard.class)
+    public ResponseEntity<Void> handleException(ShardException.InvalidShard e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+
+    @ExceptionHandler(ShardException.RebalanceInProgress.class)
+    public ResponseEntity<Void> handleException(ShardException.RebalanceInProgress e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @ExceptionHandler(OverloadException.LimitExceeded.class)
+    public ResponseEntity<Void> handleException(OverloadException.LimitExceeded e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    @ExceptionHandler(OverloadException.TooManyImageDecodes.class)
+    public ResponseEntity<Void> handleException(OverloadException.TooManyImageDecodes e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    @ExceptionHandler(CompositeException.TooManyOperations.class)
+    public ResponseEntity<Void> handleException(CompositeException.TooManyOperations e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+
+    @ExceptionHandler(CompositeException.UnsupportedOperation.class)
+    public ResponseEntity<Void> handleException(CompositeException.UnsupportedOperation e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    @ExceptionHandler(CompositeException.InvalidBody.class)
+    public ResponseEntity<Void> handleException(CompositeException.InvalidBody e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<Void> handleException(MaxUploadSizeExceededException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+    }
+
 }
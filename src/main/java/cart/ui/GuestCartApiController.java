@@ -0,0 +1,64 @@
+package cart.ui;
+
+import cart.application.CartItemService;
+import cart.domain.GuestCart;
+import cart.dto.CartItemQuantityUpdateRequest;
+import cart.dto.CartItemRequest;
+import cart.dto.CartItemResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("/guest-cart-items")
+public class GuestCartApiController {
+
+    private final CartItemService cartItemService;
+    private final GuestCartCookie guestCartCookie;
+
+    public GuestCartApiController(CartItemService cartItemService, GuestCartCookie guestCartCookie) {
+        this.cartItemService = cartItemService;
+        this.guestCartCookie = guestCartCookie;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<CartItemResponse>> showGuestCartItems(HttpServletRequest request) {
+        GuestCart guestCart = guestCartCookie.read(request).orElseGet(GuestCart::new);
+        return ResponseEntity.ok(cartItemService.findGuestCartItems(guestCart));
+    }
+
+    @PostMapping
+    public ResponseEntity<Void> addGuestCartItem(HttpServletRequest request, HttpServletResponse response,
+                                                 @RequestBody CartItemRequest cartItemRequest) {
+        GuestCart guestCart = guestCartCookie.read(request).orElseGet(GuestCart::new);
+        cartItemService.addToGuestCart(guestCart, cartItemRequest);
+        guestCartCookie.write(response, guestCart);
+
+        return ResponseEntity.created(URI.create("/guest-cart-items/" + cartItemRequest.getProductId())).build();
+    }
+
+    @PatchMapping("/{productId}")
+    public ResponseEntity<Void> updateGuestCartItemQuantity(HttpServletRequest request, HttpServletResponse response,
+                                                            @PathVariable Long productId,
+                                                            @RequestBody CartItemQuantityUpdateRequest quantityUpdateRequest) {
+        GuestCart guestCart = guestCartCookie.read(request).orElseGet(GuestCart::new);
+        guestCart.changeQuantity(productId, quantityUpdateRequest.getQuantity());
+        guestCartCookie.write(response, guestCart);
+
+        return ResponseEntity.ok().build();
+    }
+
+    @DeleteMapping("/{productId}")
+    public ResponseEntity<Void> removeGuestCartItem(HttpServletRequest request, HttpServletResponse response,
+                                                    @PathVariable Long productId) {
+        GuestCart guestCart = guestCartCookie.read(request).orElseGet(GuestCart::new);
+        guestCart.remove(productId);
+        guestCartCookie.write(response, guestCart);
+
+        return ResponseEntity.noContent().build();
+    }
+}
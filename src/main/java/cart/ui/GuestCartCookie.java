@@ -0,0 +1,187 @@
+package cart.ui;
+
+import cart.domain.GuestCart;
+import cart.exception.GuestCartException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 비회원 장바구니를 서명된 쿠키로 주고받는다.
+ * 값은 "base64url(버전 + nonce 16바이트 + 발급 시각 varint + (상품 id, 수량) varint 목록).base64url(HMAC-SHA256 앞 16바이트)"
+ * 형태이고, 서명이 맞지 않거나 형식이 깨졌거나 MAX_AGE 보다 오래된 쿠키는 빈 장바구니로 취급한다.
+ * nonce 는 쓸 때마다 새로 만들므로 회원 장바구니에 한 번 합친 쿠키 값을 다시 보내도 다시 합치지 않는다.
+ */
+@Component
+public class GuestCartCookie {
+    public static final String COOKIE_NAME = "GUEST_CART";
+
+    private static final Logger log = LoggerFactory.getLogger(GuestCartCookie.class);
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final byte FORMAT_VERSION = 2;
+    private static final int NONCE_LENGTH = 16;
+    private static final int SIGNATURE_LENGTH = 16;
+    private static final int MAX_COOKIE_VALUE_LENGTH = 3_800;
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+
+    public GuestCartCookie(@Value("${cart.guest-cart.secret:}") String secret) {
+        this.key = new SecretKeySpec(secretBytes(secret), MAC_ALGORITHM);
+    }
+
+    public Optional<GuestCart> read(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return Optional.empty();
+        }
+        return Arrays.stream(cookies)
+                .filter(cookie -> COOKIE_NAME.equals(cookie.getName()))
+                .findFirst()
+                .map(cookie -> decode(cookie.getValue()).orElseGet(GuestCart::new));
+    }
+
+    public void write(HttpServletResponse response, GuestCart guestCart) {
+        if (guestCart.isEmpty()) {
+            clear(response);
+            return;
+        }
+        String value = encode(guestCart);
+        if (value.length() > MAX_COOKIE_VALUE_LENGTH) {
+            throw new GuestCartException.TooManyItems(GuestCart.MAX_ITEMS);
+        }
+        addCookie(response, value, GuestCart.MAX_AGE);
+    }
+
+    public void clear(HttpServletResponse response) {
+        addCookie(response, "", Duration.ZERO);
+    }
+
+    String encode(GuestCart guestCart) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        payload.write(FORMAT_VERSION);
+        byte[] nonce = new byte[NONCE_LENGTH];
+        random.nextBytes(nonce);
+        payload.writeBytes(nonce);
+        writeVarLong(payload, Instant.now().getEpochSecond());
+        guestCart.getQuantities().forEach((productId, quantity) -> {
+            writeVarLong(payload, productId);
+            writeVarLong(payload, quantity);
+        });
+
+        byte[] payloadBytes = payload.toByteArray();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payloadBytes) + "." + encoder.encodeToString(sign(payloadBytes));
+    }
+
+    Optional<GuestCart> decode(String value) {
+        int separator = value.indexOf('.');
+        if (separator < 0 || value.length() > MAX_COOKIE_VALUE_LENGTH) {
+            return Optional.empty();
+        }
+
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] payload = decoder.decode(value.substring(0, separator));
+            byte[] signature = decoder.decode(value.substring(separator + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature) || payload.length < 1 + NONCE_LENGTH || payload[0] != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(payload, 1, payload.length - 1);
+            byte[] nonce = new byte[NONCE_LENGTH];
+            buffer.get(nonce);
+            Instant issuedAt = Instant.ofEpochSecond(readVarLong(buffer));
+            if (issuedAt.plus(GuestCart.MAX_AGE).isBefore(Instant.now())) {
+                return Optional.empty();
+            }
+
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            while (buffer.hasRemaining() && quantities.size() < GuestCart.MAX_ITEMS) {
+                long productId = readVarLong(buffer);
+                long quantity = readVarLong(buffer);
+                if (quantity > 0) {
+                    quantities.put(productId, (int) Math.min(quantity, GuestCart.MAX_QUANTITY));
+                }
+            }
+            return Optional.of(new GuestCart(quantities, Base64.getUrlEncoder().withoutPadding().encodeToString(nonce)));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void addCookie(HttpServletResponse response, String value, Duration maxAge) {
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, value)
+                .path("/")
+                .httpOnly(true)
+                .sameSite("Lax")
+                .maxAge(maxAge)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return Arrays.copyOf(mac.doFinal(payload), SIGNATURE_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign guest cart cookie", e);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Truncated guest cart cookie");
+            }
+            byte next = buffer.get();
+            value |= (long) (next & 0x7F) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed guest cart cookie");
+    }
+
+    private static byte[] secretBytes(String secret) {
+        if (!secret.isBlank()) {
+            return secret.getBytes(StandardCharsets.UTF_8);
+        }
+        log.warn("cart.guest-cart.secret is not set; guest cart cookies will not survive a restart or work across instances");
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+}
@@ -0,0 +1,40 @@
+package cart.ui;
+
+import cart.metrics.RouteLatencyMetrics;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class LatencyInterceptor implements HandlerInterceptor {
+    private static final String STARTED_AT_ATTRIBUTE = LatencyInterceptor.class.getName() + ".startedAt";
+
+    private final RouteLatencyMetrics routeLatencyMetrics;
+
+    public LatencyInterceptor(RouteLatencyMetrics routeLatencyMetrics) {
+        this.routeLatencyMetrics = routeLatencyMetrics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(STARTED_AT_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object startedAt = request.getAttribute(STARTED_AT_ATTRIBUTE);
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (!(handler instanceof HandlerMethod) || startedAt == null || route == null) {
+            return;
+        }
+
+        int status = response.getStatus();
+        if (ex != null && status < 400) {
+            status = 500;
+        }
+        routeLatencyMetrics.record(request.getMethod(), route.toString(), status, System.nanoTime() - (long) startedAt);
+    }
+}
@@ -1,5 +1,6 @@
 package cart.ui;
 
+import cart.application.CartItemService;
 import cart.exception.AuthenticationException;
 import cart.dao.MemberDao;
 import cart.domain.Member;
@@ -11,11 +12,18 @@ import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.ModelAndViewContainer;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 public class MemberArgumentResolver implements HandlerMethodArgumentResolver {
     private final MemberDao memberDao;
+    private final GuestCartCookie guestCartCookie;
+    private final CartItemService cartItemService;
 
-    public MemberArgumentResolver(MemberDao memberDao) {
+    public MemberArgumentResolver(MemberDao memberDao, GuestCartCookie guestCartCookie, CartItemService cartItemService) {
         this.memberDao = memberDao;
+        this.guestCartCookie = guestCartCookie;
+        this.cartItemService = cartItemService;
     }
 
     @Override
@@ -47,6 +55,23 @@ public class MemberArgumentResolver implements HandlerMethodArgumentResolver {
         if (!member.checkPassword(password)) {
             throw new AuthenticationException();
         }
+
+        mergeGuestCart(webRequest, member);
         return member;
     }
+
+    private void mergeGuestCart(NativeWebRequest webRequest, Member member) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
+        if (request == null || response == null) {
+            return;
+        }
+
+        guestCartCookie.read(request).ifPresent(guestCart -> {
+            if (!guestCart.isEmpty()) {
+                cartItemService.mergeGuestCart(member, guestCart);
+            }
+            guestCartCookie.clear(response);
+        });
+    }
 }
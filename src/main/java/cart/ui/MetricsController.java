@@ -0,0 +1,37 @@
+package cart.ui;
+
+import cart.dto.RouteLatencyResponse;
+import cart.metrics.MetricsSource;
+import cart.metrics.RouteLatencyMetrics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/internal/metrics")
+public class MetricsController {
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final List<MetricsSource> metricsSources;
+    private final RouteLatencyMetrics routeLatencyMetrics;
+
+    public MetricsController(List<MetricsSource> metricsSources, RouteLatencyMetrics routeLatencyMetrics) {
+        this.metricsSources = metricsSources;
+        this.routeLatencyMetrics = routeLatencyMetrics;
+    }
+
+    @GetMapping(produces = PROMETHEUS_CONTENT_TYPE)
+    public ResponseEntity<String> prometheus() {
+        StringBuilder out = new StringBuilder();
+        metricsSources.forEach(source -> source.writePrometheus(out));
+        return ResponseEntity.ok(out.toString());
+    }
+
+    @GetMapping("/latency")
+    public ResponseEntity<List<RouteLatencyResponse>> drainLatencyWindows() {
+        return ResponseEntity.ok(routeLatencyMetrics.drainWindows());
+    }
+}
@@ -5,9 +5,12 @@ import cart.dao.MemberDao;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @Controller
 public class PageController {
+    private static final int ADMIN_PAGE_SIZE = 50;
+
     private final ProductService productService;
     private final MemberDao memberDao;
 
@@ -17,8 +20,10 @@ public class PageController {
     }
 
     @GetMapping("/admin")
-    public String admin(Model model) {
-        model.addAttribute("products", productService.getAllProducts());
+    public String admin(@RequestParam(required = false) String keyword, Model model) {
+        model.addAttribute("keyword", keyword);
+        model.addAttribute("page", productService.getProductPage(keyword, null, ADMIN_PAGE_SIZE));
+        model.addAttribute("pageSize", ADMIN_PAGE_SIZE);
         return "admin";
     }
 
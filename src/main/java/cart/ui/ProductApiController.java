@@ -1,33 +1,79 @@
 package cart.ui;
 
+import cart.application.InventoryService;
+import cart.application.ProductChangeFeed;
 import cart.application.ProductService;
+import cart.application.ReadResult;
+import cart.application.RelatedProducts;
+import cart.application.TrendingProducts;
+import cart.dto.ProductPageResponse;
+import cart.dto.ProductPriceUpdateRequest;
+import cart.dto.ProductPriceUpdateResponse;
 import cart.dto.ProductRequest;
 import cart.dto.ProductResponse;
+import cart.dto.RelatedProductResponse;
+import cart.dto.StockRequest;
+import cart.dto.StockResponse;
+import cart.dto.TrendingProductResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.net.URI;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
 @RequestMapping("/products")
 public class ProductApiController {
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
 
     private final ProductService productService;
+    private final ProductChangeFeed productChangeFeed;
+    private final TrendingProducts trendingProducts;
+    private final InventoryService inventoryService;
+    private final RelatedProducts relatedProducts;
 
-    public ProductApiController(ProductService productService) {
+    public ProductApiController(ProductService productService, ProductChangeFeed productChangeFeed,
+                                TrendingProducts trendingProducts, InventoryService inventoryService,
+                                RelatedProducts relatedProducts) {
         this.productService = productService;
+        this.productChangeFeed = productChangeFeed;
+        this.trendingProducts = trendingProducts;
+        this.inventoryService = inventoryService;
+        this.relatedProducts = relatedProducts;
     }
 
     @GetMapping
     public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+        return withStaleness(productService.getAllProducts());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ProductPageResponse> searchProducts(@RequestParam(required = false) String keyword,
+                                                              @RequestParam(required = false) Long lastId,
+                                                              @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(productService.getProductPage(keyword, lastId, size));
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeProductChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return productChangeFeed.subscribe(lastEventId);
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingProductResponse>> getTrendingProducts(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(trendingProducts.top(limit));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+        return withStaleness(productService.getProductById(id));
     }
 
     @PostMapping
@@ -42,10 +88,47 @@ public class ProductApiController {
         return ResponseEntity.status(HttpStatus.OK).build();
     }
 
+    @PostMapping(value = "/{id}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ProductResponse> uploadImage(@PathVariable Long id, @RequestParam MultipartFile image) throws IOException {
+        return ResponseEntity.ok(productService.updateImage(id, image.getBytes()));
+    }
+
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<RelatedProductResponse>> getRelatedProducts(@PathVariable Long id,
+                                                                           @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(relatedProducts.related(id, limit));
+    }
+
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<StockResponse> getStock(@PathVariable Long id) {
+        return ResponseEntity.ok(new StockResponse(id, inventoryService.getStock(id)));
+    }
+
+    @PutMapping("/{id}/stock")
+    public ResponseEntity<StockResponse> updateStock(@PathVariable Long id, @RequestBody StockRequest stockRequest) {
+        inventoryService.updateStock(id, stockRequest.getStock());
+        return ResponseEntity.ok(new StockResponse(id, inventoryService.getStock(id)));
+    }
+
+    @PatchMapping("/prices")
+    public ResponseEntity<ProductPriceUpdateResponse> adjustPrices(@RequestBody ProductPriceUpdateRequest request) {
+        return ResponseEntity.ok(productService.adjustPrices(request));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         productService.deleteProduct(id);
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
+    private <T> ResponseEntity<T> withStaleness(ReadResult<T> result) {
+        if (!result.isStale()) {
+            return ResponseEntity.ok(result.getValue());
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, String.valueOf(result.age(Instant.now()).toSeconds()))
+                .header(HttpHeaders.WARNING, STALE_WARNING)
+                .body(result.getValue());
+    }
+
 }
@@ -0,0 +1,38 @@
+package cart.ui;
+
+import cart.application.PromotionService;
+import cart.dto.PromotionRequest;
+import cart.dto.PromotionResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("/promotions")
+public class PromotionApiController {
+
+    private final PromotionService promotionService;
+
+    public PromotionApiController(PromotionService promotionService) {
+        this.promotionService = promotionService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<PromotionResponse>> getPromotions() {
+        return ResponseEntity.ok(promotionService.findAll());
+    }
+
+    @PostMapping
+    public ResponseEntity<Void> createPromotion(@RequestBody PromotionRequest promotionRequest) {
+        Long id = promotionService.create(promotionRequest);
+        return ResponseEntity.created(URI.create("/promotions/" + id)).build();
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deletePromotion(@PathVariable Long id) {
+        promotionService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+}
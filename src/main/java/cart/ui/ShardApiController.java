@@ -0,0 +1,30 @@
+package cart.ui;
+
+import cart.application.ShardRebalancer;
+import cart.dto.ShardStatusResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/admin/shards")
+public class ShardApiController {
+
+    private final ShardRebalancer shardRebalancer;
+
+    public ShardApiController(ShardRebalancer shardRebalancer) {
+        this.shardRebalancer = shardRebalancer;
+    }
+
+    @GetMapping
+    public ResponseEntity<ShardStatusResponse> getStatus() {
+        return ResponseEntity.ok(shardRebalancer.getStatus());
+    }
+
+    @PostMapping("/{shard}")
+    public ResponseEntity<ShardStatusResponse> addShard(@PathVariable int shard) {
+        shardRebalancer.addShard(shard);
+        return ResponseEntity.accepted().location(URI.create("/admin/shards")).body(shardRebalancer.getStatus());
+    }
+}
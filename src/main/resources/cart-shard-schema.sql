@@ -0,0 +1,21 @@
+-- cart.shards.urls 로 설정한 샤드 DB 에 만드는 테이블. 상품과 회원은 공용 DB 에 있으므로 외래 키는 없다.
+CREATE TABLE IF NOT EXISTS cart_item (
+    id BIGINT NOT NULL PRIMARY KEY,
+    member_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    last_modified TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 유니크 인덱스 전에 만든 샤드에는 같은 회원의 같은 상품 아이템이 여럿일 수 있다. id 가 가장 작은 아이템에 수량을 합치고 나머지는 지운다.
+UPDATE cart_item c SET
+    quantity = (SELECT SUM(d.quantity) FROM cart_item d WHERE d.member_id = c.member_id AND d.product_id = c.product_id),
+    last_modified = (SELECT MAX(d.last_modified) FROM cart_item d WHERE d.member_id = c.member_id AND d.product_id = c.product_id)
+WHERE EXISTS (SELECT 1 FROM cart_item d WHERE d.member_id = c.member_id AND d.product_id = c.product_id AND d.id > c.id)
+  AND NOT EXISTS (SELECT 1 FROM cart_item d WHERE d.member_id = c.member_id AND d.product_id = c.product_id AND d.id < c.id);
+DELETE FROM cart_item c
+WHERE EXISTS (SELECT 1 FROM cart_item d WHERE d.member_id = c.member_id AND d.product_id = c.product_id AND d.id < c.id);
+DROP INDEX IF EXISTS ix_cart_item_member_id_product_id;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_cart_item_member_id_product_id ON cart_item (member_id, product_id);
+CREATE INDEX IF NOT EXISTS ix_cart_item_product_id ON cart_item (product_id);
+CREATE INDEX IF NOT EXISTS ix_cart_item_last_modified ON cart_item (last_modified, id);
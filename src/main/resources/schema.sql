@@ -2,20 +2,98 @@ CREATE TABLE product (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     name VARCHAR(255) NOT NULL,
     price INT NOT NULL,
-    image_url VARCHAR(255) NOT NULL
+    image_url VARCHAR(255) NOT NULL,
+    stock INT CHECK (stock >= 0)
 );
 
+CREATE INDEX ix_product_price ON product (price, id);
+
+CREATE TABLE catalog_version (
+    id INT PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO catalog_version (id, version) VALUES (1, 0);
+
 CREATE TABLE member (
      id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
      email VARCHAR(255) NOT NULL UNIQUE,
      password VARCHAR(255) NOT NULL
 );
 
+-- 장바구니 아이템은 샤드 사이를 옮겨 다닐 수 있으므로 id 는 공용 DB 의 시퀀스에서 받는다.
+CREATE SEQUENCE cart_item_id_seq;
+
 CREATE TABLE cart_item (
+    id BIGINT NOT NULL PRIMARY KEY,
+    member_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    last_modified TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 유니크 인덱스 전의 데이터를 옮겨 온 경우 같은 회원의 같은 상품 아이템을 id 가 가장 작은 아이템 하나로 합친다.
+UPDATE cart_item c SET
+    quantity = (SELECT SUM(d.quantity) FROM cart_item d WHERE d.member_id = c.member_id AND d.product_id = c.product_id),
+    last_modified = (SELECT MAX(d.last_modified) FROM cart_item d WHERE d.member_id = c.member_id AND d.product_id = c.product_id)
+WHERE EXISTS (SELECT 1 FROM cart_item d WHERE d.member_id = c.member_id AND d.product_id = c.product_id AND d.id > c.id)
+  AND NOT EXISTS (SELECT 1 FROM cart_item d WHERE d.member_id = c.member_id AND d.product_id = c.product_id AND d.id < c.id);
+DELETE FROM cart_item c
+WHERE EXISTS (SELECT 1 FROM cart_item d WHERE d.member_id = c.member_id AND d.product_id = c.product_id AND d.id < c.id);
+
+-- 외래 키보다 인덱스를 먼저 만들어야 H2 가 외래 키용 인덱스를 따로 만들지 않고 아래 인덱스를 사용한다.
+CREATE UNIQUE INDEX ux_cart_item_member_id_product_id ON cart_item (member_id, product_id);
+CREATE INDEX ix_cart_item_product_id ON cart_item (product_id);
+CREATE INDEX ix_cart_item_last_modified ON cart_item (last_modified, id);
+
+CREATE TABLE cart_event (
     id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
     member_id BIGINT NOT NULL,
     product_id BIGINT NOT NULL,
+    type VARCHAR(20) NOT NULL,
     quantity INT NOT NULL,
-    FOREIGN KEY (member_id) REFERENCES member(id),
-    FOREIGN KEY (product_id) REFERENCES product(id)
+    occurred_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE guest_cart_merge (
+    nonce VARCHAR(32) NOT NULL PRIMARY KEY,
+    merged_at TIMESTAMP NOT NULL
+);
+CREATE INDEX ix_guest_cart_merge_merged_at ON guest_cart_merge (merged_at);
+
+CREATE TABLE promotion (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    type VARCHAR(20) NOT NULL,
+    product_id BIGINT,
+    percent INT NOT NULL DEFAULT 0,
+    buy_quantity INT NOT NULL DEFAULT 0,
+    free_quantity INT NOT NULL DEFAULT 0,
+    min_spend INT NOT NULL DEFAULT 0,
+    discount_amount INT NOT NULL DEFAULT 0,
+    starts_at TIMESTAMP,
+    ends_at TIMESTAMP
 );
+
+CREATE TABLE promotion_version (
+    id INT PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO promotion_version (id, version) VALUES (1, 0);
+
+-- 장바구니 샤드 링. active_shards 는 처음 뜬 노드의 cart.shards.active 로 채운다.
+CREATE TABLE shard_ring (
+    id INT PRIMARY KEY,
+    version BIGINT NOT NULL,
+    active_shards VARCHAR(255),
+    joining_shard INT
+);
+
+INSERT INTO shard_ring (id, version, active_shards, joining_shard) VALUES (1, 0, NULL, NULL);
+
+CREATE TABLE shard_moved_member (
+    member_id BIGINT NOT NULL PRIMARY KEY
+);
+
+ALTER TABLE cart_item ADD CONSTRAINT fk_cart_item_member FOREIGN KEY (member_id) REFERENCES member(id);
+ALTER TABLE cart_item ADD CONSTRAINT fk_cart_item_product FOREIGN KEY (product_id) REFERENCES product(id);
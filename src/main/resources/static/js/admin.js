@@ -8,7 +8,9 @@ const showAddModal = () => {
 const showEditModal = (product) => {
     const elements = modal.getElementsByTagName('input');
     for (const element of elements) {
-        element.value = product[element.getAttribute('name')];
+        if (element.type !== 'file') {
+            element.value = product[element.getAttribute('name')];
+        }
     }
     modal.dataset.formType = 'edit';
     modal.dataset.productId = product.id;
@@ -34,31 +36,126 @@ form.addEventListener('submit', (event) => {
         const [key, value] = entry;
         product[key] = value;
     }
+    const [imageFile] = document.getElementById('image-file').files;
+    if (!product.imageUrl && !imageFile) {
+        alert('이미지 URL 이나 이미지 파일이 필요합니다.');
+        return;
+    }
 
     if (modal.dataset.formType === 'edit') {
         product['id'] = modal.dataset.productId;
-        updateProduct(product);
+        updateProduct(product, imageFile);
         return;
     }
 
-    createProduct(product);
+    createProduct(product, imageFile);
 });
 
-const createProduct = (product) => {
+const productList = document.getElementById('product-list');
+
+const renderProductRow = (product) => {
+    const row = document.createElement('tr');
+    row.dataset.productId = product.id;
+
+    for (const value of [product.id, product.name, product.price]) {
+        const cell = document.createElement('td');
+        cell.textContent = value;
+        row.appendChild(cell);
+    }
+
+    const imageCell = document.createElement('td');
+    const image = document.createElement('img');
+    image.src = product.thumbnailUrl;
+    image.style.maxWidth = '100px';
+    imageCell.appendChild(image);
+    row.appendChild(imageCell);
+
+    const actionCell = document.createElement('td');
+    const editButton = document.createElement('button');
+    editButton.textContent = '수정';
+    editButton.addEventListener('click', () => showEditModal(product));
+    const deleteButton = document.createElement('button');
+    deleteButton.textContent = '삭제';
+    deleteButton.addEventListener('click', () => deleteProduct(product.id));
+    actionCell.append(editButton, deleteButton);
+    row.appendChild(actionCell);
+
+    return row;
+};
+
+const findProductRow = (id) => productList.querySelector(`tr[data-product-id="${id}"]`);
+
+let loadingNextPage = false;
+
+const loadNextPage = () => {
+    const { nextCursor, keyword, pageSize } = productList.dataset;
+    if (loadingNextPage || !nextCursor) {
+        return;
+    }
+
+    loadingNextPage = true;
+    axios.get('/products/search', { params: { keyword, lastId: nextCursor, size: pageSize } })
+        .then((response) => {
+            const { products, nextCursor: cursor } = response.data;
+            products.forEach((product) => productList.appendChild(renderProductRow(product)));
+            if (cursor) {
+                productList.dataset.nextCursor = cursor;
+            } else {
+                delete productList.dataset.nextCursor;
+            }
+        })
+        .catch((error) => {
+            console.error(error);
+        })
+        .finally(() => {
+            loadingNextPage = false;
+        });
+};
+
+new IntersectionObserver((entries) => {
+    if (entries.some((entry) => entry.isIntersecting)) {
+        loadNextPage();
+    }
+}).observe(document.getElementById('product-list-sentinel'));
+
+// 파일을 고르면 상품을 저장한 뒤 올려서, 상품 이미지가 로컬에 저장된 이미지로 바뀐다.
+const uploadImage = (id, imageFile) => {
+    if (!imageFile) {
+        return Promise.resolve();
+    }
+    const data = new FormData();
+    data.append('image', imageFile);
+    return axios.post(`/products/${id}/image`, data);
+};
+
+const createProduct = (product, imageFile) => {
     axios.post('/products', product)
+        .then((response) => uploadImage(response.headers.location.split('/').pop(), imageFile).then(() => response))
         .then((response) => {
-            window.location.reload();
+            hideAddModal();
+            // 아직 불러오지 않은 페이지가 있으면 새 상품은 마지막 페이지를 불러올 때 함께 보인다.
+            if (productList.dataset.nextCursor) {
+                return;
+            }
+            return axios.get(response.headers.location)
+                .then(({ data }) => productList.appendChild(renderProductRow(data)));
         })
         .catch((error) => {
             console.error(error);
         });
 };
 
-const updateProduct = (product) => {
+const updateProduct = (product, imageFile) => {
     const { id } = product;
     axios.put(`/products/${id}`, product)
-        .then((response) => {
-            window.location.reload();
+        .then(() => uploadImage(id, imageFile))
+        .then(() => axios.get(`/products/${id}`))
+        .then(({ data }) => {
+            hideAddModal();
+            const row = findProductRow(id);
+            if (row) {
+                row.replaceWith(renderProductRow(data));
+            }
         })
         .catch((error) => {
             console.error(error);
@@ -67,8 +164,11 @@ const updateProduct = (product) => {
 
 const deleteProduct = (id) => {
     axios.delete(`/products/${id}`)
-        .then((response) => {
-            window.location.reload();
+        .then(() => {
+            const row = findProductRow(id);
+            if (row) {
+                row.remove();
+            }
         })
         .catch((error) => {
             console.error(error);
@@ -0,0 +1,116 @@
+package cart.application;
+
+import cart.dao.CartEventDao;
+import cart.domain.CartEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+class CartEventLogTest {
+    private final CartEventDao cartEventDao = mock(CartEventDao.class);
+    private final List<List<CartEvent>> batches = new CopyOnWriteArrayList<>();
+
+    @DisplayName("여러 스레드가 동시에 넣은 기록을 빠짐없이 배치로 나누어 쓴다.")
+    @Test
+    void writeConcurrentEventsInBatches() throws Exception {
+        recordBatches(null);
+        CartEventLog cartEventLog = new CartEventLog(cartEventDao, 1024, 100, Duration.ofMillis(20),
+                CartEventLog.OverflowPolicy.BLOCK, Duration.ofSeconds(5));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            long memberId = thread;
+            executor.execute(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    cartEventLog.record(CartEvent.Type.ADDED, memberId, (long) i, 1);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        cartEventLog.close();
+
+        assertThat(events()).hasSize(8_000);
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(100));
+        assertThat(batches.size()).isLessThan(8_000 / 10);
+        assertThat(cartEventLog.droppedCount()).isZero();
+    }
+
+    @DisplayName("DROP 정책이면 버퍼가 가득 찼을 때 기다리지 않고 버린 개수를 센다.")
+    @Test
+    void dropWhenFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        recordBatches(release);
+        CartEventLog cartEventLog = new CartEventLog(cartEventDao, 8, 4, Duration.ofMillis(1),
+                CartEventLog.OverflowPolicy.DROP, Duration.ofSeconds(5));
+
+        for (int i = 0; i < 100; i++) {
+            cartEventLog.record(CartEvent.Type.ADDED, 1L, (long) i, 1);
+        }
+        assertThat(cartEventLog.droppedCount()).isPositive();
+
+        release.countDown();
+        cartEventLog.close();
+        assertThat(cartEventLog.writtenCount() + cartEventLog.droppedCount()).isEqualTo(100);
+    }
+
+    @DisplayName("종료할 때 버퍼에 남은 기록을 모두 쓴다.")
+    @Test
+    void flushOnClose() throws Exception {
+        recordBatches(null);
+        CartEventLog cartEventLog = new CartEventLog(cartEventDao, 1024, 500, Duration.ofMinutes(1),
+                CartEventLog.OverflowPolicy.DROP, Duration.ofSeconds(5));
+
+        for (int i = 0; i < 10; i++) {
+            cartEventLog.record(CartEvent.Type.REMOVED, 1L, (long) i, 0);
+        }
+        cartEventLog.close();
+
+        assertThat(events()).hasSize(10);
+    }
+
+    @DisplayName("배치를 쓰다 예상하지 못한 예외가 나도 실패로 세고 다음 배치를 계속 쓴다.")
+    @Test
+    void keepWritingAfterUnexpectedFailure() throws Exception {
+        willAnswer(invocation -> {
+            throw new IllegalStateException("broken driver");
+        }).willAnswer(invocation -> batches.add(List.copyOf(invocation.<List<CartEvent>>getArgument(0))))
+                .given(cartEventDao).insertAll(anyList());
+        CartEventLog cartEventLog = new CartEventLog(cartEventDao, 4, 1, Duration.ofMillis(1),
+                CartEventLog.OverflowPolicy.BLOCK, Duration.ofSeconds(5));
+
+        for (int i = 0; i < 20; i++) {
+            cartEventLog.record(CartEvent.Type.ADDED, 1L, (long) i, 1);
+        }
+        cartEventLog.close();
+
+        assertThat(cartEventLog.failedCount()).isEqualTo(1);
+        assertThat(events()).hasSize(19);
+    }
+
+    private void recordBatches(CountDownLatch release) {
+        willAnswer(invocation -> {
+            if (release != null) {
+                release.await();
+            }
+            return batches.add(List.copyOf(invocation.<List<CartEvent>>getArgument(0)));
+        }).given(cartEventDao).insertAll(anyList());
+    }
+
+    private List<CartEvent> events() {
+        return batches.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+}
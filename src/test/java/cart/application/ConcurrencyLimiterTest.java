@@ -0,0 +1,122 @@
+package cart.application;
+
+import cart.application.ConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+    private static final long FAST = Duration.ofMillis(5).toNanos();
+    private static final long SLOW = Duration.ofMillis(50).toNanos();
+
+    @DisplayName("조회는 상한 전체를, 변경과 관리자 화면은 상한의 일부만 쓸 수 있다.")
+    @Test
+    void prioritizeReads() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 1, 100, 0.2, 0.8, 0.5);
+
+        assertThat(acquireAll(limiter, Priority.ADMIN)).isEqualTo(5);
+        assertThat(acquireAll(limiter, Priority.WRITE)).isEqualTo(3);
+        assertThat(acquireAll(limiter, Priority.READ)).isEqualTo(2);
+
+        limiter.release(FAST, false);
+        assertThat(limiter.tryAcquire(Priority.WRITE)).isFalse();
+        assertThat(limiter.tryAcquire(Priority.READ)).isTrue();
+    }
+
+    @DisplayName("상한 가까이 쓰는 동안 응답 시간이 그대로면 상한이 늘어난다.")
+    @Test
+    void growWhileLatencyIsSteady() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, 4, 200, 0.2, 0.8, 0.5);
+
+        runSaturated(limiter, 200, FAST);
+
+        assertThat(limiter.limit()).isGreaterThan(20);
+    }
+
+    @DisplayName("상한이 작아도 변경과 관리자 화면은 한 자리를 쓸 수 있다.")
+    @Test
+    void leaveOneSlotPerPriority() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1, 0.2, 0.5, 0.5);
+
+        assertThat(limiter.tryAcquire(Priority.ADMIN)).isTrue();
+        assertThat(limiter.tryAcquire(Priority.WRITE)).isFalse();
+    }
+
+    @DisplayName("상한을 절반도 쓰지 않으면 상한을 늘리지 않는다.")
+    @Test
+    void keepLimitWhenUnderused() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, 4, 200, 0.2, 0.8, 0.5);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire(Priority.READ);
+            limiter.release(FAST, false);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(20);
+    }
+
+    @DisplayName("응답 시간이 평소보다 크게 늘면 최소값까지 상한을 줄인다.")
+    @Test
+    void shrinkWhenLatencyRises() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, 4, 200, 0.2, 0.8, 0.5);
+        runSaturated(limiter, 100, FAST);
+        int steadyLimit = limiter.limit();
+
+        runSaturated(limiter, 50, SLOW);
+
+        assertThat(limiter.limit()).isLessThan(steadyLimit);
+        runSaturated(limiter, 500, SLOW * 10);
+        assertThat(limiter.limit()).isGreaterThanOrEqualTo(4);
+    }
+
+    @DisplayName("과부하로 끝난 요청이 있으면 상한을 곱셈으로 줄인다.")
+    @Test
+    void backOffOnOverload() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, 4, 200, 0.2, 0.8, 0.5);
+
+        limiter.tryAcquire(Priority.WRITE);
+        limiter.release(FAST, true);
+
+        assertThat(limiter.limit()).isEqualTo(18);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @DisplayName("요청이 적어도 응답 시간이 그대로면 줄어든 상한을 처음 상한까지 되돌린다.")
+    @Test
+    void recoverAtLowTraffic() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, 4, 200, 0.2, 0.8, 0.5);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(Priority.READ);
+            limiter.release(FAST, true);
+        }
+        assertThat(limiter.limit()).isLessThan(20);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire(Priority.READ);
+            limiter.release(FAST, false);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(20);
+    }
+
+    private int acquireAll(ConcurrencyLimiter limiter, Priority priority) {
+        int acquired = 0;
+        while (limiter.tryAcquire(priority)) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    /**
+     * 자리를 모두 채운 상태에서 하나씩 끝내고 다시 채우기를 반복한다.
+     */
+    private void runSaturated(ConcurrencyLimiter limiter, int requests, long elapsedNanos) {
+        for (int i = 0; i < requests; i++) {
+            acquireAll(limiter, Priority.READ);
+            limiter.release(elapsedNanos, false);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package cart.application;
+
+import cart.dao.InventoryDao;
+import cart.exception.InventoryException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class InventoryServiceTest {
+    private static final Long HOT_PRODUCT_ID = 1L;
+    private static final Long PRODUCT_ID = 2L;
+
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .generateUniqueName(true)
+            .setType(EmbeddedDatabaseType.H2)
+            .addScripts("schema.sql", "data.sql")
+            .build();
+    private final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(database);
+    private final InventoryDao inventoryDao = spy(new InventoryDao(new JdbcTemplate(database)));
+    private final InventoryService inventoryService = new InventoryService(inventoryDao, transactionManager, List.of(HOT_PRODUCT_ID), 8, 10);
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @DisplayName("재고보다 많이 예약하면 예외를 던지고 재고는 그대로 둔다.")
+    @Test
+    void rejectWhenOutOfStock() {
+        inventoryDao.updateStock(PRODUCT_ID, 2);
+
+        inventoryService.reserve(PRODUCT_ID, 2);
+
+        assertThatThrownBy(() -> inventoryService.reserve(PRODUCT_ID, 1))
+                .isInstanceOf(InventoryException.OutOfStock.class);
+        assertThat(inventoryService.getStock(PRODUCT_ID)).isZero();
+    }
+
+    @DisplayName("재고 제한이 없는 상품은 언제나 예약할 수 있다.")
+    @Test
+    void unlimitedStock() {
+        inventoryDao.updateStock(PRODUCT_ID, null);
+        inventoryDao.updateStock(HOT_PRODUCT_ID, null);
+
+        inventoryService.reserve(PRODUCT_ID, 1_000);
+        inventoryService.reserve(HOT_PRODUCT_ID, 1_000);
+
+        assertThat(inventoryService.getStock(PRODUCT_ID)).isNull();
+        assertThat(inventoryService.getStock(HOT_PRODUCT_ID)).isNull();
+    }
+
+    @DisplayName("인기 상품을 동시에 예약해도 재고만큼만 성공하고 DB 는 몇 번만 갱신한다.")
+    @Test
+    void hotItemConcurrentReservations() throws Exception {
+        inventoryDao.updateStock(HOT_PRODUCT_ID, 100);
+
+        int succeeded = reserveConcurrently(HOT_PRODUCT_ID, 1_000);
+        inventoryService.reconcile();
+
+        assertThat(succeeded).isEqualTo(100);
+        assertThat(inventoryDao.findStock(HOT_PRODUCT_ID)).isZero();
+        verify(inventoryDao, atMost(100 / 10 + 1)).reserve(eq(HOT_PRODUCT_ID), anyInt());
+    }
+
+    @DisplayName("떼어 온 재고 중 남은 것과 돌려받은 재고는 주기적으로 DB 에 반영한다.")
+    @Test
+    void reconcileHotItem() {
+        inventoryDao.updateStock(HOT_PRODUCT_ID, 100);
+
+        inventoryService.reserve(HOT_PRODUCT_ID, 3);
+        inventoryService.release(HOT_PRODUCT_ID, 1);
+        assertThat(inventoryDao.findStock(HOT_PRODUCT_ID)).isEqualTo(90);
+        assertThat(inventoryService.getStock(HOT_PRODUCT_ID)).isEqualTo(98);
+
+        inventoryService.reconcile();
+
+        assertThat(inventoryDao.findStock(HOT_PRODUCT_ID)).isEqualTo(98);
+    }
+
+    @DisplayName("인기 상품을 예약한 트랜잭션이 롤백되어도 떼어 온 재고는 한 번만 DB 로 돌아간다.")
+    @Test
+    void rollbackAfterHotItemLease() {
+        inventoryDao.updateStock(HOT_PRODUCT_ID, 100);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            inventoryService.reserve(HOT_PRODUCT_ID, 3);
+            status.setRollbackOnly();
+        });
+        inventoryService.reconcile();
+
+        assertThat(inventoryDao.findStock(HOT_PRODUCT_ID)).isEqualTo(100);
+    }
+
+    @DisplayName("트랜잭션 안에서 돌려놓은 인기 상품 재고는 커밋된 뒤에야 예약할 수 있다.")
+    @Test
+    void releaseHotItemAfterCommit() {
+        inventoryDao.updateStock(HOT_PRODUCT_ID, 10);
+        inventoryService.reserve(HOT_PRODUCT_ID, 10);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            inventoryService.release(HOT_PRODUCT_ID, 4);
+            assertThat(inventoryService.getStock(HOT_PRODUCT_ID)).isZero();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(inventoryService.getStock(HOT_PRODUCT_ID)).isEqualTo(4);
+    }
+
+    private int reserveConcurrently(Long productId, int requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    inventoryService.reserve(productId, 1);
+                    return true;
+                } catch (InventoryException.OutOfStock e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        for (Future<Boolean> future : futures) {
+            succeeded += future.get() ? 1 : 0;
+        }
+        executor.shutdown();
+        return succeeded;
+    }
+}
@@ -0,0 +1,101 @@
+package cart.application;
+
+import cart.domain.Product;
+import cart.dto.ProductChangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductChangeFeedTest {
+
+    private final ProductChangeFeed feed = new ProductChangeFeed(4, 1_000L, 60L, 4);
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    @DisplayName("마지막으로 받은 이벤트 이후의 변경 이벤트를 순서대로 돌려준다.")
+    @Test
+    void eventsAfterLastEventId() {
+        feed.publish(ProductChangeEvent.Kind.CREATED, 1L, new Product("치킨", 10_000, "http://example.com/chicken.jpg"));
+        feed.publish(ProductChangeEvent.Kind.UPDATED, 1L, new Product("치킨", 12_000, "http://example.com/chicken.jpg"));
+        feed.publish(ProductChangeEvent.Kind.DELETED, 1L, null);
+
+        List<ProductChangeEvent> events = feed.eventsAfter(1L).orElseThrow();
+
+        assertThat(events.stream().map(ProductChangeEvent::getSequence).collect(Collectors.toList()))
+                .containsExactly(2L, 3L);
+        assertThat(events.get(0).getPrice()).isEqualTo(12_000);
+        assertThat(events.get(1).getKind()).isEqualTo(ProductChangeEvent.Kind.DELETED);
+    }
+
+    @DisplayName("버퍼에서 밀려난 지점부터 요청하면 이어서 받을 수 없다.")
+    @Test
+    void eventsAfterEvictedSequence() {
+        for (long id = 1; id <= 6; id++) {
+            feed.publish(ProductChangeEvent.Kind.DELETED, id, null);
+        }
+
+        assertThat(feed.eventsAfter(1L)).isEmpty();
+        assertThat(feed.eventsAfter(2L).orElseThrow()).hasSize(4);
+    }
+
+    @DisplayName("서버가 발급한 적 없는 이벤트 번호로는 이어서 받을 수 없다.")
+    @Test
+    void eventsAfterUnknownSequence() {
+        feed.publish(ProductChangeEvent.Kind.DELETED, 1L, null);
+
+        assertThat(feed.eventsAfter(5L)).isEmpty();
+        assertThat(feed.eventsAfter(1L).orElseThrow()).isEmpty();
+    }
+
+    @DisplayName("느린 구독자의 큐가 차면 그 구독자만 끊고 다른 구독자에게는 계속 보낸다.")
+    @Test
+    void dropSlowSubscriber() throws InterruptedException {
+        CountDownLatch unblock = new CountDownLatch(1);
+        CountDownLatch slowCompleted = new CountDownLatch(1);
+        Semaphore fastReceived = new Semaphore(0);
+        SseEmitter slow = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public synchronized void complete() {
+                slowCompleted.countDown();
+            }
+        };
+        SseEmitter fast = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                fastReceived.release();
+            }
+        };
+        feed.subscribe(slow, 0L);
+        feed.subscribe(fast, 0L);
+
+        for (long id = 1; id <= 10; id++) {
+            feed.publish(ProductChangeEvent.Kind.DELETED, id, null);
+            assertThat(fastReceived.tryAcquire(2, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(feed.subscriberCount()).isEqualTo(1);
+        unblock.countDown();
+        assertThat(slowCompleted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,102 @@
+package cart.application;
+
+import cart.dao.ProductDao;
+import cart.domain.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ProductLoaderTest {
+    private static final int CONCURRENT_REQUESTS = 500;
+
+    private final ProductDao productDao = mock(ProductDao.class);
+
+    @DisplayName("같은 상품을 동시에 조회하면 DB 조회는 한 번씩만 실행되고 결과를 함께 받는다.")
+    @Test
+    void coalesceConcurrentLookups() throws Exception {
+        respondSlowly(Duration.ofMillis(50), null);
+        ProductLoader productLoader = new ProductLoader(productDao, Duration.ofSeconds(5));
+
+        List<Object> results = lookupConcurrently(productLoader, 1L);
+
+        assertThat(results).hasSize(CONCURRENT_REQUESTS).allSatisfy(result -> assertThat(result).isInstanceOf(Product.class));
+        verify(productDao, atLeastOnce()).getProductById(1L);
+        verify(productDao, atMost(CONCURRENT_REQUESTS / 10 - 1)).getProductById(1L);
+    }
+
+    @DisplayName("실제 조회가 실패하면 기다리던 요청도 같은 예외를 받는다.")
+    @Test
+    void propagateLoaderFailure() throws Exception {
+        respondSlowly(Duration.ofMillis(50), new EmptyResultDataAccessException(1));
+        ProductLoader productLoader = new ProductLoader(productDao, Duration.ofSeconds(5));
+
+        List<Object> results = lookupConcurrently(productLoader, 1L);
+
+        assertThat(results).allSatisfy(result -> assertThat(result).isInstanceOf(EmptyResultDataAccessException.class));
+        verify(productDao, atMost(CONCURRENT_REQUESTS / 10 - 1)).getProductById(1L);
+    }
+
+    @DisplayName("기다리는 시간이 제한을 넘으면 진행 중인 조회를 더 기다리지 않는다.")
+    @Test
+    void boundedWaiting() throws Exception {
+        respondSlowly(Duration.ofMillis(500), null);
+        ProductLoader productLoader = new ProductLoader(productDao, Duration.ofMillis(20));
+
+        List<Object> results = lookupConcurrently(productLoader, 1L);
+
+        assertThat(results).anySatisfy(result -> assertThat(result).isInstanceOf(QueryTimeoutException.class));
+        assertThat(results).anySatisfy(result -> assertThat(result).isInstanceOf(Product.class));
+    }
+
+    private List<Object> lookupConcurrently(ProductLoader productLoader, Long productId) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return productLoader.getProductById(productId);
+                } catch (RuntimeException e) {
+                    return e;
+                }
+            }));
+        }
+        start.countDown();
+
+        List<Object> results = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            results.add(future.get());
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    private void respondSlowly(Duration latency, RuntimeException failure) {
+        willAnswer(invocation -> {
+            Thread.sleep(latency.toMillis());
+            if (failure != null) {
+                throw failure;
+            }
+            return new Product(invocation.getArgument(0), "치킨", 10_000, "http://example.com/chicken.jpg");
+        }).given(productDao).getProductById(anyLong());
+    }
+}
@@ -0,0 +1,141 @@
+package cart.application;
+
+import cart.dao.ProductDao;
+import cart.domain.Product;
+import cart.exception.ProductException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ProductReadGuardTest {
+    private final ProductDao productDao = mock(ProductDao.class);
+    private final ProductReadGuard productReadGuard = new ProductReadGuard(productDao,
+            new ProductLoader(productDao, Duration.ofSeconds(1)), 10, 4, 0.5, Duration.ofMillis(100));
+
+    @BeforeEach
+    void setUp() {
+        recoverDatabase();
+    }
+
+    @DisplayName("DB 조회가 실패하면 마지막으로 성공한 상품 목록을 오래된 값으로 표시해 돌려준다.")
+    @Test
+    void serveLastKnownGoodOnFailure() {
+        assertThat(productReadGuard.getAllProducts().isStale()).isFalse();
+
+        failDatabase();
+        ReadResult<List<Product>> result = productReadGuard.getAllProducts();
+
+        assertThat(result.isStale()).isTrue();
+        assertThat(result.getValue()).hasSize(2);
+    }
+
+    @DisplayName("실패가 이어져 차단기가 열리면 DB 를 호출하지 않는다.")
+    @Test
+    void stopCallingDatabaseWhenOpen() {
+        productReadGuard.getAllProducts();
+        failDatabase();
+        for (int i = 0; i < 4; i++) {
+            productReadGuard.getAllProducts();
+        }
+        assertThat(productReadGuard.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        clearInvocations(productDao);
+        ReadResult<Product> result = productReadGuard.getProductById(1L);
+
+        assertThat(result.isStale()).isTrue();
+        assertThat(result.getValue().getName()).isEqualTo("치킨");
+        verifyNoInteractions(productDao);
+    }
+
+    @DisplayName("느린 조회도 실패로 세어 차단기를 연다.")
+    @Test
+    void openOnSlowCalls() {
+        willAnswer(invocation -> {
+            Thread.sleep(150);
+            return List.of(product(1L), product(2L));
+        }).given(productDao).getAllProducts();
+        for (int i = 0; i < 4; i++) {
+            assertThat(productReadGuard.getAllProducts().isStale()).isFalse();
+        }
+
+        assertThat(productReadGuard.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(productReadGuard.getAllProducts().isStale()).isTrue();
+    }
+
+    @DisplayName("백그라운드 점검이 성공하면 차단기를 닫고 다시 DB 에서 읽는다.")
+    @Test
+    void closeAfterSuccessfulProbe() {
+        productReadGuard.getAllProducts();
+        failDatabase();
+        for (int i = 0; i < 4; i++) {
+            productReadGuard.getAllProducts();
+        }
+
+        productReadGuard.probe();
+        assertThat(productReadGuard.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        recoverDatabase();
+        productReadGuard.probe();
+        assertThat(productReadGuard.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(productReadGuard.getAllProducts().isStale()).isFalse();
+    }
+
+    @DisplayName("남겨 둔 값이 없는 상품은 조회할 수 없다는 예외를 던진다.")
+    @Test
+    void unavailableWithoutLastKnownGood() {
+        failDatabase();
+
+        assertThatThrownBy(() -> productReadGuard.getProductById(3L))
+                .isInstanceOf(ProductException.CatalogUnavailable.class);
+    }
+
+    @DisplayName("바뀐 상품과 다른 노드에서 바뀐 카탈로그는 남겨 둔 값으로 돌려주지 않는다.")
+    @Test
+    void forgetChangedProducts() {
+        productReadGuard.getAllProducts();
+        productReadGuard.forget(1L);
+        failDatabase();
+
+        assertThatThrownBy(() -> productReadGuard.getProductById(1L))
+                .isInstanceOf(ProductException.CatalogUnavailable.class);
+        assertThatThrownBy(() -> productReadGuard.getAllProducts())
+                .isInstanceOf(ProductException.CatalogUnavailable.class);
+        assertThat(productReadGuard.getProductById(2L).isStale()).isTrue();
+
+        productReadGuard.onCatalogChanged(new CatalogChangedEvent(1L));
+        assertThatThrownBy(() -> productReadGuard.getProductById(2L))
+                .isInstanceOf(ProductException.CatalogUnavailable.class);
+    }
+
+    private void recoverDatabase() {
+        willReturn(List.of(product(1L), product(2L))).given(productDao).getAllProducts();
+        willAnswer(invocation -> product(invocation.getArgument(0))).given(productDao).getProductById(anyLong());
+        willDoNothing().given(productDao).probe();
+    }
+
+    private void failDatabase() {
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("connection refused");
+        willThrow(failure).given(productDao).getAllProducts();
+        willThrow(failure).given(productDao).getProductById(anyLong());
+        willThrow(failure).given(productDao).probe();
+    }
+
+    private static Product product(Long productId) {
+        return new Product(productId, productId == 1L ? "치킨" : "피자", 10_000, "http://example.com/" + productId + ".jpg");
+    }
+}
@@ -0,0 +1,129 @@
+package cart.application;
+
+import cart.dao.ProductDao;
+import cart.domain.Product;
+import cart.dto.RelatedProductResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class RelatedProductsTest {
+
+    @DisplayName("함께 담긴 횟수가 많은 상품부터, 같으면 상품 id 순으로 돌려준다.")
+    @Test
+    void orderByCount() {
+        RelatedProducts relatedProducts = new RelatedProducts(null, 10);
+        relatedProducts.recordAdded(1L, List.of());
+        relatedProducts.recordAdded(2L, List.of(1L));
+        relatedProducts.recordAdded(3L, List.of(1L, 2L));
+        relatedProducts.recordAdded(3L, List.of(1L));
+        relatedProducts.recordAdded(4L, List.of(1L));
+
+        List<RelatedProductResponse> related = relatedProducts.related(1L, 10);
+
+        assertThat(productIds(related)).containsExactly(3L, 2L, 4L);
+        assertThat(related.get(0).getCount()).isEqualTo(2);
+        assertThat(productIds(relatedProducts.related(1L, 1))).containsExactly(3L);
+        assertThat(productIds(relatedProducts.related(2L, 10))).containsExactly(1L, 3L);
+    }
+
+    @DisplayName("장바구니에서 빠지면 남은 상품과의 횟수가 줄고, 0 이 되면 목록에서 사라진다.")
+    @Test
+    void decrementOnRemoval() {
+        RelatedProducts relatedProducts = new RelatedProducts(null, 10);
+        relatedProducts.recordAdded(2L, List.of(1L));
+        relatedProducts.recordAdded(3L, List.of(1L, 2L));
+
+        relatedProducts.recordRemoved(2L, List.of(1L, 3L));
+
+        assertThat(productIds(relatedProducts.related(1L, 10))).containsExactly(3L);
+        assertThat(relatedProducts.related(2L, 10)).isEmpty();
+    }
+
+    @DisplayName("이웃이 많아져도 상품마다 정해진 수까지만 두고, 자주 함께 담긴 상품은 남긴다.")
+    @Test
+    void pruneRareNeighbours() {
+        RelatedProducts relatedProducts = new RelatedProducts(null, 5);
+        for (int i = 0; i < 3; i++) {
+            relatedProducts.recordAdded(1L, List.of(2L, 3L));
+        }
+        for (long other = 100; other < 1_100; other++) {
+            relatedProducts.recordAdded(other, List.of(1L));
+        }
+
+        List<RelatedProductResponse> related = relatedProducts.related(1L, 100);
+
+        assertThat(related).hasSizeLessThanOrEqualTo(5);
+        assertThat(productIds(related)).startsWith(2L, 3L);
+    }
+
+    @DisplayName("지운 상품은 그 상품의 목록과 다른 상품의 목록에서 모두 빠진다.")
+    @Test
+    void forgetDeletedProduct() {
+        RelatedProducts relatedProducts = new RelatedProducts(null, 10);
+        relatedProducts.recordAdded(2L, List.of(1L));
+        relatedProducts.recordAdded(3L, List.of(1L, 2L));
+
+        relatedProducts.forget(2L);
+
+        assertThat(productIds(relatedProducts.related(1L, 10))).containsExactly(3L);
+        assertThat(productIds(relatedProducts.related(3L, 10))).containsExactly(1L);
+        assertThat(relatedProducts.related(2L, 10)).isEmpty();
+    }
+
+    @DisplayName("다른 노드에서 카탈로그가 바뀌면 DB 에 없는 상품을 버린다.")
+    @Test
+    void dropProductsDeletedElsewhere() {
+        ProductDao productDao = mock(ProductDao.class);
+        given(productDao.findByIds(anyCollection())).willAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                .filter(id -> id != 3L)
+                .map(id -> new Product(id, "product-" + id, 1_000, "http://example.com/" + id + ".jpg"))
+                .collect(Collectors.toList()));
+        RelatedProducts relatedProducts = new RelatedProducts(productDao, 10);
+        relatedProducts.recordAdded(2L, List.of(1L));
+        relatedProducts.recordAdded(3L, List.of(1L, 2L));
+
+        relatedProducts.sweepDeletedProducts();
+
+        assertThat(productIds(relatedProducts.related(1L, 10))).containsExactly(2L);
+        assertThat(relatedProducts.related(3L, 10)).isEmpty();
+    }
+
+    @DisplayName("상품을 읽지 못하면 목록을 그대로 두고 예외를 밖으로 던지지 않는다.")
+    @Test
+    void keepProductsWhenCatalogUnreadable() {
+        ProductDao productDao = mock(ProductDao.class);
+        given(productDao.findByIds(anyCollection())).willThrow(new QueryTimeoutException("timeout"));
+        RelatedProducts relatedProducts = new RelatedProducts(productDao, 10);
+        relatedProducts.recordAdded(2L, List.of(1L));
+
+        relatedProducts.sweepDeletedProducts();
+
+        assertThat(productIds(relatedProducts.related(1L, 10))).containsExactly(2L);
+    }
+
+    @DisplayName("한 번도 함께 담긴 적 없는 상품은 빈 목록을 돌려준다.")
+    @Test
+    void unknownProduct() {
+        RelatedProducts relatedProducts = new RelatedProducts(null, 10);
+        relatedProducts.recordAdded(2L, LongStream.rangeClosed(3, 5).boxed().collect(Collectors.toList()));
+
+        assertThat(relatedProducts.related(1L, 10)).isEmpty();
+    }
+
+    private List<Long> productIds(List<RelatedProductResponse> related) {
+        return related.stream()
+                .map(RelatedProductResponse::getProductId)
+                .collect(Collectors.toList());
+    }
+}
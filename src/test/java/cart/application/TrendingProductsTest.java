@@ -0,0 +1,167 @@
+package cart.application;
+
+import cart.dao.ProductDao;
+import cart.domain.Product;
+import cart.dto.TrendingProductResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class TrendingProductsTest {
+    private final ProductDao productDao = mock(ProductDao.class);
+    private final MutableClock clock = new MutableClock();
+
+    @DisplayName("많이 담긴 상품부터 점수 순으로 돌려준다.")
+    @Test
+    void orderByScore() {
+        TrendingProducts trendingProducts = new TrendingProducts(productDao, 10, Duration.ofHours(1), clock);
+        record(trendingProducts, 1L, 3);
+        record(trendingProducts, 2L, 5);
+        record(trendingProducts, 3L, 1);
+
+        assertThat(productIds(trendingProducts.top(2))).containsExactly(2L, 1L);
+        assertThat(trendingProducts.top(10).get(0).getScore()).isCloseTo(5.0, within(1e-9));
+    }
+
+    @DisplayName("반감기가 지나면 이전 담기의 점수는 절반이 되어 최근 담기가 앞선다.")
+    @Test
+    void decayOldAdds() {
+        TrendingProducts trendingProducts = new TrendingProducts(productDao, 10, Duration.ofHours(1), clock);
+        record(trendingProducts, 1L, 4);
+        clock.advance(Duration.ofHours(2));
+        record(trendingProducts, 2L, 2);
+
+        List<TrendingProductResponse> trending = trendingProducts.top(2);
+
+        assertThat(productIds(trending)).containsExactly(2L, 1L);
+        assertThat(trending.get(1).getScore()).isCloseTo(1.0, within(1e-9));
+    }
+
+    @DisplayName("오랜 시간이 지나도 점수가 넘치지 않는다.")
+    @Test
+    void rescaleAfterLongRun() {
+        TrendingProducts trendingProducts = new TrendingProducts(productDao, 10, Duration.ofMinutes(1), clock);
+        for (int day = 0; day < 30; day++) {
+            clock.advance(Duration.ofDays(1));
+            record(trendingProducts, 1L, 1);
+        }
+
+        assertThat(trendingProducts.top(1).get(0).getScore()).isCloseTo(1.0, within(1e-9));
+    }
+
+    @DisplayName("카운터 수는 고정되고 자주 담기는 상품은 드문 상품에 밀려나지 않는다.")
+    @Test
+    void fixedCapacity() {
+        TrendingProducts trendingProducts = new TrendingProducts(productDao, 8, Duration.ofHours(1), clock);
+        for (long productId = 100; productId < 10_000; productId++) {
+            record(trendingProducts, 1L, 1);
+            record(trendingProducts, productId, 1);
+        }
+
+        List<TrendingProductResponse> trending = trendingProducts.top(100);
+
+        assertThat(trending).hasSize(8);
+        assertThat(trending.get(0).getProductId()).isEqualTo(1L);
+    }
+
+    @DisplayName("트랜잭션 안에서 담은 상품은 커밋된 뒤에야 점수에 들어간다.")
+    @Test
+    void recordAfterCommit() {
+        TrendingProducts trendingProducts = new TrendingProducts(productDao, 10, Duration.ofHours(1), clock);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            trendingProducts.record(1L, 2);
+            assertThat(trendingProducts.top(10)).isEmpty();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(productIds(trendingProducts.top(10))).containsExactly(1L);
+    }
+
+    @DisplayName("지운 상품은 커밋된 뒤 목록에서 빠지고 남은 상품의 점수는 그대로다.")
+    @Test
+    void forgetDeletedProduct() {
+        TrendingProducts trendingProducts = new TrendingProducts(productDao, 10, Duration.ofHours(1), clock);
+        record(trendingProducts, 1L, 3);
+        record(trendingProducts, 2L, 2);
+        record(trendingProducts, 3L, 1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            trendingProducts.forget(1L);
+            assertThat(productIds(trendingProducts.top(10))).containsExactly(1L, 2L, 3L);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(productIds(trendingProducts.top(10))).containsExactly(2L, 3L);
+        assertThat(trendingProducts.top(1).get(0).getScore()).isCloseTo(2.0, within(1e-9));
+    }
+
+    @DisplayName("다른 노드에서 카탈로그가 바뀌면 DB 에 없는 상품을 버린다.")
+    @Test
+    void dropProductsDeletedElsewhere() {
+        given(productDao.findByIds(anyCollection())).willReturn(List.of(new Product(2L, "피자", 15_000, "http://example.com/pizza.jpg")));
+        TrendingProducts trendingProducts = new TrendingProducts(productDao, 10, Duration.ofHours(1), clock);
+        record(trendingProducts, 1L, 3);
+        record(trendingProducts, 2L, 2);
+
+        trendingProducts.sweepDeletedProducts();
+
+        assertThat(productIds(trendingProducts.top(10))).containsExactly(2L);
+    }
+
+    private void record(TrendingProducts trendingProducts, Long productId, int times) {
+        for (int i = 0; i < times; i++) {
+            trendingProducts.record(productId, 1);
+        }
+    }
+
+    private List<Long> productIds(List<TrendingProductResponse> trending) {
+        return trending.stream().map(TrendingProductResponse::getProductId).collect(Collectors.toList());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2023-05-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
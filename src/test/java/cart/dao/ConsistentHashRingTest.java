@@ -0,0 +1,57 @@
+package cart.dao;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+    private static final int MEMBERS = 100_000;
+
+    @DisplayName("연속된 회원 id 도 샤드에 고르게 나뉜다.")
+    @Test
+    void spreadSequentialKeys() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(0, 1, 2), 128);
+
+        int[] counts = new int[3];
+        for (long memberId = 1; memberId <= MEMBERS; memberId++) {
+            counts[ring.ownerOf(memberId)]++;
+        }
+
+        for (int count : counts) {
+            assertThat(count).isBetween(MEMBERS / 3 * 8 / 10, MEMBERS / 3 * 12 / 10);
+        }
+    }
+
+    @DisplayName("샤드를 하나 더하면 새 샤드로 가는 회원만 주인이 바뀌고, 바뀌는 비율은 새 샤드의 몫 정도다.")
+    @Test
+    void addingShardOnlyMovesKeysToNewShard() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(0, 1), 128);
+        ConsistentHashRing extended = ring.withShard(2);
+
+        int moved = 0;
+        for (long memberId = 1; memberId <= MEMBERS; memberId++) {
+            int before = ring.ownerOf(memberId);
+            int after = extended.ownerOf(memberId);
+            if (before != after) {
+                assertThat(after).isEqualTo(2);
+                moved++;
+            }
+        }
+
+        assertThat(moved).isBetween(MEMBERS / 3 * 8 / 10, MEMBERS / 3 * 12 / 10);
+    }
+
+    @DisplayName("같은 샤드 집합이면 순서와 상관없이 같은 링이 된다.")
+    @Test
+    void sameShardsSameRing() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(2, 0, 1), 64);
+        ConsistentHashRing other = new ConsistentHashRing(List.of(0, 1), 64).withShard(2);
+
+        for (long memberId = 1; memberId <= 10_000; memberId++) {
+            assertThat(ring.ownerOf(memberId)).isEqualTo(other.ownerOf(memberId));
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package cart.dao;
+
+import cart.dao.StatementRecordingDataSource.RecordedStatement;
+import cart.domain.CartItem;
+import cart.domain.Member;
+import cart.domain.PriceAdjustment;
+import cart.domain.Product;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 큰 합성 데이터를 넣은 H2 에서 DAO 가 실행하는 모든 조회/변경 문장의 EXPLAIN 결과를 확인한다.
+ * 기대한 인덱스를 쓰지 않고 테이블 전체를 훑으면 실패한다.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class QueryPlanTest {
+    private static final int PRODUCT_COUNT = 20_000;
+    private static final int MEMBER_COUNT = 2_000;
+    private static final int CART_ITEM_COUNT = 60_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private StatementRecordingDataSource recordingDataSource;
+    private ProductDao productDao;
+    private MemberDao memberDao;
+    private CartItemDao cartItemDao;
+    private InventoryDao inventoryDao;
+
+    @BeforeAll
+    void loadDataset() {
+        Random random = new Random(42);
+        Instant now = Instant.now();
+
+        batchInsert("INSERT INTO product (name, price, image_url) VALUES (?, ?, ?)", PRODUCT_COUNT,
+                i -> new Object[]{"product-" + i, 100 * (1 + random.nextInt(1_000)), "http://example.com/" + i + ".jpg"});
+        batchInsert("INSERT INTO member (email, password) VALUES (?, ?)", MEMBER_COUNT,
+                i -> new Object[]{"member-" + i + "@example.com", "1234"});
+        // (member_id, product_id) 는 유니크하므로 이미 뽑은 조합은 다시 뽑는다. 회원은 data.sql 의 회원 다음부터 쓴다.
+        Set<Long> cartPairs = new HashSet<>();
+        batchInsert("INSERT INTO cart_item (id, member_id, product_id, quantity, last_modified) VALUES (NEXT VALUE FOR cart_item_id_seq, ?, ?, ?, ?)", CART_ITEM_COUNT,
+                i -> {
+                    long memberId;
+                    long productId;
+                    do {
+                        memberId = 3 + random.nextInt(MEMBER_COUNT);
+                        productId = 1 + random.nextInt(PRODUCT_COUNT);
+                    } while (!cartPairs.add(memberId * (PRODUCT_COUNT + 1) + productId));
+                    return new Object[]{
+                            memberId,
+                            productId,
+                            1 + random.nextInt(5),
+                            Timestamp.from(now.minus(random.nextInt(365), ChronoUnit.DAYS))
+                    };
+                });
+        jdbcTemplate.execute("ANALYZE");
+
+        recordingDataSource = new StatementRecordingDataSource(dataSource);
+        JdbcTemplate recordingJdbcTemplate = new JdbcTemplate(recordingDataSource);
+        productDao = new ProductDao(recordingJdbcTemplate);
+        memberDao = new MemberDao(recordingJdbcTemplate);
+        cartItemDao = new CartItemDao(new CartItemShards(recordingJdbcTemplate, List.of(), List.of(), 1), productDao);
+        inventoryDao = new InventoryDao(recordingJdbcTemplate);
+    }
+
+    @BeforeEach
+    void clearRecordedStatements() {
+        recordingDataSource.statements().clear();
+    }
+
+    @DisplayName("회원의 장바구니 조회는 cart_item.member_id 인덱스를 쓰고, 상품은 기본 키로 한 번에 채운다.")
+    @Test
+    void findCartItemsByMember() {
+        cartItemDao.findByMemberId(10L);
+
+        assertPlans(
+                indexLookup("MEMBER_ID"),
+                indexLookup("ID")
+        );
+    }
+
+    @DisplayName("함께 담은 상품 갱신에 쓰는 회원의 장바구니 상품 id 조회는 cart_item.member_id 인덱스를 쓴다.")
+    @Test
+    void findCartProductIdsByMember() {
+        cartItemDao.findProductIdsByMemberId(10L);
+
+        assertPlans(indexLookup("MEMBER_ID"));
+    }
+
+    @DisplayName("장바구니 아이템 단건 조회와 변경은 기본 키를, 지운 뒤 남은 상품 조회는 member_id 인덱스를 사용한다.")
+    @Test
+    void cartItemById() {
+        Long cartItemId = cartItemDao.save(new CartItem(new Member(1L, null, null), new Product(1L, null, 0, null)));
+        CartItem cartItem = cartItemDao.findById(1L, cartItemId);
+        cartItem.changeQuantity(3);
+        cartItemDao.updateQuantity(cartItem);
+        cartItemDao.deleteById(1L, cartItemId);
+
+        assertPlans(
+                indexLookup("ID"),
+                indexLookup("ID"),
+                indexLookup("ID"),
+                indexLookup("ID"),
+                indexLookup("MEMBER_ID")
+        );
+    }
+
+    @DisplayName("회원과 상품으로 장바구니 아이템을 지울 때 (member_id, product_id) 인덱스를 사용한다.")
+    @Test
+    void deleteCartItemByMemberAndProduct() {
+        cartItemDao.delete(20L, 30L);
+
+        assertPlans(indexLookup("MEMBER_ID"));
+    }
+
+    @DisplayName("비회원 장바구니 병합은 (member_id, product_id) 인덱스로 기존 아이템을 찾는다.")
+    @Test
+    void mergeGuestCart() {
+        cartItemDao.mergeQuantities(30L, Map.of(40L, 1, 50L, 2));
+
+        recordedQueries().forEach(statement -> assertThat(plan(statement))
+                .as("plan of %s", statement.getSql())
+                .doesNotContain("CART_ITEM.tableScan"));
+    }
+
+    @DisplayName("오래된 장바구니 아이템 정리는 last_modified 인덱스를 사용한다.")
+    @Test
+    void purgeCartItems() {
+        Instant cutoff = Instant.now().minus(360, ChronoUnit.DAYS);
+        List<Long> ids = cartItemDao.findOldestIdsModifiedBefore(0, cutoff, 100);
+        cartItemDao.lockQuantitiesByIdsModifiedBefore(0, ids, cutoff);
+        cartItemDao.deleteByIdsModifiedBefore(0, ids, cutoff);
+
+        assertPlans(
+                indexLookup("LAST_MODIFIED"),
+                indexLookup("ID"),
+                indexLookup("ID")
+        );
+    }
+
+    @DisplayName("상품 단건 조회/변경/삭제와 커서 기반 목록 조회는 기본 키를 사용한다.")
+    @Test
+    void productById() {
+        Long productId = productDao.createProduct(new Product("plan", 1_000, "http://example.com/plan.jpg"));
+        productDao.getProductById(productId);
+        productDao.updateProduct(productId, new Product("plan", 2_000, "http://example.com/plan.jpg"));
+        productDao.updateImageUrl(productId, "/images/plan.png");
+        productDao.getProductsAfter(productId - 10, 5);
+        productDao.searchProductsAfter("plan", productId - 10, 5);
+        productDao.findByIds(List.of(productId, 1L));
+        productDao.deleteProduct(productId);
+
+        assertPlans(
+                indexLookup("ID"),
+                indexLookup("ID"),
+                indexLookup("ID"),
+                indexLookup("ID"),
+                indexLookup("ID"),
+                indexLookup("ID"),
+                indexLookup("ID")
+        );
+    }
+
+    @DisplayName("재고 조회/예약/반환/변경은 기본 키를 사용한다.")
+    @Test
+    void inventory() {
+        inventoryDao.findStock(1L);
+        inventoryDao.reserve(1L, 1);
+        inventoryDao.release(1L, 1);
+        inventoryDao.updateStock(1L, null);
+
+        // 재고 제한이 없는 상품의 예약은 UPDATE 가 0 행이면 재고를 다시 읽는다.
+        assertPlans(
+                indexLookup("ID"),
+                indexLookup("ID"),
+                indexLookup("ID"),
+                indexLookup("ID"),
+                indexLookup("ID")
+        );
+    }
+
+    @DisplayName("상품 가격 일괄 변경은 id 목록이면 기본 키로, 가격 범위면 마지막 (price, id) 다음부터 가격 인덱스로 대상을 찾는다.")
+    @Test
+    void adjustPrices() {
+        productDao.adjustPrices(List.of(1L, 2L, 3L), new PriceAdjustment(PriceAdjustment.Type.PERCENT, 10));
+        productDao.adjustPricesBetween(50_000, 50_100, new PriceAdjustment(PriceAdjustment.Type.AMOUNT, 1));
+
+        List<RecordedStatement> statements = recordedQueries();
+        assertThat(plan(statements.get(0))).containsPattern(indexLookup("ID"));
+        assertThat(plan(statements.get(1))).containsPattern(indexLookup("PRICE"));
+        statements.forEach(statement -> assertThat(plan(statement))
+                .as("plan of %s", statement.getSql())
+                .doesNotContain(".tableScan"));
+    }
+
+    @DisplayName("회원 조회/변경/삭제는 기본 키 또는 email 유니크 인덱스를 사용한다.")
+    @Test
+    void member() {
+        memberDao.addMember(new Member(null, "plan@example.com", "1234"));
+        Member member = memberDao.getMemberByEmail("plan@example.com");
+        memberDao.getMemberById(member.getId());
+        memberDao.updateMember(new Member(member.getId(), "plan@example.com", "5678"));
+        memberDao.deleteMember(member.getId());
+
+        assertPlans(
+                indexLookup("EMAIL"),
+                indexLookup("ID"),
+                indexLookup("ID"),
+                indexLookup("ID")
+        );
+    }
+
+    @DisplayName("전체 목록 조회만 테이블 전체를 훑는다.")
+    @Test
+    void fullScansAreLimitedToListings() {
+        productDao.getAllProducts();
+        memberDao.getAllMembers();
+
+        recordedQueries().forEach(statement -> assertThat(plan(statement)).contains(".tableScan"));
+    }
+
+    private void assertPlans(Pattern... expectedLookups) {
+        List<RecordedStatement> statements = recordedQueries();
+        assertThat(statements).hasSize(expectedLookups.length);
+        for (int i = 0; i < expectedLookups.length; i++) {
+            String plan = plan(statements.get(i));
+            assertThat(plan)
+                    .as("plan of %s", statements.get(i).getSql())
+                    .containsPattern(expectedLookups[i])
+                    .doesNotContain(".tableScan");
+        }
+    }
+
+    /**
+     * 삽입과 장바구니 아이템 id 시퀀스 조회는 테이블을 찾지 않으므로 뺀다.
+     * 카탈로그 버전은 행이 하나뿐인 테이블을 기본 키로 올리는 문장이라 실행 계획을 볼 필요가 없다.
+     */
+    private List<RecordedStatement> recordedQueries() {
+        return recordingDataSource.statements().stream()
+                .filter(statement -> !statement.getSql().trim().toUpperCase().startsWith("INSERT"))
+                .filter(statement -> !statement.getSql().contains("cart_item_id_seq"))
+                .filter(statement -> !statement.getSql().contains("catalog_version"))
+                .collect(Collectors.toList());
+    }
+
+    private String plan(RecordedStatement statement) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + statement.getSql(), String.class, statement.getParameters().toArray());
+    }
+
+    /**
+     * H2 는 인덱스를 사용하면 계획에 "PUBLIC.인덱스명: 조건" 형태의 주석을 남긴다.
+     */
+    private static Pattern indexLookup(String column) {
+        return Pattern.compile("/\\* PUBLIC\\.[\\w\"]+: [^*]*\\b" + column + "\\b");
+    }
+
+    private void batchInsert(String sql, int count, RowFactory rowFactory) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            rows.add(rowFactory.create(i));
+            if (rows.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    private interface RowFactory {
+        Object[] create(int index);
+    }
+}
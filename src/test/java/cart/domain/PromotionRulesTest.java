@@ -0,0 +1,91 @@
+package cart.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromotionRulesTest {
+    private static final Instant NOW = Instant.parse("2023-05-01T00:00:00Z");
+
+    private final Product chicken = new Product(1L, "치킨", 10_000, "http://example.com/chicken.jpg");
+    private final Product pizza = new Product(2L, "피자", 15_000, "http://example.com/pizza.jpg");
+
+    @DisplayName("상품별 할인율과 전체 할인율 중 큰 것을 적용한다.")
+    @Test
+    void percentOff() {
+        PromotionRules rules = PromotionRules.compile(List.of(
+                Promotion.percentOff(1L, 20),
+                Promotion.percentOff(null, 10)
+        ), NOW);
+
+        CartDiscount discount = rules.apply(List.of(cartItem(chicken, 2), cartItem(pizza, 1)));
+
+        assertThat(discount.getLineDiscount(0)).isEqualTo(4_000);
+        assertThat(discount.getLineDiscount(1)).isEqualTo(1_500);
+        assertThat(discount.getTotal()).isEqualTo(35_000 - 5_500);
+    }
+
+    @DisplayName("아이템 할인이 int 범위를 넘어도 잘리지 않는다.")
+    @Test
+    void lineDiscountBeyondIntRange() {
+        Product expensive = new Product(3L, "한정판", 1_000_000_000, "http://example.com/limited.jpg");
+        PromotionRules rules = PromotionRules.compile(List.of(Promotion.percentOff(3L, 50)), NOW);
+
+        CartDiscount discount = rules.apply(List.of(cartItem(expensive, 10)));
+
+        assertThat(discount.getLineDiscount(0)).isEqualTo(5_000_000_000L);
+        assertThat(discount.getItemDiscount()).isEqualTo(5_000_000_000L);
+    }
+
+    @DisplayName("X 개를 사면 Y 개를 무료로 주고, 같은 상품의 할인율 할인과 겹치면 더 큰 할인 하나만 적용한다.")
+    @Test
+    void buyXGetY() {
+        PromotionRules rules = PromotionRules.compile(List.of(
+                Promotion.buyXGetY(1L, 2, 1),
+                Promotion.percentOff(1L, 10)
+        ), NOW);
+
+        CartDiscount discount = rules.apply(List.of(cartItem(chicken, 7)));
+
+        assertThat(discount.getLineDiscount(0)).isEqualTo(20_000);
+    }
+
+    @DisplayName("상품 할인 후 합계가 최소 주문 금액 이상이면 만족하는 규칙 중 가장 큰 할인을 적용한다.")
+    @Test
+    void minSpend() {
+        PromotionRules rules = PromotionRules.compile(List.of(
+                Promotion.minSpend(20_000, 2_000),
+                Promotion.minSpend(40_000, 5_000),
+                Promotion.percentOff(2L, 50)
+        ), NOW);
+
+        assertThat(rules.apply(List.of(cartItem(chicken, 3))).getCartDiscount()).isEqualTo(2_000);
+        assertThat(rules.apply(List.of(cartItem(chicken, 4))).getCartDiscount()).isEqualTo(5_000);
+        assertThat(rules.apply(List.of(cartItem(pizza, 2))).getCartDiscount()).isZero();
+    }
+
+    @DisplayName("기간이 지나거나 시작하지 않은 규칙은 빼고, 다음 시작/종료 시각까지만 유효하다.")
+    @Test
+    void activeWindow() {
+        Instant startsAt = NOW.plus(Duration.ofHours(1));
+        PromotionRules rules = PromotionRules.compile(List.of(
+                new Promotion(1L, Promotion.Type.PERCENT_OFF, 1L, 50, 0, 0, 0, 0, startsAt, null),
+                new Promotion(2L, Promotion.Type.PERCENT_OFF, 2L, 50, 0, 0, 0, 0, null, NOW)
+        ), NOW);
+
+        CartDiscount discount = rules.apply(List.of(cartItem(chicken, 1), cartItem(pizza, 1)));
+
+        assertThat(discount.getItemDiscount()).isZero();
+        assertThat(rules.isValidAt(NOW)).isTrue();
+        assertThat(rules.isValidAt(startsAt)).isFalse();
+    }
+
+    private CartItem cartItem(Product product, int quantity) {
+        return new CartItem(null, quantity, product, null);
+    }
+}
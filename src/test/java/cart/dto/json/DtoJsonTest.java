@@ -0,0 +1,96 @@
+package cart.dto.json;
+
+import cart.domain.CartItem;
+import cart.domain.Product;
+import cart.dto.CartItemQuantityUpdateRequest;
+import cart.dto.CartItemRequest;
+import cart.dto.CartItemResponse;
+import cart.dto.ProductRequest;
+import cart.dto.ProductResponse;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DtoJsonTest {
+    private final ObjectMapper reflectionMapper = new ObjectMapper();
+    private final ObjectMapper streamingMapper = new ObjectMapper().registerModule(new SimpleModule()
+            .addSerializer(new ProductJson.Serializer())
+            .addSerializer(new CartItemJson.Serializer())
+            .addDeserializer(ProductRequest.class, new ProductJson.Deserializer())
+            .addDeserializer(CartItemRequest.class, new CartItemJson.RequestDeserializer())
+            .addDeserializer(CartItemQuantityUpdateRequest.class, new CartItemJson.QuantityUpdateRequestDeserializer()));
+
+    private final Product chicken = new Product(1L, "치킨 \"반반\"\n", 10_000, "https://example.com/chicken.jpg?a=1&b=<2>");
+    private final Product unsaved = new Product("피자", 0, null);
+
+    @DisplayName("상품과 장바구니 아이템 응답은 기본 ObjectMapper 와 바이트 단위로 같게 쓴다.")
+    @Test
+    void writeSameBytes() throws Exception {
+        List<Object> values = List.of(
+                ProductResponse.of(chicken),
+                ProductResponse.of(unsaved),
+                CartItemResponse.of(new CartItem(3L, 2, chicken, null), 1_500),
+                CartItemResponse.of(new CartItem(null, 1, unsaved, null)),
+                List.of(CartItemResponse.of(new CartItem(3L, 2, chicken, null)), ProductResponse.of(chicken))
+        );
+
+        for (Object value : values) {
+            assertThat(streamingMapper.writeValueAsBytes(value)).isEqualTo(reflectionMapper.writeValueAsBytes(value));
+        }
+    }
+
+    @DisplayName("상품 요청은 기본 데이터 바인딩과 같은 값으로 읽는다.")
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"name\":\"치킨\",\"price\":10000,\"imageUrl\":\"http://example.com/chicken.jpg\"}",
+            "{\"imageUrl\":null,\"price\":\"2000\",\"name\":\"피자\",\"unknown\":{\"nested\":[1,2,{\"name\":\"x\"}]}}",
+            "{\"price\":10.7,\"name\":123}",
+            "{}"
+    })
+    void readProductRequest(String json) throws Exception {
+        ProductRequest expected = lenientReflectionMapper().readValue(json, ProductRequest.class);
+        ProductRequest actual = streamingMapper.readValue(json, ProductRequest.class);
+
+        assertThat(actual).usingRecursiveComparison().isEqualTo(expected);
+    }
+
+    @DisplayName("장바구니 요청은 기본 데이터 바인딩과 같은 값으로 읽는다.")
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"productId\":3,\"quantity\":5}",
+            "{\"productId\":\"3\",\"quantity\":\"5\",\"extra\":[true]}",
+            "{\"productId\":null,\"quantity\":null}"
+    })
+    void readCartItemRequests(String json) throws Exception {
+        ObjectMapper lenientReflectionMapper = lenientReflectionMapper();
+
+        assertThat(streamingMapper.readValue(json, CartItemRequest.class)).usingRecursiveComparison()
+                .isEqualTo(lenientReflectionMapper.readValue(json, CartItemRequest.class));
+        assertThat(streamingMapper.readValue(json, CartItemQuantityUpdateRequest.class)).usingRecursiveComparison()
+                .isEqualTo(lenientReflectionMapper.readValue(json, CartItemQuantityUpdateRequest.class));
+    }
+
+    @DisplayName("숫자 필드에 객체가 오면 기본 데이터 바인딩처럼 거절한다.")
+    @Test
+    void rejectMismatchedInput() {
+        assertThatThrownBy(() -> streamingMapper.readValue("{\"price\":{}}", ProductRequest.class))
+                .isInstanceOf(MismatchedInputException.class);
+    }
+
+    /**
+     * 스프링 부트는 모르는 필드를 무시하도록 ObjectMapper 를 설정한다.
+     */
+    private ObjectMapper lenientReflectionMapper() {
+        return new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+}
@@ -0,0 +1,103 @@
+package cart.integration;
+
+import cart.application.AbandonedCartPurgeJob;
+import cart.dao.MemberDao;
+import cart.domain.Member;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = {
+        "cart.purge.retention=30d",
+        "cart.purge.chunk-size=2",
+        "cart.purge.pause=0ms"
+})
+public class AbandonedCartPurgeIntegrationTest extends IntegrationTest {
+    private static final Instant OLD = Instant.now().minus(Duration.ofDays(60));
+    private static final Instant RECENT = Instant.now().minus(Duration.ofDays(1));
+
+    @Autowired
+    private AbandonedCartPurgeJob purgeJob;
+
+    @Autowired
+    private MemberDao memberDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long firstMemberId;
+    private Long secondMemberId;
+
+    @BeforeEach
+    void setUp() {
+        super.setUp();
+
+        firstMemberId = addMember("purge-1@example.com");
+        secondMemberId = addMember("purge-2@example.com");
+        jdbcTemplate.update("UPDATE product SET stock = 10 WHERE id IN (2, 3)");
+
+        addCartItem(firstMemberId, 1L, 1, OLD);
+        addCartItem(firstMemberId, 2L, 2, OLD);
+        addCartItem(firstMemberId, 3L, 3, OLD);
+        addCartItem(secondMemberId, 2L, 4, OLD);
+        addCartItem(secondMemberId, 3L, 5, OLD);
+        addCartItem(secondMemberId, 1L, 6, RECENT);
+    }
+
+    @DisplayName("보관 기간이 지난 아이템만 지우고, 잡고 있던 재고를 돌려놓는다.")
+    @Test
+    void purgeOnlyOldItems() {
+        purgeJob.purge();
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT quantity FROM cart_item WHERE member_id IN (?, ?)", Integer.class, firstMemberId, secondMemberId))
+                .containsExactly(6);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_item WHERE member_id IN (1, 2)", Integer.class))
+                .isEqualTo(3);
+        assertThat(stockOf(1L)).isNull();
+        assertThat(stockOf(2L)).isEqualTo(10 + 2 + 4);
+        assertThat(stockOf(3L)).isEqualTo(10 + 3 + 5);
+    }
+
+    @DisplayName("chunk-size 개씩 나눠 지우고, 지운 행 수와 묶음 수를 지표로 남긴다.")
+    @Test
+    void purgeInChunks() {
+        purgeJob.purge();
+        purgeJob.purge();
+
+        String metrics = metrics();
+        assertThat(metrics).contains("cart_purge_rows_total 5.0");
+        // 첫 실행은 2, 2, 1 개씩 세 묶음, 두 번째 실행은 지울 것이 없는 한 묶음이다.
+        assertThat(metrics).contains("cart_purge_chunk_seconds_count 4.0");
+    }
+
+    private Long addMember(String email) {
+        memberDao.addMember(new Member(null, email, "1234"));
+        return memberDao.getMemberByEmail(email).getId();
+    }
+
+    private void addCartItem(Long memberId, Long productId, int quantity, Instant lastModified) {
+        jdbcTemplate.update("INSERT INTO cart_item (id, member_id, product_id, quantity, last_modified) " +
+                        "VALUES (NEXT VALUE FOR cart_item_id_seq, ?, ?, ?, ?)",
+                memberId, productId, quantity, Timestamp.from(lastModified));
+    }
+
+    private Integer stockOf(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM product WHERE id = ?", Integer.class, productId);
+    }
+
+    private String metrics() {
+        StringBuilder out = new StringBuilder();
+        purgeJob.writePrometheus(out);
+        return out.toString();
+    }
+}
@@ -2,10 +2,15 @@ package cart.integration;
 
 import cart.dao.MemberDao;
 import cart.domain.Member;
+import cart.domain.Promotion;
 import cart.dto.CartItemQuantityUpdateRequest;
 import cart.dto.CartItemRequest;
 import cart.dto.CartItemResponse;
+import cart.dto.CartTotalResponse;
 import cart.dto.ProductRequest;
+import cart.dto.PromotionRequest;
+import cart.dto.StockRequest;
+import io.restassured.path.json.JsonPath;
 import io.restassured.response.ExtractableResponse;
 import io.restassured.response.Response;
 import org.junit.jupiter.api.BeforeEach;
@@ -53,6 +58,21 @@ public class CartItemIntegrationTest extends IntegrationTest {
         assertThat(response.statusCode()).isEqualTo(HttpStatus.CREATED.value());
     }
 
+    @DisplayName("이미 담긴 상품을 다시 담으면 같은 아이템의 수량이 늘어난다.")
+    @Test
+    void addSameProductTwice() {
+        Long cartItemId = requestAddCartItemAndGetId(member, productId);
+        Long secondCartItemId = requestAddCartItemAndGetId(member, productId);
+
+        List<CartItemResponse> cartItems = requestGetCartItems(member).jsonPath().getList(".", CartItemResponse.class);
+
+        assertThat(secondCartItemId).isEqualTo(cartItemId);
+        assertThat(cartItems)
+                .filteredOn(cartItem -> cartItem.getProduct().getId().equals(productId))
+                .extracting(CartItemResponse::getQuantity)
+                .containsExactly(2);
+    }
+
     @DisplayName("잘못된 사용자 정보로 장바구니에 아이템을 추가 요청시 실패한다.")
     @Test
     void addCartItemByIllegalMember() {
@@ -148,6 +168,89 @@ public class CartItemIntegrationTest extends IntegrationTest {
         assertThat(selectedCartItemResponse.isPresent()).isFalse();
     }
 
+    @DisplayName("재고가 남지 않은 상품은 장바구니에 담을 수 없고, 아이템을 삭제하면 재고가 돌아온다.")
+    @Test
+    void reserveStock() {
+        given().contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(new StockRequest(1))
+                .when()
+                .put("/products/{id}/stock", productId)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        Long cartItemId = requestAddCartItemAndGetId(member, productId);
+        ExtractableResponse<Response> outOfStockResponse = requestAddCartItem(member2, new CartItemRequest(productId));
+        assertThat(outOfStockResponse.statusCode()).isEqualTo(HttpStatus.CONFLICT.value());
+
+        requestDeleteCartItem(cartItemId);
+        int stock = given().when()
+                .get("/products/{id}/stock", productId)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().jsonPath().getInt("stock");
+        assertThat(stock).isEqualTo(1);
+    }
+
+    @DisplayName("할인 규칙을 등록하면 장바구니 아이템과 합계에 할인이 적용된다.")
+    @Test
+    void applyPromotions() {
+        given().contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(new PromotionRequest(Promotion.Type.PERCENT_OFF, productId, 10, 0, 0, 0, 0, null, null))
+                .when()
+                .post("/promotions")
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+        requestAddCartItemAndGetId(member2, productId);
+        requestAddCartItemAndGetId(member2, productId2);
+
+        List<CartItemResponse> cartItems = requestGetCartItems(member2).jsonPath().getList(".", CartItemResponse.class);
+        CartTotalResponse total = given()
+                .auth().preemptive().basic(member2.getEmail(), member2.getPassword())
+                .when()
+                .get("/cart-items/total")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().as(CartTotalResponse.class);
+
+        assertThat(cartItems)
+                .filteredOn(cartItem -> cartItem.getProduct().getId().equals(productId))
+                .extracting(CartItemResponse::getDiscount)
+                .containsExactly(1_000L);
+        assertThat(total.getItemDiscount()).isEqualTo(1_000);
+        assertThat(total.getTotal()).isEqualTo(total.getSubtotal() - 1_000);
+    }
+
+    @DisplayName("최근 장바구니에 많이 담긴 상품 순서로 인기 상품을 조회한다.")
+    @Test
+    void getTrendingProducts() {
+        requestAddCartItemAndGetId(member, productId);
+        requestAddCartItemAndGetId(member, productId2);
+        requestAddCartItemAndGetId(member2, productId2);
+
+        List<Long> trendingProductIds = given()
+                .when()
+                .get("/products/trending?limit=2")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().jsonPath().getList("productId", Long.class);
+
+        assertThat(trendingProductIds).containsExactly(productId2, productId);
+    }
+
+    @DisplayName("같은 장바구니에 담긴 상품을 함께 담은 상품으로 조회하고, 빼면 횟수가 줄어든다.")
+    @Test
+    void getRelatedProducts() {
+        requestAddCartItemAndGetId(member, productId);
+        Long cartItemId = requestAddCartItemAndGetId(member, productId2);
+        requestAddCartItemAndGetId(member2, productId2);
+
+        assertThat(requestRelatedCount(productId, productId2)).isEqualTo(1);
+
+        requestDeleteCartItem(cartItemId);
+
+        assertThat(requestRelatedCount(productId, productId2)).isZero();
+    }
+
     private Long createProduct(ProductRequest productRequest) {
         ExtractableResponse<Response> response = given()
                 .contentType(MediaType.APPLICATION_JSON_VALUE)
@@ -206,6 +309,17 @@ public class CartItemIntegrationTest extends IntegrationTest {
                 .extract();
     }
 
+    private int requestRelatedCount(Long productId, Long relatedProductId) {
+        JsonPath related = given()
+                .when()
+                .get("/products/{id}/related", productId)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().jsonPath();
+        int index = related.getList("productId", Long.class).indexOf(relatedProductId);
+        return index < 0 ? 0 : related.getList("count", Integer.class).get(index);
+    }
+
     private ExtractableResponse<Response> requestDeleteCartItem(Long cartItemId) {
         return given().log().all()
                 .contentType(MediaType.APPLICATION_JSON_VALUE)
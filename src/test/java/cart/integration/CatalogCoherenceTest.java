@@ -0,0 +1,105 @@
+package cart.integration;
+
+import cart.JwpCartApplication;
+import cart.application.CatalogChangedEvent;
+import cart.application.CatalogVersionWatcher;
+import cart.application.ProductService;
+import cart.dto.ProductRequest;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 하나의 H2 서버를 공유하는 두 애플리케이션 컨텍스트로 다중 노드 배포를 흉내 낸다.
+ */
+class CatalogCoherenceTest {
+    private static final String MAX_STALENESS = "PT0.1S";
+
+    private static Server h2Server;
+    private static ConfigurableApplicationContext firstNode;
+    private static ConfigurableApplicationContext secondNode;
+
+    @BeforeAll
+    static void startNodes() throws SQLException {
+        h2Server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        String url = "jdbc:h2:tcp://localhost:" + h2Server.getPort() + "/mem:catalog-coherence;DB_CLOSE_DELAY=-1";
+
+        firstNode = startNode(url, "always");
+        secondNode = startNode(url, "never");
+    }
+
+    private static ConfigurableApplicationContext startNode(String url, String sqlInitMode) {
+        return new SpringApplicationBuilder(JwpCartApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=sa",
+                "--spring.sql.init.mode=" + sqlInitMode,
+                "--cart.catalog.max-staleness=" + MAX_STALENESS
+        );
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        secondNode.close();
+        firstNode.close();
+        h2Server.stop();
+    }
+
+    @DisplayName("한 노드에서 상품을 수정하면 다른 노드만 정해진 시간 안에 카탈로그 변경 이벤트를 받는다.")
+    @Test
+    void otherNodeObservesCatalogChange() throws InterruptedException {
+        CatalogVersionWatcher firstWatcher = firstNode.getBean(CatalogVersionWatcher.class);
+        CatalogVersionWatcher secondWatcher = secondNode.getBean(CatalogVersionWatcher.class);
+        awaitInitialPoll(firstWatcher);
+        awaitInitialPoll(secondWatcher);
+        long versionBefore = secondWatcher.currentVersion();
+
+        AtomicInteger ownNodeEvents = new AtomicInteger();
+        firstNode.addApplicationListener((ApplicationListener<PayloadApplicationEvent<CatalogChangedEvent>>) event -> {
+            if (event.getPayload().getVersion() > versionBefore) {
+                ownNodeEvents.incrementAndGet();
+            }
+        });
+
+        CountDownLatch changed = new CountDownLatch(1);
+        secondNode.addApplicationListener((ApplicationListener<PayloadApplicationEvent<CatalogChangedEvent>>) event -> {
+            if (event.getPayload().getVersion() > versionBefore) {
+                changed.countDown();
+            }
+        });
+
+        firstNode.getBean(ProductService.class)
+                .updateProduct(1L, new ProductRequest("치킨", 20_000, "https://images.unsplash.com/photo-1626082927389-6cd097cdc6ec"));
+
+        assertThat(changed.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(secondWatcher.currentVersion()).isEqualTo(versionBefore + 1);
+        assertThat(secondNode.getBean(ProductService.class).getProductById(1L).getValue().getPrice()).isEqualTo(20_000);
+
+        // 변경한 노드도 새 버전을 읽은 뒤에 확인한다.
+        for (int retry = 0; retry < 40 && firstWatcher.currentVersion() <= versionBefore; retry++) {
+            Thread.sleep(50);
+        }
+        assertThat(firstWatcher.currentVersion()).isEqualTo(versionBefore + 1);
+        assertThat(ownNodeEvents).hasValue(0);
+    }
+
+    private void awaitInitialPoll(CatalogVersionWatcher watcher) throws InterruptedException {
+        for (int retry = 0; retry < 40 && watcher.currentVersion() < 0; retry++) {
+            Thread.sleep(50);
+        }
+        assertThat(watcher.currentVersion()).isGreaterThanOrEqualTo(0);
+    }
+}
@@ -0,0 +1,124 @@
+package cart.integration;
+
+import cart.dto.CartItemQuantityUpdateRequest;
+import cart.dto.CartItemRequest;
+import cart.dto.CompositeOperationRequest;
+import cart.dto.CompositeRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.path.json.JsonPath;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompositeIntegrationTest extends IntegrationTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @DisplayName("여러 작업을 한 번의 요청으로 차례대로 실행하고 결과를 함께 돌려준다.")
+    @Test
+    void executeInOrder() {
+        JsonPath response = requestComposite("a@a.com", new CompositeRequest(false, List.of(
+                operation("GET", "/products/1", null),
+                operation("GET", "/products/2", null),
+                operation("POST", "/cart-items", new CartItemRequest(3L)),
+                operation("GET", "/cart-items", null)
+        )));
+
+        assertThat(response.getList("results.status", Integer.class)).containsExactly(200, 200, 201, 200);
+        assertThat(response.getLong("results[0].body.id")).isEqualTo(1L);
+        assertThat(response.getBoolean("results[0].stale")).isFalse();
+        assertThat(response.getString("results[2].location")).startsWith("/cart-items/");
+        assertThat(response.getList("results[3].body.product.id", Long.class)).contains(1L, 2L, 3L);
+    }
+
+    @DisplayName("transactional 이면 하나라도 실패할 때 앞선 작업까지 모두 되돌린다.")
+    @Test
+    void rollbackOnFailure() {
+        Long otherMembersCartItemId = requestCartItemIds("b@b.com").get(0);
+
+        JsonPath response = requestComposite("a@a.com", new CompositeRequest(true, List.of(
+                operation("POST", "/cart-items", new CartItemRequest(3L)),
+                operation("PATCH", "/cart-items/" + otherMembersCartItemId, new CartItemQuantityUpdateRequest(5)),
+                operation("GET", "/cart-items", null)
+        )));
+
+        assertThat(response.getBoolean("rolledBack")).isTrue();
+        assertThat(response.getList("results.status", Integer.class)).containsExactly(424, 403, 424);
+        assertThat(requestCartProductIds("a@a.com")).doesNotContain(3L);
+    }
+
+    @DisplayName("transactional 이 아니면 실패한 작업만 실패로 표시하고 다음 작업을 계속한다.")
+    @Test
+    void continueOnFailure() {
+        Long otherMembersCartItemId = requestCartItemIds("b@b.com").get(0);
+
+        JsonPath response = requestComposite("a@a.com", new CompositeRequest(false, List.of(
+                operation("PATCH", "/cart-items/" + otherMembersCartItemId, new CartItemQuantityUpdateRequest(5)),
+                operation("POST", "/cart-items", new CartItemRequest(3L)),
+                operation("DELETE", "/products/1", null)
+        )));
+
+        assertThat(response.getBoolean("rolledBack")).isFalse();
+        assertThat(response.getList("results.status", Integer.class)).containsExactly(403, 201, 404);
+        assertThat(requestCartProductIds("a@a.com")).contains(3L);
+    }
+
+    @DisplayName("인증 없이 보내면 상품 조회만 성공하고 장바구니 작업은 401 이 된다.")
+    @Test
+    void requireMemberForCartOperations() {
+        JsonPath response = given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(new CompositeRequest(false, List.of(
+                        operation("GET", "/products/1", null),
+                        operation("GET", "/cart-items", null)
+                )))
+                .when()
+                .post("/composite")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().jsonPath();
+
+        assertThat(response.getList("results.status", Integer.class)).containsExactly(200, 401);
+    }
+
+    private CompositeOperationRequest operation(String method, String path, Object body) {
+        JsonNode bodyNode = body == null ? null : OBJECT_MAPPER.valueToTree(body);
+        return new CompositeOperationRequest(method, path, bodyNode);
+    }
+
+    private JsonPath requestComposite(String email, CompositeRequest request) {
+        return given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .auth().preemptive().basic(email, "1234")
+                .body(request)
+                .when()
+                .post("/composite")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().jsonPath();
+    }
+
+    private List<Long> requestCartItemIds(String email) {
+        return requestCartItems(email).getList("id", Long.class);
+    }
+
+    private List<Long> requestCartProductIds(String email) {
+        return requestCartItems(email).getList("product.id", Long.class);
+    }
+
+    private JsonPath requestCartItems(String email) {
+        return given()
+                .auth().preemptive().basic(email, "1234")
+                .when()
+                .get("/cart-items")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().jsonPath();
+    }
+}
@@ -0,0 +1,74 @@
+package cart.integration;
+
+import cart.application.ConcurrencyLimiter;
+import cart.application.ConcurrencyLimiter.Priority;
+import cart.dto.CartItemRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 상한을 2 로 고정하고 한 자리를 미리 차지해 두면, 조회는 남은 한 자리를 쓸 수 있고 상한의 절반만 쓰는 변경과 관리자 화면은 자리가 없다.
+ */
+@TestPropertySource(properties = {
+        "cart.concurrency.initial-limit=2",
+        "cart.concurrency.min-limit=1",
+        "cart.concurrency.max-limit=2",
+        "cart.concurrency.write-share=0.5",
+        "cart.concurrency.admin-share=0.5"
+})
+public class ConcurrencyLimitIntegrationTest extends IntegrationTest {
+
+    @Autowired
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    @DisplayName("상한을 넘은 변경 요청과 관리자 화면은 기다리지 않고 503 으로 거절한다.")
+    @Test
+    void shedWritesAndAdminViews() {
+        assertThat(concurrencyLimiter.tryAcquire(Priority.READ)).isTrue();
+        try {
+            given()
+                    .contentType(MediaType.APPLICATION_JSON_VALUE)
+                    .auth().preemptive().basic("a@a.com", "1234")
+                    .body(new CartItemRequest(1L))
+                    .when()
+                    .post("/cart-items")
+                    .then()
+                    .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                    .header(HttpHeaders.RETRY_AFTER, "1");
+
+            given()
+                    .when()
+                    .get("/admin")
+                    .then()
+                    .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value());
+
+            given()
+                    .when()
+                    .get("/products/1")
+                    .then()
+                    .statusCode(HttpStatus.OK.value());
+        } finally {
+            concurrencyLimiter.release(0, false);
+        }
+    }
+
+    @DisplayName("부하와 상관없이 실패한 요청은 상한을 줄이지 않는다.")
+    @Test
+    void keepLimitOnOrdinaryFailure() {
+        given()
+                .when()
+                .get("/products/999999")
+                .then()
+                .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
+
+        assertThat(concurrencyLimiter.limit()).isEqualTo(2);
+    }
+}
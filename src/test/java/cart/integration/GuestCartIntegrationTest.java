@@ -0,0 +1,160 @@
+package cart.integration;
+
+import cart.dao.MemberDao;
+import cart.domain.Member;
+import cart.dto.CartItemQuantityUpdateRequest;
+import cart.dto.CartItemRequest;
+import cart.dto.CartItemResponse;
+import cart.ui.GuestCartCookie;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GuestCartIntegrationTest extends IntegrationTest {
+
+    @Autowired
+    private MemberDao memberDao;
+
+    private Member member;
+
+    @BeforeEach
+    void setUp() {
+        super.setUp();
+        member = memberDao.getMemberById(2L);
+    }
+
+    @DisplayName("비회원 장바구니는 서명된 쿠키에만 담긴다.")
+    @Test
+    void addGuestCartItems() {
+        String cookie = requestAddGuestCartItem(null, 1L);
+        cookie = requestAddGuestCartItem(cookie, 1L);
+        cookie = requestAddGuestCartItem(cookie, 2L);
+
+        Map<Long, Integer> quantities = quantitiesByProduct(requestGetGuestCartItems(cookie));
+
+        assertThat(quantities).isEqualTo(Map.of(1L, 2, 2L, 1));
+    }
+
+    @DisplayName("비회원 장바구니 아이템의 수량을 0으로 변경하면 삭제된다.")
+    @Test
+    void updateGuestCartItemQuantityToZero() {
+        String cookie = requestAddGuestCartItem(null, 1L);
+        cookie = requestAddGuestCartItem(cookie, 2L);
+
+        String updatedCookie = given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .cookie(GuestCartCookie.COOKIE_NAME, cookie)
+                .body(new CartItemQuantityUpdateRequest(0))
+                .when()
+                .patch("/guest-cart-items/{productId}", 1L)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .cookie(GuestCartCookie.COOKIE_NAME);
+
+        assertThat(quantitiesByProduct(requestGetGuestCartItems(updatedCookie))).containsOnlyKeys(2L);
+    }
+
+    @DisplayName("서명이 맞지 않는 쿠키는 빈 장바구니로 취급한다.")
+    @Test
+    void tamperedCookie() {
+        String cookie = requestAddGuestCartItem(null, 1L);
+        String tampered = "AQM" + cookie.substring(3);
+
+        assertThat(requestGetGuestCartItems(tampered)).isEmpty();
+    }
+
+    @DisplayName("로그인한 첫 요청에서 비회원 장바구니가 회원 장바구니에 합쳐지고 쿠키는 삭제된다.")
+    @Test
+    void mergeGuestCartOnAuthentication() {
+        String cookie = requestAddGuestCartItem(null, 1L);
+        cookie = requestAddGuestCartItem(cookie, 3L);
+
+        ExtractableResponse<Response> response = given()
+                .auth().preemptive().basic(member.getEmail(), member.getPassword())
+                .cookie(GuestCartCookie.COOKIE_NAME, cookie)
+                .when()
+                .get("/cart-items")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract();
+
+        Map<Long, Integer> quantities = quantitiesByProduct(response.jsonPath().getList(".", CartItemResponse.class));
+        assertThat(quantities).containsEntry(1L, 1);
+        assertThat(quantities).containsEntry(3L, 6);
+        assertThat(response.header(HttpHeaders.SET_COOKIE)).contains(GuestCartCookie.COOKIE_NAME + "=;").contains("Max-Age=0");
+    }
+
+    @DisplayName("이미 합친 쿠키를 다시 보내면 다시 합치지 않는다.")
+    @Test
+    void mergeGuestCartOnlyOnce() {
+        String cookie = requestAddGuestCartItem(null, 1L);
+        cookie = requestAddGuestCartItem(cookie, 3L);
+
+        requestGetCartItemsWithCookie(cookie);
+        List<CartItemResponse> cartItems = requestGetCartItemsWithCookie(cookie);
+
+        Map<Long, Integer> quantities = quantitiesByProduct(cartItems);
+        assertThat(quantities).containsEntry(1L, 1);
+        assertThat(quantities).containsEntry(3L, 6);
+    }
+
+    private List<CartItemResponse> requestGetCartItemsWithCookie(String cookie) {
+        return given()
+                .auth().preemptive().basic(member.getEmail(), member.getPassword())
+                .cookie(GuestCartCookie.COOKIE_NAME, cookie)
+                .when()
+                .get("/cart-items")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath()
+                .getList(".", CartItemResponse.class);
+    }
+
+    private String requestAddGuestCartItem(String cookie, Long productId) {
+        var request = given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(new CartItemRequest(productId));
+        if (cookie != null) {
+            request.cookie(GuestCartCookie.COOKIE_NAME, cookie);
+        }
+        return request
+                .when()
+                .post("/guest-cart-items")
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract()
+                .cookie(GuestCartCookie.COOKIE_NAME);
+    }
+
+    private List<CartItemResponse> requestGetGuestCartItems(String cookie) {
+        return given()
+                .cookie(GuestCartCookie.COOKIE_NAME, cookie)
+                .when()
+                .get("/guest-cart-items")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath()
+                .getList(".", CartItemResponse.class);
+    }
+
+    private Map<Long, Integer> quantitiesByProduct(List<CartItemResponse> cartItems) {
+        return cartItems.stream()
+                .collect(Collectors.toMap(cartItem -> cartItem.getProduct().getId(), CartItemResponse::getQuantity));
+    }
+}
@@ -0,0 +1,53 @@
+package cart.integration;
+
+import io.restassured.path.json.JsonPath;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsIntegrationTest extends IntegrationTest {
+
+    @DisplayName("요청 경로 템플릿과 상태 코드 분류별 지연 시간을 Prometheus 형식으로 노출한다.")
+    @Test
+    void prometheus() throws InterruptedException {
+        given().when().get("/products/1").then().statusCode(HttpStatus.OK.value());
+
+        String expected = "http_server_requests_seconds_count{method=\"GET\",route=\"/products/{id}\",status=\"2xx\"} 1";
+        String body = requestPrometheus();
+        // 응답을 받은 직후에는 서버 스레드가 아직 afterCompletion 을 실행 중일 수 있다.
+        for (int retry = 0; retry < 20 && !body.contains(expected); retry++) {
+            Thread.sleep(50);
+            body = requestPrometheus();
+        }
+
+        assertThat(body).contains(expected);
+    }
+
+    @DisplayName("구간 지연 시간은 읽을 때마다 초기화된다.")
+    @Test
+    void latencyWindowIsResetOnRead() throws InterruptedException {
+        given().when().get("/products").then().statusCode(HttpStatus.OK.value());
+        Thread.sleep(100);
+
+        JsonPath firstWindow = requestLatencyWindow();
+        JsonPath secondWindow = requestLatencyWindow();
+
+        assertThat(firstWindow.getLong("find { it.route == 'GET /products' }.count")).isEqualTo(1L);
+        assertThat(secondWindow.getLong("find { it.route == 'GET /products' }.count")).isEqualTo(0L);
+    }
+
+    private String requestPrometheus() {
+        return given().when().get("/internal/metrics").then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().asString();
+    }
+
+    private JsonPath requestLatencyWindow() {
+        return given().when().get("/internal/metrics/latency").then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().jsonPath();
+    }
+}
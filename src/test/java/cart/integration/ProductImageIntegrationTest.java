@@ -0,0 +1,127 @@
+package cart.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = {"cart.images.dir=build/test-product-images", "cart.images.thumbnail-size=200"})
+public class ProductImageIntegrationTest extends IntegrationTest {
+
+    @DisplayName("업로드한 이미지는 로컬에 저장되고, 상품 이미지 URL 과 썸네일 URL 이 로컬 경로로 바뀐다.")
+    @Test
+    public void uploadImage() throws IOException {
+        byte[] image = png(800, 400);
+
+        var product = given()
+                .multiPart("image", "chicken.png", image, "image/png")
+                .when()
+                .post("/products/1/image")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath();
+
+        String imageUrl = product.getString("imageUrl");
+        String thumbnailUrl = product.getString("thumbnailUrl");
+        assertThat(imageUrl).matches("/images/[0-9a-f]{64}\\.png");
+        assertThat(thumbnailUrl).isEqualTo(imageUrl.replace(".png", "-thumb.png"));
+
+        var savedProduct = given()
+                .when()
+                .get("/products/1")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath();
+        assertThat(savedProduct.getString("imageUrl")).isEqualTo(imageUrl);
+
+        var original = given()
+                .when()
+                .get(imageUrl)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract();
+        assertThat(original.asByteArray()).isEqualTo(image);
+        assertThat(original.contentType()).isEqualTo("image/png");
+        assertThat(original.header(HttpHeaders.CACHE_CONTROL)).contains("max-age=31536000", "immutable");
+
+        byte[] thumbnail = given()
+                .when()
+                .get(thumbnailUrl)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .asByteArray();
+        BufferedImage decodedThumbnail = ImageIO.read(new ByteArrayInputStream(thumbnail));
+        assertThat(decodedThumbnail.getWidth()).isEqualTo(200);
+        assertThat(decodedThumbnail.getHeight()).isEqualTo(100);
+    }
+
+    @DisplayName("같은 ETag 로 다시 요청하면 본문 없이 304 를 돌려준다.")
+    @Test
+    public void notModified() throws IOException {
+        String imageUrl = given()
+                .multiPart("image", "pizza.png", png(10, 10), "image/png")
+                .when()
+                .post("/products/2/image")
+                .then()
+                .extract()
+                .jsonPath()
+                .getString("imageUrl");
+
+        String etag = given().when().get(imageUrl).then().extract().header(HttpHeaders.ETAG);
+
+        given()
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .when()
+                .get(imageUrl)
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value());
+    }
+
+    @DisplayName("이미지가 아닌 파일은 업로드할 수 없다.")
+    @Test
+    public void rejectNonImage() {
+        given()
+                .multiPart("image", "notes.txt", "not an image".getBytes(), "text/plain")
+                .when()
+                .post("/products/1/image")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @DisplayName("저장소가 만든 이름이 아닌 이미지는 찾을 수 없다.")
+    @Test
+    public void unknownImage() {
+        given()
+                .when()
+                .get("/images/application.properties")
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    private byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.dispose();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+}
@@ -1,11 +1,16 @@
 package cart.integration;
 
+import cart.domain.PriceAdjustment;
+import cart.dto.ProductPriceUpdateRequest;
 import cart.dto.ProductRequest;
 import cart.dto.ProductResponse;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 
+import java.util.List;
+
 import static io.restassured.RestAssured.given;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -67,4 +72,134 @@ public class ProductIntegrationTest extends IntegrationTest {
         assertThat(responseProduct.getName()).isEqualTo("피자");
         assertThat(responseProduct.getPrice()).isEqualTo(15_000);
     }
+
+    @DisplayName("상품 목록을 id 커서 기준으로 나누어 조회한다.")
+    @Test
+    public void searchProductsByCursor() {
+        var firstPage = given()
+                .when()
+                .get("/products/search?size=2")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath();
+
+        assertThat(firstPage.getList("products.id", Long.class)).containsExactly(1L, 2L);
+        assertThat(firstPage.getLong("nextCursor")).isEqualTo(2L);
+
+        var lastPage = given()
+                .when()
+                .get("/products/search?size=2&lastId=2")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath();
+
+        assertThat(lastPage.getList("products.id", Long.class)).containsExactly(3L);
+        assertThat(lastPage.getString("nextCursor")).isNull();
+    }
+
+    @DisplayName("상품명에 검색어가 포함된 상품만 조회한다.")
+    @Test
+    public void searchProductsByKeyword() {
+        var page = given()
+                .when()
+                .get("/products/search?keyword=피자")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath();
+
+        assertThat(page.getList("products.name", String.class)).containsExactly("피자");
+    }
+
+    @DisplayName("지정한 상품들의 가격을 비율로 한 번에 변경한다.")
+    @Test
+    public void adjustPricesByIds() {
+        var request = new ProductPriceUpdateRequest(List.of(1L, 3L), null, null, PriceAdjustment.Type.PERCENT, -10);
+
+        var updatedCount = given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(request)
+                .when()
+                .patch("/products/prices")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath()
+                .getInt("updatedCount");
+
+        assertThat(updatedCount).isEqualTo(2);
+        assertThat(getProductPrice(1L)).isEqualTo(9_000);
+        assertThat(getProductPrice(2L)).isEqualTo(20_000);
+        assertThat(getProductPrice(3L)).isEqualTo(11_700);
+    }
+
+    @DisplayName("가격 범위에 속한 상품들의 가격을 금액으로 한 번에 변경한다.")
+    @Test
+    public void adjustPricesBetween() {
+        var request = new ProductPriceUpdateRequest(null, 10_000, 15_000, PriceAdjustment.Type.AMOUNT, 500);
+
+        var updatedCount = given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(request)
+                .when()
+                .patch("/products/prices")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath()
+                .getInt("updatedCount");
+
+        assertThat(updatedCount).isEqualTo(2);
+        assertThat(getProductPrice(1L)).isEqualTo(10_500);
+        assertThat(getProductPrice(2L)).isEqualTo(20_000);
+        assertThat(getProductPrice(3L)).isEqualTo(13_500);
+    }
+
+    @DisplayName("올린 가격이 아직 범위 안이어도 한 번만 바꾸고, int 범위를 넘으면 최댓값으로 자른다.")
+    @Test
+    public void adjustPricesWithinRangeOnceWithoutOverflow() {
+        var raise = new ProductPriceUpdateRequest(null, 10_000, 15_000, PriceAdjustment.Type.AMOUNT, 3_000);
+        var overflow = new ProductPriceUpdateRequest(List.of(2L), null, null, PriceAdjustment.Type.PERCENT, Integer.MAX_VALUE);
+
+        for (ProductPriceUpdateRequest request : List.of(raise, overflow)) {
+            given()
+                    .contentType(MediaType.APPLICATION_JSON_VALUE)
+                    .body(request)
+                    .when()
+                    .patch("/products/prices")
+                    .then()
+                    .statusCode(HttpStatus.OK.value());
+        }
+
+        assertThat(getProductPrice(1L)).isEqualTo(13_000);
+        assertThat(getProductPrice(2L)).isEqualTo(Integer.MAX_VALUE);
+        assertThat(getProductPrice(3L)).isEqualTo(16_000);
+    }
+
+    @DisplayName("상품 목록과 가격 범위를 함께 지정하면 실패한다.")
+    @Test
+    public void adjustPricesWithAmbiguousTarget() {
+        var request = new ProductPriceUpdateRequest(List.of(1L), 0, 10_000, PriceAdjustment.Type.AMOUNT, 500);
+
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(request)
+                .when()
+                .patch("/products/prices")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    private int getProductPrice(Long productId) {
+        return given()
+                .when()
+                .get("/products/{id}", productId)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath()
+                .getInt("price");
+    }
 }
@@ -0,0 +1,238 @@
+package cart.integration;
+
+import cart.dao.CartItemShards;
+import cart.dao.MemberDao;
+import cart.domain.Member;
+import cart.dto.CartItemQuantityUpdateRequest;
+import cart.dto.CartItemRequest;
+import cart.dto.ShardStatusResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = {
+        "cart.shards.urls=jdbc:h2:mem:cart-shard-0,jdbc:h2:mem:cart-shard-1,jdbc:h2:mem:cart-shard-2",
+        "cart.shards.active=0,1",
+        "cart.shards.ring-poll-interval=PT0.5S"
+})
+public class ShardedCartIntegrationTest extends IntegrationTest {
+    private static final int MEMBER_COUNT = 30;
+
+    @Autowired
+    private MemberDao memberDao;
+
+    @Autowired
+    private CartItemShards cartItemShards;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Member> members = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        super.setUp();
+
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            memberDao.addMember(new Member(null, "shard-" + i + "@example.com", "1234"));
+            Member member = memberDao.getMemberByEmail("shard-" + i + "@example.com");
+            members.add(member);
+            for (long productId = 1; productId <= 1 + i % 3; productId++) {
+                addCartItem(member, productId);
+            }
+        }
+    }
+
+    @DisplayName("회원마다 한 샤드에만 장바구니 아이템이 있고, 조회하면 공용 DB 의 상품으로 채워진다.")
+    @Test
+    void routeByMember() {
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            assertThat(getCartProductIds(members.get(i))).containsExactlyElementsOf(expectedProductIds(i));
+            assertThat(shardsHolding(members.get(i))).hasSize(1);
+        }
+
+        assertThat(countRows(0)).isPositive();
+        assertThat(countRows(1)).isPositive();
+        assertThat(countRows(2)).isZero();
+    }
+
+    @DisplayName("다른 샤드에 있는 다른 회원의 장바구니 아이템은 수정할 수 없다.")
+    @Test
+    void rejectOtherMembersItemAcrossShards() {
+        Member owner = members.stream()
+                .filter(member -> shardsHolding(member).contains(0))
+                .findFirst().orElseThrow();
+        Member other = members.stream()
+                .filter(member -> shardsHolding(member).contains(1))
+                .findFirst().orElseThrow();
+        Long cartItemId = cartItemShards.shard(0)
+                .queryForObject("SELECT MIN(id) FROM cart_item WHERE member_id = ?", Long.class, owner.getId());
+
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .auth().preemptive().basic(other.getEmail(), other.getPassword())
+                .body(new CartItemQuantityUpdateRequest(5))
+                .when()
+                .patch("/cart-items/{cartItemId}", cartItemId)
+                .then()
+                .statusCode(HttpStatus.FORBIDDEN.value());
+    }
+
+    @DisplayName("서비스 중에 샤드를 더하면 새 샤드로 가는 회원만 옮겨지고 장바구니는 그대로 보인다.")
+    @Test
+    void addShardOnline() throws InterruptedException {
+        long rowsBefore = countRows(0) + countRows(1);
+
+        given()
+                .when()
+                .post("/admin/shards/2")
+                .then()
+                .statusCode(HttpStatus.ACCEPTED.value());
+        ShardStatusResponse status = awaitRebalanced();
+
+        assertThat(status.getActiveShards()).containsExactly(0, 1, 2);
+        assertThat(jdbcTemplate.queryForObject("SELECT active_shards FROM shard_ring WHERE id = 1", String.class))
+                .isEqualTo("0,1,2");
+        assertThat(status.getMovedMembers()).isPositive();
+        assertThat(countRows(2)).isPositive();
+        assertThat(countRows(0) + countRows(1) + countRows(2)).isEqualTo(rowsBefore);
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            assertThat(getCartProductIds(members.get(i))).containsExactlyElementsOf(expectedProductIds(i));
+            assertThat(shardsHolding(members.get(i))).hasSize(1);
+        }
+
+        Member moved = members.stream()
+                .filter(member -> shardsHolding(member).contains(2))
+                .findFirst().orElseThrow();
+        addCartItem(moved, 3L);
+        assertThat(shardsHolding(moved)).containsExactly(2);
+    }
+
+    @DisplayName("조정이 이미 훑고 지나간 회원이 그사이 담은 아이템도 새 링의 샤드에 남는다.")
+    @Test
+    void addItemsWhileRebalancing() throws InterruptedException {
+        given()
+                .when()
+                .post("/admin/shards/2")
+                .then()
+                .statusCode(HttpStatus.ACCEPTED.value());
+        awaitScanned(MEMBER_COUNT);
+
+        List<Member> lateMembers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            memberDao.addMember(new Member(null, "late-" + i + "@example.com", "1234"));
+            Member member = memberDao.getMemberByEmail("late-" + i + "@example.com");
+            lateMembers.add(member);
+            addCartItem(member, 1L);
+            addCartItem(member, 2L);
+        }
+        assertThat(cartItemShards.isRebalancing()).isTrue();
+        awaitRebalanced();
+
+        for (Member member : lateMembers) {
+            assertThat(getCartProductIds(member)).containsExactly(1L, 2L);
+            assertThat(shardsHolding(member)).hasSize(1);
+        }
+        assertThat(lateMembers).anyMatch(member -> shardsHolding(member).contains(2));
+    }
+
+    @DisplayName("이미 링에 있는 샤드는 더할 수 없다.")
+    @Test
+    void rejectActiveShard() {
+        given()
+                .when()
+                .post("/admin/shards/1")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    private void awaitScanned(int members) throws InterruptedException {
+        for (int attempt = 0; attempt < 200; attempt++) {
+            ShardStatusResponse status = given()
+                    .when()
+                    .get("/admin/shards")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .extract()
+                    .as(ShardStatusResponse.class);
+            if (status.getScannedMembers() >= members) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("rebalancing did not scan the members");
+    }
+
+    private ShardStatusResponse awaitRebalanced() throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            ShardStatusResponse status = given()
+                    .when()
+                    .get("/admin/shards")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .extract()
+                    .as(ShardStatusResponse.class);
+            if (status.getJoiningShard() == null && status.getState().equals("IDLE")) {
+                return status;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("rebalancing did not finish");
+    }
+
+    private void addCartItem(Member member, Long productId) {
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .auth().preemptive().basic(member.getEmail(), member.getPassword())
+                .body(new CartItemRequest(productId))
+                .when()
+                .post("/cart-items")
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+    }
+
+    private List<Long> getCartProductIds(Member member) {
+        return given()
+                .auth().preemptive().basic(member.getEmail(), member.getPassword())
+                .when()
+                .get("/cart-items")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath()
+                .getList("product.id", Long.class);
+    }
+
+    private List<Long> expectedProductIds(int memberIndex) {
+        return LongStream.rangeClosed(1, 1 + memberIndex % 3).boxed().collect(Collectors.toList());
+    }
+
+    private List<Integer> shardsHolding(Member member) {
+        List<Integer> shards = new ArrayList<>();
+        for (int shard = 0; shard < cartItemShards.shardCount(); shard++) {
+            Long count = cartItemShards.shard(shard)
+                    .queryForObject("SELECT COUNT(*) FROM cart_item WHERE member_id = ?", Long.class, member.getId());
+            if (count > 0) {
+                shards.add(shard);
+            }
+        }
+        return shards;
+    }
+
+    private long countRows(int shard) {
+        return cartItemShards.shard(shard).queryForObject("SELECT COUNT(*) FROM cart_item", Long.class);
+    }
+}